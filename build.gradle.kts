@@ -2,6 +2,7 @@ plugins {
     id("java")
 //    id("org.jetbrains.kotlin.jvm") version "1.9.24"
     id("org.jetbrains.intellij") version "1.17.3"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.htx"
@@ -11,9 +12,32 @@ repositories {
     mavenCentral()
 }
 
+// End-to-end benchmarks against an embedded SSH server, run with ./gradlew benchmark
+val benchmarkSourceSet: SourceSet = sourceSets.create("benchmark") {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += output + compileClasspath
+}
+
+// JMH microbenchmarks of the log pipeline need the IDE classes the plugin compiles against
+configurations["jmhImplementation"].extendsFrom(configurations.compileOnly.get())
+
 dependencies {
     implementation("com.hierynomus:sshj:0.38.0")
-    implementation("com.jcraft:jsch:0.1.55")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher:1.10.2")
+
+    "benchmarkImplementation"("org.apache.sshd:sshd-core:2.12.1")
+    "benchmarkImplementation"("org.apache.sshd:sshd-sftp:2.12.1")
+    "benchmarkRuntimeOnly"("org.slf4j:slf4j-nop:2.0.9")
+}
+
+// Microbenchmarks, run with ./gradlew jmh
+jmh {
+    // gc.alloc.rate.norm of the gc profiler is bytes per operation, per line for the log benchmarks
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
 }
 
 // Configure Gradle IntelliJ Plugin
@@ -49,4 +73,18 @@ tasks {
     publishPlugin {
         token.set(System.getenv("PUBLISH_TOKEN"))
     }
+
+    test {
+        useJUnitPlatform()
+    }
+
+    register<JavaExec>("benchmark") {
+        group = "verification"
+        description = "Runs the end-to-end benchmarks and writes JSON reports to build/reports/benchmark"
+        classpath = benchmarkSourceSet.runtimeClasspath
+        mainClass.set("org.htx.benchmark.IntegrationBenchmark")
+        args(layout.buildDirectory.dir("reports/benchmark").get().asFile.path)
+        systemProperties(System.getProperties().filterKeys { it.toString().startsWith("benchmark.") }
+            .mapKeys { it.key.toString() })
+    }
 }
@@ -0,0 +1,137 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Results of one benchmark run, written as JSON so runs of different releases can be compared by a script.
+ * Every result has a name, its parameters, a unit and the statistics of its samples.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/16 09:30
+ * @Version 1.0
+ */
+class BenchmarkReport {
+
+    private final String suite;
+    private final Date started = new Date();
+    private final List<String> results = new ArrayList<>();
+
+    BenchmarkReport(String suite) {
+        this.suite = suite;
+    }
+
+    /**
+     * @param samples measured values in {@code unit}, one per iteration
+     */
+    void add(String name, Map<String, Object> params, String unit, double[] samples) {
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0);
+
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("name", name);
+        fields.put("params", params);
+        fields.put("unit", unit);
+        fields.put("samples", sorted.length);
+        fields.put("mean", mean);
+        fields.put("min", sorted.length == 0 ? 0 : sorted[0]);
+        fields.put("p50", percentile(sorted, 0.50));
+        fields.put("p95", percentile(sorted, 0.95));
+        fields.put("max", sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+        results.add(json(fields));
+        System.out.printf(Locale.ROOT, "%-28s %-48s p50 %12.2f %-8s p95 %12.2f%n",
+                name, params, percentile(sorted, 0.50), unit, percentile(sorted, 0.95));
+    }
+
+    /**
+     * Write {@code <suite>-<time>.json} and {@code <suite>-latest.json} to {@code dir}.
+     */
+    Path write(Path dir) throws IOException {
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("suite", suite);
+        header.put("started", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").format(started));
+        header.put("java", System.getProperty("java.version"));
+        header.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        header.put("cpus", Runtime.getRuntime().availableProcessors());
+        String json = json(header);
+        json = json.substring(0, json.length() - 1) + ",\"results\":[\n" + String.join(",\n", results) + "\n]}\n";
+
+        Files.createDirectories(dir);
+        Path file = dir.resolve(suite + "-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(started) + ".json");
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+        Files.writeString(dir.resolve(suite + "-latest.json"), json, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static String json(Object value) {
+        if (value instanceof Map) {
+            StringBuilder out = new StringBuilder("{");
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (out.length() > 1) {
+                    out.append(',');
+                }
+                out.append(json(entry.getKey().toString())).append(':').append(json(entry.getValue()));
+            }
+            return out.append('}').toString();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return String.format(Locale.ROOT, "%.4f", ((Number) value).doubleValue());
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        String text = String.valueOf(value);
+        StringBuilder out = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"').toString();
+    }
+}
@@ -0,0 +1,325 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.benchmark;
+
+import com.intellij.execution.ui.ConsoleView;
+import org.htx.service.ConnectionUtils;
+import org.htx.service.SftpUtil;
+import org.htx.transfer.TransferMonitor;
+import org.htx.transfer.UploadJournal;
+import org.htx.ui.SpringBootLogConsole;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end benchmarks of connect, exec, log streaming and upload against an {@link EmbeddedSshServer},
+ * plus the line throughput of {@link SpringBootLogConsole}. Run with {@code ./gradlew benchmark};
+ * {@code -Dbenchmark.sizesMb=1,16} and {@code -Dbenchmark.iterations=3} shorten a run.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/16 09:30
+ * @Version 1.0
+ */
+public class IntegrationBenchmark {
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+    private static final String SIZES_MB = System.getProperty("benchmark.sizesMb", "1,16,64");
+    private static final int[] CHANNELS = {1, 4, 8};
+    private static final int[] CHUNK_SIZES_MB = {1, 4};
+    private static final int[] CONCURRENCY = {1, 4, 16};
+
+    private final BenchmarkReport report = new BenchmarkReport("integration");
+    private final Path workDir;
+    private final int port;
+
+    private IntegrationBenchmark(Path workDir, int port) {
+        this.workDir = workDir;
+        this.port = port;
+    }
+
+    /**
+     * @param args report directory, build/reports/benchmark when missing
+     */
+    public static void main(String[] args) throws Exception {
+        Path reportDir = Paths.get(args.length > 0 ? args[0] : "build/reports/benchmark");
+        Path workDir = Files.createTempDirectory("jarpilot-benchmark");
+        try (EmbeddedSshServer server = new EmbeddedSshServer(workDir)) {
+            IntegrationBenchmark benchmark = new IntegrationBenchmark(workDir, server.getPort());
+            benchmark.connect();
+            benchmark.exec();
+            benchmark.execConcurrency();
+            benchmark.execStream();
+            benchmark.upload();
+            benchmark.logConsole();
+            System.out.println("Report: " + benchmark.report.write(reportDir).toAbsolutePath());
+        } finally {
+            try (Stream<Path> files = Files.walk(workDir)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+        System.exit(0);
+    }
+
+    private ConnectionUtils newConnection() throws IOException {
+        ConnectionUtils connection = new ConnectionUtils();
+        connection.setKeepAlive(0);
+        connection.connect("127.0.0.1", port, EmbeddedSshServer.USER, EmbeddedSshServer.PASSWORD);
+        return connection;
+    }
+
+    private void connect() throws IOException {
+        int count = ITERATIONS * 4;
+        double[] samples = new double[count];
+        for (int i = -2; i < count; i++) {
+            long start = System.nanoTime();
+            ConnectionUtils connection = newConnection();
+            long nanos = System.nanoTime() - start;
+            connection.close();
+            if (i >= 0) {
+                samples[i] = millis(nanos);
+            }
+        }
+        report.add("connect.latency", params(), "ms", samples);
+    }
+
+    private void exec() throws Exception {
+        ConnectionUtils connection = newConnection();
+        try {
+            for (boolean agent : new boolean[]{false, true}) {
+                connection.setAgentMode(agent);
+                int count = ITERATIONS * 40;
+                double[] samples = new double[count];
+                for (int i = -10; i < count; i++) {
+                    long start = System.nanoTime();
+                    connection.exec("true");
+                    if (i >= 0) {
+                        samples[i] = millis(System.nanoTime() - start);
+                    }
+                }
+                report.add("exec.latency", params("mode", agent ? "agent" : "session"), "ms", samples);
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void execConcurrency() throws Exception {
+        ConnectionUtils connection = newConnection();
+        try {
+            for (int concurrency : CONCURRENCY) {
+                double[] samples = new double[ITERATIONS];
+                for (int i = 0; i < ITERATIONS; i++) {
+                    int commands = concurrency * 8;
+                    long start = System.nanoTime();
+                    for (int batch = 0; batch < commands / concurrency; batch++) {
+                        List<CompletableFuture<String>> running = new ArrayList<>();
+                        for (int c = 0; c < concurrency; c++) {
+                            running.add(connection.execAsync("true", 30, TimeUnit.SECONDS));
+                        }
+                        CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0])).get();
+                    }
+                    samples[i] = commands / seconds(System.nanoTime() - start);
+                }
+                report.add("execAsync.throughput", params("concurrency", concurrency), "commands/s", samples);
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void execStream() throws Exception {
+        int lines = 200_000;
+        ConnectionUtils connection = newConnection();
+        try {
+            double[] firstLine = new double[ITERATIONS];
+            double[] throughput = new double[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                CountDownLatch first = new CountDownLatch(1);
+                CountDownLatch all = new CountDownLatch(1);
+                AtomicLong received = new AtomicLong();
+                long start = System.nanoTime();
+                AtomicLong firstAt = new AtomicLong();
+                connection.execStream("seq 1 " + lines, line -> {
+                    if (received.incrementAndGet() == 1) {
+                        firstAt.set(System.nanoTime());
+                        first.countDown();
+                    }
+                    if (received.get() == lines) {
+                        all.countDown();
+                    }
+                });
+                if (!all.await(60, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Stream delivered " + received.get() + " of " + lines + " lines");
+                }
+                first.await();
+                firstLine[i] = millis(firstAt.get() - start);
+                throughput[i] = lines / seconds(System.nanoTime() - start);
+            }
+            report.add("execStream.firstLine", params("lines", lines), "ms", firstLine);
+            report.add("execStream.throughput", params("lines", lines), "lines/s", throughput);
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void upload() throws Exception {
+        ConnectionUtils connection = newConnection();
+        try {
+            for (String size : SIZES_MB.split(",")) {
+                int sizeMb = Integer.parseInt(size.trim());
+                File local = randomFile(sizeMb);
+                String remote = workDir.resolve("remote-" + sizeMb + ".bin").toString();
+
+                double[] single = new double[ITERATIONS];
+                for (int i = 0; i < ITERATIONS; i++) {
+                    long start = System.nanoTime();
+                    SftpUtil.upload(connection, local.getPath(), remote, new NullMonitor());
+                    single[i] = sizeMb / seconds(System.nanoTime() - start);
+                }
+                report.add("upload.throughput", params("sizeMb", sizeMb, "mode", "single"), "MB/s", single);
+
+                for (int channels : CHANNELS) {
+                    for (int chunkMb : CHUNK_SIZES_MB) {
+                        double[] samples = new double[ITERATIONS];
+                        for (int i = 0; i < ITERATIONS; i++) {
+                            long start = System.nanoTime();
+                            SftpUtil.uploadParallel(connection, local.getPath(), remote, channels, chunkMb << 20,
+                                    new UploadJournal(), new NullMonitor());
+                            samples[i] = sizeMb / seconds(System.nanoTime() - start);
+                        }
+                        report.add("upload.throughput",
+                                params("sizeMb", sizeMb, "mode", "parallel", "channels", channels, "chunkMb", chunkMb),
+                                "MB/s", samples);
+                    }
+                }
+                local.delete();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Classification, off-heap storing, batching and printing of log lines, the console itself is replaced by a counter
+     * since the real one needs a running IDE.
+     */
+    private void logConsole() {
+        AtomicLong printed = new AtomicLong();
+        ConsoleView counter = (ConsoleView) Proxy.newProxyInstance(ConsoleView.class.getClassLoader(),
+                new Class<?>[]{ConsoleView.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("print")) {
+                        printed.incrementAndGet();
+                    }
+                    return null;
+                });
+        SpringBootLogConsole console = new SpringBootLogConsole(counter);
+        String[] sample = {
+                "2025-10-16 09:30:00.123  INFO 4242 --- [           main] o.s.b.w.embedded.tomcat.TomcatWebServer  : Tomcat started on port(s): 8080 (http)",
+                "2025-10-16 09:30:00.456 DEBUG 4242 --- [nio-8080-exec-1] o.s.web.servlet.DispatcherServlet        : Completed 200 OK",
+                "2025-10-16 09:30:01.789  WARN 4242 --- [nio-8080-exec-2] o.h.engine.jdbc.spi.SqlExceptionHelper   : SQL Warning Code: 0, SQLState: 00000",
+                "2025-10-16 09:30:02.000 ERROR 4242 --- [nio-8080-exec-3] o.a.c.c.C.[.[.[/].[dispatcherServlet]    : Servlet.service() threw exception",
+                "java.lang.IllegalStateException: Connection pool exhausted",
+                "\tat com.zaxxer.hikari.pool.HikariPool.getConnection(HikariPool.java:181)",
+                "\tat org.springframework.jdbc.datasource.DataSourceUtils.fetchConnection(DataSourceUtils.java:159)",
+                "Caused by: java.net.SocketTimeoutException: Read timed out",
+        };
+        int lines = 1_000_000;
+        double[] samples = new double[ITERATIONS];
+        for (int i = -1; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            for (int line = 0; line < lines; line++) {
+                console.appendLog(sample[line % sample.length]);
+            }
+            console.flush();
+            if (i >= 0) {
+                samples[i] = lines / seconds(System.nanoTime() - start);
+            }
+        }
+        report.add("logConsole.throughput", params("lines", lines, "printsPerLine", printed.get() / ((ITERATIONS + 1.0) * lines),
+                        "storeBytes", console.getStore().capacity()),
+                "lines/s", samples);
+        console.getStore().close();
+    }
+
+    private File randomFile(int sizeMb) throws IOException {
+        File file = workDir.resolve("local-" + sizeMb + ".bin").toFile();
+        byte[] block = new byte[1 << 20];
+        Random random = new Random(sizeMb);
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            for (int i = 0; i < sizeMb; i++) {
+                random.nextBytes(block);
+                out.write(block);
+            }
+        }
+        return file;
+    }
+
+    private static Map<String, Object> params(Object... keyValues) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            params.put(keyValues[i].toString(), keyValues[i + 1]);
+        }
+        return params;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+
+    private static class NullMonitor implements TransferMonitor {
+        @Override
+        public void init(String src, String dest, long max) {
+        }
+
+        @Override
+        public boolean count(long count) {
+            return true;
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic Spring Boot log corpora for the microbenchmarks: everyday application lines,
+ * long JSON lines of structured logging, and deep stack traces with causes.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/16 14:00
+ * @Version 1.0
+ */
+final class LogCorpus {
+
+    /** lines per corpus, the benchmarks report per line with @OperationsPerInvocation */
+    static final int LINES = 1024;
+
+    private static final String[] LEVELS = {"INFO", "INFO", "INFO", "DEBUG", "WARN", "ERROR"};
+    private static final String[] LOGGERS = {
+            "o.s.b.w.embedded.tomcat.TomcatWebServer",
+            "o.s.web.servlet.DispatcherServlet",
+            "com.zaxxer.hikari.HikariDataSource",
+            "o.h.engine.jdbc.spi.SqlExceptionHelper",
+            "c.e.shop.order.OrderController",
+    };
+    private static final String[] FRAMES = {
+            "java.base/java.lang.Thread.run(Thread.java:840)",
+            "java.base/java.util.concurrent.ThreadPoolExecutor.runWorker(ThreadPoolExecutor.java:1136)",
+            "org.springframework.web.servlet.FrameworkServlet.service(FrameworkServlet.java:883)",
+            "org.springframework.aop.framework.ReflectiveMethodInvocation.proceed(ReflectiveMethodInvocation.java:184)",
+            "javax.servlet.http.HttpServlet.service(HttpServlet.java:764)",
+            "sun.reflect.GeneratedMethodAccessor42.invoke(Unknown Source)",
+            "com.example.shop.order.OrderService.place(OrderService.java:57)",
+            "org.apache.catalina.core.ApplicationFilterChain.doFilter(ApplicationFilterChain.java:162)",
+    };
+
+    private LogCorpus() {
+    }
+
+    static String[] get(String name) {
+        switch (name) {
+            case "normal":
+                return normal();
+            case "json":
+                return json();
+            case "stacktrace":
+                return stackTrace();
+            default:
+                throw new IllegalArgumentException("Unknown corpus " + name);
+        }
+    }
+
+    private static String[] normal() {
+        Random random = new Random(1);
+        String[] lines = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            lines[i] = String.format("2025-10-16 09:30:%02d.%03d %5s 4242 --- [nio-8080-exec-%d] %-40s : %s",
+                    i % 60, i % 1000, LEVELS[random.nextInt(LEVELS.length)], random.nextInt(10),
+                    LOGGERS[random.nextInt(LOGGERS.length)], "Completed request /api/orders/" + random.nextInt(100000));
+        }
+        return lines;
+    }
+
+    private static String[] json() {
+        Random random = new Random(2);
+        String[] lines = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            StringBuilder line = new StringBuilder(2048)
+                    .append("{\"@timestamp\":\"2025-10-16T09:30:00.").append(i % 1000).append("Z\",")
+                    .append("\"level\":\"").append(LEVELS[random.nextInt(LEVELS.length)]).append("\",")
+                    .append("\"logger\":\"").append(LOGGERS[random.nextInt(LOGGERS.length)]).append("\",")
+                    .append("\"thread\":\"nio-8080-exec-").append(random.nextInt(10)).append("\",")
+                    .append("\"traceId\":\"").append(Long.toHexString(random.nextLong())).append("\",")
+                    .append("\"message\":\"order placed\",\"items\":[");
+            for (int item = 0; item < 20; item++) {
+                line.append(item == 0 ? "" : ",").append("{\"sku\":\"SKU-").append(random.nextInt(1_000_000))
+                        .append("\",\"qty\":").append(random.nextInt(9) + 1)
+                        .append(",\"price\":").append(random.nextInt(10000) / 100.0).append('}');
+            }
+            lines[i] = line.append("]}").toString();
+        }
+        return lines;
+    }
+
+    private static String[] stackTrace() {
+        Random random = new Random(3);
+        List<String> lines = new ArrayList<>(LINES);
+        while (lines.size() < LINES) {
+            lines.add("2025-10-16 09:30:00.000 ERROR 4242 --- [nio-8080-exec-1] o.a.c.c.C.[.[.[/].[dispatcherServlet]    : Servlet.service() threw exception");
+            lines.add("java.lang.IllegalStateException: Order " + random.nextInt(100000) + " cannot be placed");
+            appendFrames(lines, random, 120);
+            lines.add("Caused by: org.springframework.dao.DataAccessResourceFailureException: Unable to acquire JDBC Connection");
+            appendFrames(lines, random, 60);
+            lines.add("\t... 87 more");
+        }
+        return lines.subList(0, LINES).toArray(new String[0]);
+    }
+
+    private static void appendFrames(List<String> lines, Random random, int count) {
+        for (int i = 0; i < count; i++) {
+            lines.add("\tat " + FRAMES[random.nextInt(FRAMES.length)]);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.benchmark;
+
+import com.intellij.openapi.project.Project;
+import org.htx.log.LogClassifier;
+import org.htx.log.LogColorDetector;
+import org.htx.ui.MyStackTraceFolding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-line cost of the log pipeline: classification by the regex rules of {@link LogColorDetector} and by the
+ * scanner of {@link LogClassifier}, and the folding check of {@link MyStackTraceFolding}. Scores are ns per line; with the gc profiler gc.alloc.rate.norm is bytes per line.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/16 14:00
+ * @Version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogPipelineBenchmark {
+
+    @Param({"normal", "json", "stacktrace"})
+    public String corpus;
+
+    private String[] lines;
+    private final LogClassifier classifier = new LogClassifier();
+    private final MyStackTraceFolding folding = new MyStackTraceFolding();
+    /** the folding ignores the project, the IDE is not running here */
+    private final Project project = (Project) Proxy.newProxyInstance(Project.class.getClassLoader(),
+            new Class<?>[]{Project.class}, (proxy, method, args) -> null);
+
+    @Setup
+    public void setUp() {
+        lines = LogCorpus.get(corpus);
+    }
+
+    /** the deprecated regex detector, kept as the baseline */
+    @Benchmark
+    @OperationsPerInvocation(LogCorpus.LINES)
+    @SuppressWarnings("deprecation")
+    public void detectType(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(LogColorDetector.detectType(line));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LogCorpus.LINES)
+    public void classify(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(classifier.classify(line));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LogCorpus.LINES)
+    public void shouldFoldLine(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(folding.shouldFoldLine(project, line));
+        }
+    }
+}
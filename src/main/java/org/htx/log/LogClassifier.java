@@ -0,0 +1,298 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.log;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+
+/**
+ * Content type of the lines of one log stream, by the rules of {@link LogColorDetector} but scanned by hand,
+ * without regex and without allocating per line. Whether the stream is inside a stack trace is kept per
+ * instance, so every stream needs its own classifier and one classifier must not be shared between threads.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/17 15:00
+ * @Version 1.0
+ */
+public class LogClassifier {
+
+    private static final int NONE = -1;
+    private static final int ERROR = 0;
+    private static final int WARN = 1;
+    private static final int DEBUG = 2;
+    private static final int INFO = 3;
+
+    /** ASCII word characters of regex \b: letters, digits and '_' */
+    private static final boolean[] ASCII_WORD = new boolean[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            ASCII_WORD[c] = true;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            ASCII_WORD[c] = true;
+            ASCII_WORD[c - 'a' + 'A'] = true;
+        }
+        ASCII_WORD['_'] = true;
+    }
+
+    private boolean inThrowable;
+
+    public ConsoleViewContentType classify(String line) {
+        if (line == null || line.isEmpty()) {
+            inThrowable = false;
+            return ConsoleViewContentType.LOG_INFO_OUTPUT;
+        }
+
+        switch (level(line)) {
+            case ERROR:
+                inThrowable = false;
+                return ConsoleViewContentType.LOG_ERROR_OUTPUT;
+            case WARN:
+                inThrowable = false;
+                return ConsoleViewContentType.LOG_INFO_OUTPUT;
+            case DEBUG:
+                inThrowable = false;
+                return ConsoleViewContentType.LOG_DEBUG_OUTPUT;
+            case INFO:
+                inThrowable = false;
+                return ConsoleViewContentType.LOG_WARNING_OUTPUT;
+            default:
+                break;
+        }
+
+        int end = contentEnd(line);
+        if (isExceptionStart(line, end) || isCausedBy(line, end)) {
+            inThrowable = true;
+            return ConsoleViewContentType.LOG_ERROR_OUTPUT;
+        }
+
+        // stack frames, "Suppressed:" and "... n more" are errors like any other line of the trace
+        return inThrowable ? ConsoleViewContentType.LOG_ERROR_OUTPUT : ConsoleViewContentType.LOG_INFO_OUTPUT;
+    }
+
+    /**
+     * Forget the stack trace the stream was in, e.g. when the stream restarts.
+     */
+    public void reset() {
+        inThrowable = false;
+    }
+
+    /**
+     * Level of the first word that is a level name, ignoring ASCII case. Words are split like regex \b
+     * splits them: letters and digits of any script, '_' and non-spacing marks after a letter or digit,
+     * including the quirks of java.util.regex with surrogate pairs.
+     */
+    private static int level(String line) {
+        int length = line.length();
+        int wordStart = -1;
+        boolean afterBase = false;
+        int i = 0;
+        while (i <= length) {
+            boolean word;
+            boolean endsWord = false;
+            int next;
+            if (i == length) {
+                word = false;
+                next = i + 1;
+            } else {
+                char c = line.charAt(i);
+                if (c < 128) {
+                    word = ASCII_WORD[c];
+                    afterBase = word && c != '_';
+                    next = i + 1;
+                } else {
+                    int codePoint = line.codePointAt(i);
+                    boolean supplementary = Character.isSupplementaryCodePoint(codePoint);
+                    if (Character.isLetterOrDigit(codePoint)) {
+                        word = true;
+                        // regex \b looks back over marks char by char and takes a surrogate pair for no base
+                        afterBase = !supplementary;
+                    } else if (Character.getType(codePoint) == Character.NON_SPACING_MARK) {
+                        word = afterBase;
+                        if (supplementary) {
+                            // a word that follows this mark starts at a boundary
+                            endsWord = true;
+                            afterBase = false;
+                        }
+                    } else {
+                        word = false;
+                        afterBase = false;
+                    }
+                    next = i + Character.charCount(codePoint);
+                }
+            }
+            if (word) {
+                if (wordStart < 0) {
+                    wordStart = i;
+                }
+                if (endsWord) {
+                    // not ASCII, so no level name
+                    wordStart = -1;
+                }
+            } else if (wordStart >= 0) {
+                int level = levelWord(line, wordStart, i - wordStart);
+                if (level != NONE) {
+                    return level;
+                }
+                wordStart = -1;
+            }
+            i = next;
+        }
+        return NONE;
+    }
+
+    private static int levelWord(String line, int start, int length) {
+        switch (length) {
+            case 4:
+                if (matches(line, start, "info")) {
+                    return INFO;
+                }
+                return matches(line, start, "warn") ? WARN : NONE;
+            case 5:
+                switch (line.charAt(start) | 0x20) {
+                    case 'e':
+                        return matches(line, start, "error") ? ERROR : NONE;
+                    case 'f':
+                        return matches(line, start, "fatal") ? ERROR : NONE;
+                    case 'd':
+                        return matches(line, start, "debug") ? DEBUG : NONE;
+                    case 't':
+                        return matches(line, start, "trace") ? DEBUG : NONE;
+                    default:
+                        return NONE;
+                }
+            case 7:
+                return matches(line, start, "warning") ? WARN : NONE;
+            default:
+                return NONE;
+        }
+    }
+
+    /**
+     * @param lower lower case ASCII letters
+     */
+    private static boolean matches(String line, int start, String lower) {
+        for (int i = 0; i < lower.length(); i++) {
+            char c = line.charAt(start + i);
+            if (c >= 128 || (c | 0x20) != lower.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * "[package.]SimpleNameException[: message]" or "...Error", the first line of a stack trace.
+     */
+    private static boolean isExceptionStart(String line, int end) {
+        int nameEnd = end;
+        for (int i = 0; i < end; i++) {
+            if (line.charAt(i) == ':') {
+                nameEnd = i;
+                break;
+            }
+        }
+        if (!isSingleLine(line, nameEnd + 1, end)) {
+            return false;
+        }
+
+        int simpleStart = 0;
+        for (int i = nameEnd - 1; i >= 0; i--) {
+            if (line.charAt(i) == '.') {
+                simpleStart = i + 1;
+                break;
+            }
+        }
+        if (simpleStart == 1) {
+            // a package needs at least one character before the dot
+            return false;
+        }
+        for (int i = 0; i < simpleStart; i++) {
+            char c = line.charAt(i);
+            if (!isAsciiLetterOrDigit(c) && c != '_' && c != '.') {
+                return false;
+            }
+        }
+
+        int simpleLength = nameEnd - simpleStart;
+        if (!(simpleLength >= 11 && line.startsWith("Exception", nameEnd - 9))
+                && !(simpleLength >= 7 && line.startsWith("Error", nameEnd - 5))) {
+            return false;
+        }
+        char first = line.charAt(simpleStart);
+        if (first < 'A' || first > 'Z') {
+            return false;
+        }
+        for (int i = simpleStart + 1; i < nameEnd; i++) {
+            char c = line.charAt(i);
+            if (!isAsciiLetterOrDigit(c) && c != '_' && c != '$') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCausedBy(String line, int end) {
+        int i = 0;
+        while (i < end && isRegexSpace(line.charAt(i))) {
+            i++;
+        }
+        return line.startsWith("Caused by:", i) && isSingleLine(line, i + 10, end);
+    }
+
+    /**
+     * End of the line without one trailing line terminator, where regex $ also matches.
+     */
+    private static int contentEnd(String line) {
+        int end = line.length();
+        if (end >= 2 && line.charAt(end - 2) == '\r' && line.charAt(end - 1) == '\n') {
+            return end - 2;
+        }
+        return isLineTerminator(line.charAt(end - 1)) ? end - 1 : end;
+    }
+
+    /**
+     * Whether regex "." matches every character of the range.
+     */
+    private static boolean isSingleLine(String line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (isLineTerminator(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
@@ -28,6 +28,10 @@ import com.intellij.execution.ui.ConsoleViewContentType;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Regex rules for the content type of a log line. The stack trace state is shared by all callers,
+ * streams classify with their own {@link LogClassifier}, which follows these rules.
+ */
 public class LogColorDetector {
 
     // 捕获日志级别，大小写不敏感，支持 WARN / WARNING
@@ -48,6 +52,10 @@ public class LogColorDetector {
 
     private static boolean inThrowable = false;
 
+    /**
+     * @deprecated shares its stack trace state between all streams, use a {@link LogClassifier} per stream
+     */
+    @Deprecated
     public static ConsoleViewContentType detectType(String line) {
         if (line == null || line.isEmpty()) {
             inThrowable = false;
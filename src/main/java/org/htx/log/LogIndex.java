@@ -0,0 +1,431 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columns of the parsed events of one log: first line in the {@link LogStore}, epoch millis, level and
+ * dictionary ids of thread and logger. Lines that no layout parses, such as stack frames, belong to the
+ * event before them. A filter is a scan over the primitive columns, the lines themselves stay in the store.
+ * Holds at most {@code maxEvents}, dropping the oldest quarter when full.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/18 11:00
+ * @Version 1.0
+ */
+public class LogIndex {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    /** distinct names kept per column, further names share the id of {@link #OTHER} */
+    private static final int MAX_NAMES = 65_536;
+    private static final String OTHER = "(other)";
+
+    /**
+     * Conditions an event must meet, unset ones match everything.
+     */
+    public static final class Filter {
+        private LogLevel level;
+        private String thread;
+        private String logger;
+        private long from = Long.MIN_VALUE;
+        private long to = Long.MAX_VALUE;
+
+        /** at least this level */
+        public Filter level(LogLevel level) {
+            this.level = level;
+            return this;
+        }
+
+        /** exactly this thread name */
+        public Filter thread(String thread) {
+            this.thread = thread;
+            return this;
+        }
+
+        /** logger names containing this text */
+        public Filter logger(String logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        /** epoch millis range, {@code to} excluded */
+        public Filter time(long from, long to) {
+            this.from = from;
+            this.to = to;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            if (level != null) {
+                parts.add("level >= " + level);
+            }
+            if (thread != null) {
+                parts.add("thread = " + thread);
+            }
+            if (logger != null) {
+                parts.add("logger ~ " + logger);
+            }
+            if (from != Long.MIN_VALUE || to != Long.MAX_VALUE) {
+                parts.add("time in [" + from + ", " + to + ")");
+            }
+            return parts.isEmpty() ? "all events" : String.join(", ", parts);
+        }
+    }
+
+    /**
+     * Line ranges of the newest matching events.
+     */
+    public static final class Matches {
+        private final long[] ranges;
+        private final int total;
+
+        private Matches(long[] ranges, int total) {
+            this.ranges = ranges;
+            this.total = total;
+        }
+
+        /** {@code [start, end)} pairs of store lines, oldest event first */
+        public long[] getRanges() {
+            return ranges;
+        }
+
+        /** matching events, including the ones not in the ranges */
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    /**
+     * Names of one column by id. Lookups hash the characters of the line, so known names cost no allocation.
+     */
+    private static final class Dictionary {
+        private final List<String> names = new ArrayList<>();
+        private int[] table = new int[256];
+
+        private Dictionary() {
+            Arrays.fill(table, -1);
+        }
+
+        private int id(String line, int start, int end) {
+            int hash = hash(line, start, end);
+            int mask = table.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int id = table[slot];
+                if (id < 0) {
+                    if (names.size() >= MAX_NAMES) {
+                        return idOf(OTHER);
+                    }
+                    String name = line.substring(start, end);
+                    names.add(name);
+                    table[slot] = names.size() - 1;
+                    if (names.size() * 2 > table.length) {
+                        rehash();
+                    }
+                    return names.size() - 1;
+                }
+                String name = names.get(id);
+                if (name.length() == end - start && line.regionMatches(start, name, 0, name.length())) {
+                    return id;
+                }
+            }
+        }
+
+        /**
+         * @return id of a known name, or -1
+         */
+        private int find(String name) {
+            int mask = table.length - 1;
+            for (int slot = hash(name, 0, name.length()) & mask; table[slot] >= 0; slot = (slot + 1) & mask) {
+                if (names.get(table[slot]).equals(name)) {
+                    return table[slot];
+                }
+            }
+            return -1;
+        }
+
+        private int idOf(String name) {
+            int id = find(name);
+            if (id < 0) {
+                names.add(name);
+                id = names.size() - 1;
+                int mask = table.length - 1;
+                int slot = hash(name, 0, name.length()) & mask;
+                while (table[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = id;
+                if (names.size() * 2 > table.length) {
+                    rehash();
+                }
+            }
+            return id;
+        }
+
+        private void rehash() {
+            table = new int[table.length * 2];
+            Arrays.fill(table, -1);
+            int mask = table.length - 1;
+            for (int id = 0; id < names.size(); id++) {
+                String name = names.get(id);
+                int slot = hash(name, 0, name.length()) & mask;
+                while (table[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = id;
+            }
+        }
+
+        private static int hash(String text, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + text.charAt(i);
+            }
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    private final int maxEvents;
+    private final LogLayout.Event event = new LogLayout.Event();
+    private List<LogLayout> layouts;
+    private LogLayout lastLayout;
+    private final Dictionary threads = new Dictionary();
+    private final Dictionary loggers = new Dictionary();
+
+    private long[] lines = new long[INITIAL_CAPACITY];
+    private long[] times = new long[INITIAL_CAPACITY];
+    private byte[] levels = new byte[INITIAL_CAPACITY];
+    private int[] threadIds = new int[INITIAL_CAPACITY];
+    private int[] loggerIds = new int[INITIAL_CAPACITY];
+    private int size;
+    /** line after the last one added or skipped */
+    private long end;
+    /** lines of the store that are not from the log, ascending, kept out of a rebuild */
+    private long[] skipped = new long[64];
+    private int skippedCount;
+
+    public LogIndex(int maxEvents) {
+        this(maxEvents, LogLayout.DEFAULTS);
+    }
+
+    public LogIndex(int maxEvents, List<String> patterns) {
+        this.maxEvents = Math.max(INITIAL_CAPACITY, maxEvents);
+        setPatterns(patterns);
+    }
+
+    /**
+     * Layouts tried for each line, the one that parsed the line before first. Applies to lines added later.
+     */
+    public synchronized void setPatterns(List<String> patterns) {
+        List<LogLayout> compiled = new ArrayList<>();
+        for (String pattern : patterns) {
+            compiled.add(new LogLayout(pattern));
+        }
+        this.layouts = compiled;
+        this.lastLayout = compiled.isEmpty() ? null : compiled.get(0);
+    }
+
+    /**
+     * Index a line of the store. A line the index is already past, e.g. read by a {@link #rebuild} that ran
+     * after it was stored, is ignored.
+     *
+     * @return whether the line starts an event
+     */
+    public synchronized boolean add(long line, String text) {
+        if (line < end) {
+            return false;
+        }
+        end = line + 1;
+        LogLayout layout = parse(text);
+        if (layout == null) {
+            return false;
+        }
+        lastLayout = layout;
+        if (size == lines.length) {
+            grow();
+        }
+        lines[size] = line;
+        times[size] = event.getTime();
+        levels[size] = (byte) (event.getLevel() == null ? -1 : event.getLevel().ordinal());
+        threadIds[size] = event.getThreadEnd() > event.getThreadStart()
+                ? threads.id(text, event.getThreadStart(), event.getThreadEnd()) : -1;
+        loggerIds[size] = event.getLoggerEnd() > event.getLoggerStart()
+                ? loggers.id(text, event.getLoggerStart(), event.getLoggerEnd()) : -1;
+        size++;
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Events matching the filter; the line ranges of the newest {@code limit} of them.
+     */
+    public synchronized Matches find(Filter filter, int limit) {
+        int level = filter.level == null ? Integer.MIN_VALUE : filter.level.ordinal();
+        int thread = -1;
+        if (filter.thread != null) {
+            thread = threads.find(filter.thread);
+            if (thread < 0) {
+                return new Matches(new long[0], 0);
+            }
+        }
+        boolean[] loggerMatch = null;
+        if (filter.logger != null) {
+            loggerMatch = new boolean[loggers.names.size()];
+            for (int id = 0; id < loggerMatch.length; id++) {
+                loggerMatch[id] = loggers.names.get(id).contains(filter.logger);
+            }
+        }
+
+        long[] ranges = new long[2 * Math.min(Math.max(limit, 0), size)];
+        int kept = 0;
+        int total = 0;
+        long next = end;
+        for (int i = size - 1; i >= 0; i--) {
+            long start = lines[i];
+            boolean match = levels[i] >= level
+                    && (thread < 0 || threadIds[i] == thread)
+                    && (loggerMatch == null || (loggerIds[i] >= 0 && loggerMatch[loggerIds[i]]))
+                    && times[i] >= filter.from && times[i] < filter.to;
+            if (match) {
+                if (kept * 2 < ranges.length) {
+                    ranges[ranges.length - 2 - kept * 2] = start;
+                    ranges[ranges.length - 1 - kept * 2] = next;
+                    kept++;
+                }
+                total++;
+            }
+            next = start;
+        }
+        return new Matches(Arrays.copyOfRange(ranges, ranges.length - kept * 2, ranges.length), total);
+    }
+
+    /**
+     * Mark a line of the store that is not part of the log, such as a status message, so a {@link #rebuild}
+     * leaves it out as well.
+     */
+    public synchronized void skip(long line) {
+        if (line >= end) {
+            end = line + 1;
+        } else {
+            // a rebuild read it before it was marked
+            int i = Arrays.binarySearch(lines, 0, size, line);
+            if (i >= 0) {
+                remove(i);
+            }
+        }
+        if (skippedCount == skipped.length) {
+            if (skippedCount < maxEvents) {
+                skipped = Arrays.copyOf(skipped, (int) Math.min(maxEvents, skippedCount * 2L));
+            } else {
+                // the oldest half is far behind the store by now
+                skippedCount -= skippedCount / 2;
+                System.arraycopy(skipped, skipped.length - skippedCount, skipped, 0, skippedCount);
+            }
+        }
+        int at = skippedCount;
+        while (at > 0 && skipped[at - 1] > line) {
+            at--;
+        }
+        System.arraycopy(skipped, at, skipped, at + 1, skippedCount - at);
+        skipped[at] = line;
+        skippedCount++;
+    }
+
+    /**
+     * Drop all events and index the lines still in the store again, e.g. after the patterns changed.
+     * Lines stored meanwhile are added once, by whichever of the two gets to them first.
+     */
+    public synchronized void rebuild(LogStore store) {
+        long first = store.first();
+        int from = 0;
+        while (from < skippedCount && skipped[from] < first) {
+            from++;
+        }
+        skippedCount -= from;
+        System.arraycopy(skipped, from, skipped, 0, skippedCount);
+
+        size = 0;
+        end = 0;
+        int[] next = {0};
+        store.read(first, store.end(), (line, text, type) -> {
+            while (next[0] < skippedCount && skipped[next[0]] < line) {
+                next[0]++;
+            }
+            if (next[0] < skippedCount && skipped[next[0]] == line) {
+                end = line + 1;
+            } else {
+                add(line, text);
+            }
+        });
+    }
+
+    private LogLayout parse(String text) {
+        if (lastLayout != null && lastLayout.parse(text, event)) {
+            return lastLayout;
+        }
+        for (LogLayout layout : layouts) {
+            if (layout != lastLayout && layout.parse(text, event)) {
+                return layout;
+            }
+        }
+        return null;
+    }
+
+    private void remove(int i) {
+        int after = size - i - 1;
+        System.arraycopy(lines, i + 1, lines, i, after);
+        System.arraycopy(times, i + 1, times, i, after);
+        System.arraycopy(levels, i + 1, levels, i, after);
+        System.arraycopy(threadIds, i + 1, threadIds, i, after);
+        System.arraycopy(loggerIds, i + 1, loggerIds, i, after);
+        size--;
+    }
+
+    private void grow() {
+        if (lines.length >= maxEvents) {
+            // drop the oldest quarter, the store has dropped their lines long ago or will soon
+            int drop = size / 4;
+            size -= drop;
+            System.arraycopy(lines, drop, lines, 0, size);
+            System.arraycopy(times, drop, times, 0, size);
+            System.arraycopy(levels, drop, levels, 0, size);
+            System.arraycopy(threadIds, drop, threadIds, 0, size);
+            System.arraycopy(loggerIds, drop, loggerIds, 0, size);
+            return;
+        }
+        int capacity = (int) Math.min(maxEvents, lines.length * 2L);
+        lines = Arrays.copyOf(lines, capacity);
+        times = Arrays.copyOf(times, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        threadIds = Arrays.copyOf(threadIds, capacity);
+        loggerIds = Arrays.copyOf(loggerIds, capacity);
+    }
+}
@@ -0,0 +1,509 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.log;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the fields of log lines written with a Logback style pattern, without allocating per line.
+ * Supported conversion words are {@code %d{format}} / {@code %date}, {@code %p} / {@code %level},
+ * {@code %pid}, {@code %t} / {@code %thread}, {@code %c} / {@code %logger}, {@code %m} / {@code %msg}
+ * as the last one, and any other word for a field that is skipped. Format modifiers such as
+ * {@code %-5level} and options such as {@code %logger{39}} are ignored, a space stands for any padding.
+ * Dates know yyyy, MM, dd, HH, mm, ss, SSS, XXX and quoted text; a date without offset is local time
+ * of the IDE, one without a day is today.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/18 10:00
+ * @Version 1.0
+ */
+public class LogLayout {
+
+    /** Spring Boot 2 console and file pattern */
+    public static final String SPRING_BOOT_2 = "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p %pid --- [%t] %-40.40logger{39} : %m";
+    /** Spring Boot 3 pattern, ISO timestamp with offset */
+    public static final String SPRING_BOOT_3 = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%t] %-40.40logger{39} : %m";
+    /** Spring Boot 3.2+ pattern once spring.application.name is set */
+    public static final String SPRING_BOOT_3_APPLICATION =
+            "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%app] [%t] %-40.40logger{39} : %m";
+    /** Logback default pattern */
+    public static final String LOGBACK = "%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg";
+
+    public static final List<String> DEFAULTS = List.of(SPRING_BOOT_3_APPLICATION, SPRING_BOOT_3, SPRING_BOOT_2, LOGBACK);
+
+    /**
+     * Patterns of a text with one per line, {@link #DEFAULTS} when it is blank.
+     */
+    public static List<String> patterns(String lines) {
+        return lines.isBlank() ? DEFAULTS
+                : Arrays.stream(lines.split("\\R")).map(String::strip).filter(p -> !p.isEmpty()).toList();
+    }
+
+    /**
+     * Fields of the last parsed line, as positions in the line. Reused for every line.
+     */
+    public static final class Event {
+        private long time;
+        private LogLevel level;
+        private int threadStart, threadEnd;
+        private int loggerStart, loggerEnd;
+        private int messageStart;
+
+        /** epoch millis, or -1 when the layout has no date */
+        public long getTime() {
+            return time;
+        }
+
+        /** null when the layout has no level */
+        public LogLevel getLevel() {
+            return level;
+        }
+
+        public int getThreadStart() {
+            return threadStart;
+        }
+
+        public int getThreadEnd() {
+            return threadEnd;
+        }
+
+        public int getLoggerStart() {
+            return loggerStart;
+        }
+
+        public int getLoggerEnd() {
+            return loggerEnd;
+        }
+
+        public int getMessageStart() {
+            return messageStart;
+        }
+
+        private void clear() {
+            time = -1;
+            level = null;
+            threadStart = threadEnd = 0;
+            loggerStart = loggerEnd = 0;
+            messageStart = -1;
+        }
+    }
+
+    private enum Kind { DATE, LEVEL, PID, THREAD, LOGGER, MESSAGE, SKIP, SPACE, TEXT }
+
+    private enum DatePart { YEAR, MONTH, DAY, HOUR, MINUTE, SECOND, MILLIS, OFFSET, TEXT }
+
+    private static final class Token {
+        private final Kind kind;
+        private final String text;
+
+        private Token(Kind kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+
+    private final String pattern;
+    private final Token[] tokens;
+    private final DatePart[] dateParts;
+    private final String[] dateTexts;
+    private final ZoneId zone;
+    // offset of the local hour parsed last, a zone changes its offset at most once an hour
+    private long cachedHour = Long.MIN_VALUE;
+    private long cachedOffsetMillis;
+
+    public LogLayout(String pattern) {
+        this(pattern, ZoneId.systemDefault());
+    }
+
+    public LogLayout(String pattern, ZoneId zone) {
+        this.pattern = pattern;
+        this.zone = zone;
+        this.cachedOffsetMillis = zone.getRules().getOffset(Instant.now()).getTotalSeconds() * 1000L;
+        List<Token> tokens = new ArrayList<>();
+        String dateFormat = null;
+        int i = 0;
+        StringBuilder text = new StringBuilder();
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == ' ') {
+                flushText(tokens, text);
+                if (tokens.isEmpty() || tokens.get(tokens.size() - 1).kind != Kind.SPACE) {
+                    tokens.add(new Token(Kind.SPACE, " "));
+                }
+                i++;
+            } else if (c == '%' && i + 1 < pattern.length() && pattern.charAt(i + 1) != '%') {
+                flushText(tokens, text);
+                i++;
+                while (i < pattern.length() && "-.0123456789".indexOf(pattern.charAt(i)) >= 0) {
+                    i++;
+                }
+                int wordStart = i;
+                while (i < pattern.length() && Character.isLetter(pattern.charAt(i))) {
+                    i++;
+                }
+                String word = pattern.substring(wordStart, i);
+                String option = null;
+                if (i < pattern.length() && pattern.charAt(i) == '{') {
+                    int close = pattern.indexOf('}', i);
+                    if (close < 0) {
+                        throw new IllegalArgumentException("Unclosed option in log pattern: " + pattern);
+                    }
+                    option = pattern.substring(i + 1, close);
+                    i = close + 1;
+                }
+                Kind kind = kindOf(word);
+                if (kind == Kind.DATE) {
+                    if (dateFormat != null) {
+                        throw new IllegalArgumentException("More than one date in log pattern: " + pattern);
+                    }
+                    dateFormat = option == null || option.isEmpty() ? "yyyy-MM-dd HH:mm:ss,SSS" : option;
+                }
+                tokens.add(new Token(kind, word));
+                if (kind == Kind.MESSAGE) {
+                    break;
+                }
+            } else {
+                text.append(c);
+                i += c == '%' ? 2 : 1;
+            }
+        }
+        flushText(tokens, text);
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Empty log pattern");
+        }
+        this.tokens = tokens.toArray(new Token[0]);
+
+        List<DatePart> parts = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        if (dateFormat != null) {
+            compileDate(dateFormat, parts, texts);
+        }
+        this.dateParts = parts.toArray(new DatePart[0]);
+        this.dateTexts = texts.toArray(new String[0]);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return whether the line is written with this layout, with its fields in {@code event}
+     */
+    public boolean parse(String line, Event event) {
+        event.clear();
+        int pos = 0;
+        int length = line.length();
+        for (int t = 0; t < tokens.length; t++) {
+            Token token = tokens[t];
+            switch (token.kind) {
+                case SPACE: {
+                    int start = pos;
+                    while (pos < length && line.charAt(pos) == ' ') {
+                        pos++;
+                    }
+                    if (pos == start) {
+                        return false;
+                    }
+                    break;
+                }
+                case TEXT:
+                    if (!line.startsWith(token.text, pos)) {
+                        return false;
+                    }
+                    pos += token.text.length();
+                    break;
+                case DATE:
+                    pos = parseDate(line, skipSpaces(line, pos), event);
+                    if (pos < 0) {
+                        return false;
+                    }
+                    break;
+                case MESSAGE:
+                    event.messageStart = pos;
+                    return true;
+                default: {
+                    int start = skipSpaces(line, pos);
+                    int end = fieldEnd(line, start, t + 1 < tokens.length ? tokens[t + 1] : null);
+                    if (end < 0) {
+                        return false;
+                    }
+                    int valueEnd = end;
+                    while (valueEnd > start && line.charAt(valueEnd - 1) == ' ') {
+                        valueEnd--;
+                    }
+                    if (valueEnd == start || !field(token.kind, line, start, valueEnd, event)) {
+                        return false;
+                    }
+                    pos = end;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean field(Kind kind, String line, int start, int end, Event event) {
+        switch (kind) {
+            case LEVEL:
+                event.level = LogLevel.parse(line, start, end);
+                return event.level != null;
+            case PID:
+                for (int i = start; i < end; i++) {
+                    char c = line.charAt(i);
+                    if (c < '0' || c > '9') {
+                        return false;
+                    }
+                }
+                return true;
+            case THREAD:
+                event.threadStart = start;
+                event.threadEnd = end;
+                return true;
+            case LOGGER:
+                event.loggerStart = start;
+                event.loggerEnd = end;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * End of a field that starts at {@code start}: the next space or text of the pattern, or the line end.
+     */
+    private static int fieldEnd(String line, int start, Token next) {
+        if (next == null || next.kind == Kind.MESSAGE) {
+            return line.length();
+        }
+        if (next.kind == Kind.SPACE) {
+            int space = line.indexOf(' ', start);
+            return space < 0 ? line.length() : space;
+        }
+        if (next.kind == Kind.TEXT) {
+            return line.indexOf(next.text, start);
+        }
+        // two fields without a separator cannot be told apart
+        return -1;
+    }
+
+    private static int skipSpaces(String line, int pos) {
+        while (pos < line.length() && line.charAt(pos) == ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * @return position after the date, or -1
+     */
+    private int parseDate(String line, int pos, Event event) {
+        int year = -1, month = 1, day = 1, hour = 0, minute = 0, second = 0, millis = 0;
+        boolean offset = false;
+        int offsetMillis = 0;
+        for (int p = 0; p < dateParts.length; p++) {
+            DatePart part = dateParts[p];
+            switch (part) {
+                case TEXT:
+                    if (!line.startsWith(dateTexts[p], pos)) {
+                        return -1;
+                    }
+                    pos += dateTexts[p].length();
+                    continue;
+                case OFFSET: {
+                    if (pos < line.length() && line.charAt(pos) == 'Z') {
+                        offset = true;
+                        pos++;
+                        continue;
+                    }
+                    if (pos + 6 > line.length() || line.charAt(pos + 3) != ':') {
+                        return -1;
+                    }
+                    char sign = line.charAt(pos);
+                    int hours = digits(line, pos + 1, 2);
+                    int minutes = digits(line, pos + 4, 2);
+                    if ((sign != '+' && sign != '-') || hours < 0 || minutes < 0) {
+                        return -1;
+                    }
+                    offset = true;
+                    offsetMillis = (sign == '-' ? -1 : 1) * (hours * 60 + minutes) * 60_000;
+                    pos += 6;
+                    continue;
+                }
+                default:
+                    break;
+            }
+            int width = part == DatePart.YEAR ? 4 : part == DatePart.MILLIS ? 3 : 2;
+            int value = digits(line, pos, width);
+            if (value < 0) {
+                return -1;
+            }
+            pos += width;
+            switch (part) {
+                case YEAR: year = value; break;
+                case MONTH: month = value; break;
+                case DAY: day = value; break;
+                case HOUR: hour = value; break;
+                case MINUTE: minute = value; break;
+                case SECOND: second = value; break;
+                default: millis = value; break;
+            }
+        }
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 60) {
+            return -1;
+        }
+
+        long epochDay;
+        if (year < 0) {
+            // time of day only, the line is from today
+            epochDay = Math.floorDiv(System.currentTimeMillis() + cachedOffsetMillis, 86_400_000L);
+        } else {
+            epochDay = epochDay(year, month, day);
+        }
+        long local = ((epochDay * 24 + hour) * 60 + minute) * 60_000L + second * 1000L + millis;
+        if (offset) {
+            event.time = local - offsetMillis;
+        } else {
+            long hourKey = epochDay * 24 + hour;
+            if (hourKey != cachedHour) {
+                try {
+                    LocalDateTime time = LocalDateTime.of(1970, 1, 1, hour, 0).plusDays(epochDay);
+                    cachedOffsetMillis = zone.getRules().getOffset(time).getTotalSeconds() * 1000L;
+                    cachedHour = hourKey;
+                } catch (DateTimeException e) {
+                    return -1;
+                }
+            }
+            event.time = local - cachedOffsetMillis;
+        }
+        return pos;
+    }
+
+    private static int digits(String line, int pos, int width) {
+        if (pos + width > line.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = pos; i < pos + width; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static Kind kindOf(String word) {
+        switch (word) {
+            case "d":
+            case "date":
+                return Kind.DATE;
+            case "p":
+            case "le":
+            case "level":
+                return Kind.LEVEL;
+            case "pid":
+                return Kind.PID;
+            case "t":
+            case "thread":
+                return Kind.THREAD;
+            case "c":
+            case "lo":
+            case "logger":
+                return Kind.LOGGER;
+            case "m":
+            case "msg":
+            case "message":
+                return Kind.MESSAGE;
+            default:
+                return Kind.SKIP;
+        }
+    }
+
+    private static void flushText(List<Token> tokens, StringBuilder text) {
+        if (text.length() > 0) {
+            tokens.add(new Token(Kind.TEXT, text.toString()));
+            text.setLength(0);
+        }
+    }
+
+    private static void compileDate(String format, List<DatePart> parts, List<String> texts) {
+        int i = 0;
+        while (i < format.length()) {
+            char c = format.charAt(i);
+            int run = i;
+            while (run < format.length() && format.charAt(run) == c) {
+                run++;
+            }
+            String letters = format.substring(i, run);
+            DatePart part;
+            String text = null;
+            switch (letters) {
+                case "yyyy": part = DatePart.YEAR; break;
+                case "MM": part = DatePart.MONTH; break;
+                case "dd": part = DatePart.DAY; break;
+                case "HH": part = DatePart.HOUR; break;
+                case "mm": part = DatePart.MINUTE; break;
+                case "ss": part = DatePart.SECOND; break;
+                case "SSS": part = DatePart.MILLIS; break;
+                case "XXX": part = DatePart.OFFSET; break;
+                default:
+                    if (Character.isLetter(c)) {
+                        throw new IllegalArgumentException("Unsupported date field " + letters + " in " + format);
+                    }
+                    part = DatePart.TEXT;
+                    if (c == '\'') {
+                        int close = format.indexOf('\'', i + 1);
+                        if (close < 0) {
+                            throw new IllegalArgumentException("Unclosed quote in date format " + format);
+                        }
+                        text = format.substring(i + 1, close);
+                        run = close + 1;
+                    } else {
+                        text = letters;
+                    }
+            }
+            parts.add(part);
+            texts.add(text);
+            i = run;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.log;
+
+/**
+ * Log levels of Logback and Log4j, ordered by severity.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/18 09:30
+ * @Version 1.0
+ */
+public enum LogLevel {
+    TRACE, DEBUG, INFO, WARN, ERROR, FATAL;
+
+    private static final LogLevel[] VALUES = values();
+
+    public static LogLevel of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Level named by {@code text[start, end)}, ignoring ASCII case and accepting WARNING for WARN.
+     *
+     * @return the level or null
+     */
+    public static LogLevel parse(CharSequence text, int start, int end) {
+        for (LogLevel level : VALUES) {
+            if (matches(text, start, end, level.name())) {
+                return level;
+            }
+        }
+        return matches(text, start, end, "WARNING") ? WARN : null;
+    }
+
+    private static boolean matches(CharSequence text, int start, int end, String upper) {
+        if (end - start != upper.length()) {
+            return false;
+        }
+        for (int i = 0; i < upper.length(); i++) {
+            char c = text.charAt(start + i);
+            if (c >= 128 || (c & ~0x20) != upper.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.log;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Trigram index over the lines of a {@link LogStore}, built as they are appended. Lines are indexed in blocks of
+ * {@link #BLOCK_LINES}; a block keeps one bit per hashed trigram of its lines, so a search only scans the
+ * blocks that have every trigram of the text and checks their lines in the store. A block costs
+ * {@link #BLOCK_BYTES} of heap whatever its lines hold, and blocks go once the store has dropped their lines,
+ * so the index is bounded by the line cap of the store.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 15:00
+ * @Version 1.0
+ */
+public class LogSearchIndex {
+
+    public static final int BLOCK_LINES = 256;
+    /** 32768 bits, so even 256 long and varied lines leave most of them clear */
+    private static final int BLOCK_BITS_LOG2 = 15;
+    public static final int BLOCK_BYTES = (1 << BLOCK_BITS_LOG2) / 8;
+
+    /**
+     * Lines containing a text.
+     */
+    public static final class Hits {
+        private final long[] lines;
+        private final long scanned;
+        private final long indexed;
+
+        private Hits(long[] lines, long scanned, long indexed) {
+            this.lines = lines;
+            this.scanned = scanned;
+            this.indexed = indexed;
+        }
+
+        /** store indexes, newest first */
+        public long[] getLines() {
+            return lines;
+        }
+
+        /** lines of the blocks that had to be read */
+        public long getScanned() {
+            return scanned;
+        }
+
+        /** lines of all blocks before the searched position */
+        public long getIndexed() {
+            return indexed;
+        }
+    }
+
+    private static final class Block {
+        private final long[] bits = new long[BLOCK_BYTES / Long.BYTES];
+        private long first;
+        private int count;
+
+        private long end() {
+            return first + count;
+        }
+    }
+
+    private final LogStore store;
+    /** oldest first */
+    private final ArrayDeque<Block> blocks = new ArrayDeque<>();
+
+    public LogSearchIndex(LogStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Index a line the store has just appended.
+     */
+    public synchronized void add(long line, String text) {
+        if (line < 0) {
+            return;
+        }
+        Block block = blocks.peekLast();
+        if (block == null || block.count == BLOCK_LINES || line != block.end()) {
+            block = newBlock(line);
+        }
+        block.count++;
+        long[] bits = block.bits;
+        int length = text.length();
+        if (length < 3) {
+            return;
+        }
+        int c0 = text.charAt(0);
+        int c1 = text.charAt(1);
+        for (int i = 2; i < length; i++) {
+            int c2 = text.charAt(i);
+            int bit = bit(c0, c1, c2);
+            bits[bit >>> 6] |= 1L << bit;
+            c0 = c1;
+            c1 = c2;
+        }
+    }
+
+    /**
+     * Stored lines before {@code before} that contain the text, newest first. Texts shorter than three
+     * characters have no trigram and scan every line.
+     */
+    public Hits search(String text, long before, int limit) {
+        int[] query = new int[Math.max(0, text.length() - 2)];
+        for (int i = 0; i < query.length; i++) {
+            query[i] = bit(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+        }
+
+        // pick the blocks under the lock, scan the store without it so lines keep coming in
+        long[] ranges = new long[16];
+        int count = 0;
+        long indexed = 0;
+        synchronized (this) {
+            evict();
+            for (Iterator<Block> it = blocks.descendingIterator(); it.hasNext(); ) {
+                Block block = it.next();
+                if (block.first >= before) {
+                    continue;
+                }
+                long end = Math.min(block.end(), before);
+                indexed += end - block.first;
+                if (!containsAll(block.bits, query)) {
+                    continue;
+                }
+                if (count > 0 && ranges[count - 2] == end) {
+                    // adjacent to the newer candidate, scan them in one go
+                    ranges[count - 2] = block.first;
+                    continue;
+                }
+                if (count == ranges.length) {
+                    ranges = Arrays.copyOf(ranges, count * 2);
+                }
+                ranges[count++] = block.first;
+                ranges[count++] = end;
+            }
+        }
+
+        long[] lines = new long[Math.max(0, limit)];
+        int[] found = {0};
+        long scanned = 0;
+        for (int i = 0; i < count && found[0] < lines.length; i += 2) {
+            scanned += ranges[i + 1] - ranges[i];
+            store.findAll(text, ranges[i], ranges[i + 1], line -> {
+                lines[found[0]++] = line;
+                return found[0] < lines.length;
+            });
+        }
+        return new Hits(Arrays.copyOf(lines, found[0]), scanned, indexed);
+    }
+
+    /**
+     * Heap held by the blocks.
+     */
+    public synchronized long capacity() {
+        return (long) blocks.size() * BLOCK_BYTES;
+    }
+
+    private Block newBlock(long first) {
+        Block block = evict();
+        if (block == null) {
+            block = new Block();
+        } else {
+            Arrays.fill(block.bits, 0);
+        }
+        block.first = first;
+        block.count = 0;
+        blocks.addLast(block);
+        return block;
+    }
+
+    /**
+     * Drop the blocks whose lines the store has dropped.
+     *
+     * @return one of the dropped blocks for reuse, or null
+     */
+    private Block evict() {
+        long first = store.first();
+        Block dropped = null;
+        while (!blocks.isEmpty() && blocks.peekFirst().end() <= first) {
+            dropped = blocks.pollFirst();
+        }
+        return dropped;
+    }
+
+    private static boolean containsAll(long[] bits, int[] query) {
+        for (int bit : query) {
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int bit(int c0, int c1, int c2) {
+        // distinct for ASCII trigrams before hashing
+        return ((c0 << 16) ^ (c1 << 8) ^ c2) * 0x9E3779B1 >>> (32 - BLOCK_BITS_LOG2);
+    }
+}
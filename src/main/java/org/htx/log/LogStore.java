@@ -0,0 +1,259 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.log;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Lines of one log console, kept UTF-8 encoded in direct buffers of {@link #SEGMENT_BYTES} outside the Java heap.
+ * When the byte or line cap is reached the oldest segment is dropped and its buffer takes the new lines,
+ * so the caps hold to the size of one segment. Every line keeps the index it got from {@link #append}
+ * for the life of the store; {@link #first()} tells which of them are still there.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/17 09:30
+ * @Version 1.0
+ */
+public class LogStore implements Closeable {
+
+    public static final int SEGMENT_BYTES = 1024 * 1024;
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+    public static final long DEFAULT_MAX_LINES = 500_000;
+
+    /** type id and byte length in front of every line */
+    private static final int HEADER_BYTES = 1 + Integer.BYTES;
+    /** longer lines are cut, a log line of a megabyte is not read anyway */
+    private static final int MAX_LINE_BYTES = SEGMENT_BYTES - HEADER_BYTES;
+
+    public interface LineConsumer {
+        void accept(long index, String text, ConsoleViewContentType type);
+    }
+
+    private static final class Segment {
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(SEGMENT_BYTES);
+        private int[] offsets = new int[4096];
+        private long first;
+        private int count;
+
+        private void reset(long first) {
+            buffer.clear();
+            this.first = first;
+            this.count = 0;
+        }
+
+        private boolean fits(int length, int maxCount) {
+            return count < maxCount && buffer.remaining() >= HEADER_BYTES + length;
+        }
+
+        private void add(byte type, byte[] bytes, int length) {
+            if (count == offsets.length) {
+                int[] grown = new int[count * 2];
+                System.arraycopy(offsets, 0, grown, 0, count);
+                offsets = grown;
+            }
+            offsets[count++] = buffer.position();
+            buffer.put(type).putInt(length).put(bytes, 0, length);
+        }
+    }
+
+    private final int maxSegments;
+    private final long maxLines;
+    /** an eighth of the line cap, so short lines do not keep a whole segment beyond it */
+    private final int segmentLines;
+    private final List<ConsoleViewContentType> types = new ArrayList<>();
+    /** oldest first, at most {@link #maxSegments} */
+    private final List<Segment> segments = new ArrayList<>();
+    private long end;
+    private boolean closed;
+
+    public LogStore() {
+        this(DEFAULT_MAX_BYTES, DEFAULT_MAX_LINES);
+    }
+
+    public LogStore(long maxBytes, long maxLines) {
+        this.maxSegments = (int) Math.max(2, Math.min(4096, maxBytes / SEGMENT_BYTES));
+        this.maxLines = Math.max(1, maxLines);
+        this.segmentLines = (int) Math.min(Integer.MAX_VALUE, Math.max(1, this.maxLines / 8));
+    }
+
+    /**
+     * @return index of the line, or -1 when the store is closed
+     */
+    public synchronized long append(String line, ConsoleViewContentType type) {
+        if (closed) {
+            return -1;
+        }
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_LINE_BYTES);
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || !segment.fits(length, segmentLines)) {
+            segment = roll();
+        }
+        segment.add(typeId(type), bytes, length);
+        return end++;
+    }
+
+    /**
+     * Index of the oldest line still stored, {@link #end()} when there is none.
+     */
+    public synchronized long first() {
+        return segments.isEmpty() ? end : segments.get(0).first;
+    }
+
+    /**
+     * Index the next line will get.
+     */
+    public synchronized long end() {
+        return end;
+    }
+
+    /**
+     * Off-heap bytes held by the store.
+     */
+    public synchronized long capacity() {
+        return (long) segments.size() * SEGMENT_BYTES;
+    }
+
+    /**
+     * Decode the stored lines of {@code [from, to)} in order; lines that were dropped are skipped.
+     */
+    public synchronized void read(long from, long to, LineConsumer consumer) {
+        from = Math.max(from, first());
+        to = Math.min(to, end);
+        byte[] scratch = new byte[256];
+        for (int s = segmentOf(from); from < to && s < segments.size(); s++) {
+            Segment segment = segments.get(s);
+            int last = (int) Math.min(segment.count, to - segment.first);
+            for (int i = (int) (from - segment.first); i < last; i++) {
+                int offset = segment.offsets[i];
+                int length = segment.buffer.getInt(offset + 1);
+                if (scratch.length < length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                segment.buffer.get(offset + HEADER_BYTES, scratch, 0, length);
+                consumer.accept(segment.first + i, new String(scratch, 0, length, StandardCharsets.UTF_8),
+                        types.get(segment.buffer.get(offset) & 0xFF));
+            }
+            from = segment.first + last;
+        }
+    }
+
+    /**
+     * Search the stored lines of {@code [from, to)} for a text, newest first, comparing the encoded bytes
+     * without decoding the lines.
+     *
+     * @param hit takes the index of every line containing the text, returns false to stop
+     */
+    public synchronized void findAll(String text, long from, long to, LongPredicate hit) {
+        from = Math.max(from, first());
+        to = Math.min(to, end);
+        if (text.isEmpty() || from >= to) {
+            return;
+        }
+        byte[] needle = text.getBytes(StandardCharsets.UTF_8);
+        for (int s = segmentOf(to - 1); s >= 0 && from < to; s--) {
+            Segment segment = segments.get(s);
+            long low = Math.max(from, segment.first);
+            for (long line = Math.min(to, segment.first + segment.count) - 1; line >= low; line--) {
+                int offset = segment.offsets[(int) (line - segment.first)];
+                if (contains(segment.buffer, offset + HEADER_BYTES, segment.buffer.getInt(offset + 1), needle)
+                        && !hit.test(line)) {
+                    return;
+                }
+            }
+            to = segment.first;
+        }
+    }
+
+    /**
+     * Drop all lines and release the buffers.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        segments.clear();
+    }
+
+    /**
+     * Start a new segment, reusing the buffer of the oldest one once a cap is reached.
+     */
+    private Segment roll() {
+        Segment reused = null;
+        while (!segments.isEmpty()
+                && (segments.size() >= maxSegments || end - segments.get(0).first + segmentLines > maxLines)) {
+            reused = segments.remove(0);
+        }
+        Segment segment = reused == null ? new Segment() : reused;
+        segment.reset(end);
+        segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * Segment holding a stored line, found by binary search over the first indexes.
+     */
+    private int segmentOf(long index) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segments.get(mid).first <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private byte typeId(ConsoleViewContentType type) {
+        int id = types.indexOf(type);
+        if (id < 0) {
+            types.add(type);
+            id = types.size() - 1;
+        }
+        return (byte) id;
+    }
+
+    private static boolean contains(ByteBuffer buffer, int start, int length, byte[] needle) {
+        int last = start + length - needle.length;
+        outer:
+        for (int i = start; i <= last; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (buffer.get(i + j) != needle[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
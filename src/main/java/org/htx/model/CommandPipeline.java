@@ -0,0 +1,183 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Several command templates merged into one remote script, so a multi-step operation costs one
+ * round trip. Every step runs in its own subshell and reports its exit code, stdout and stderr
+ * on one line "@@jarpilot-step index exit-code :base64(stdout) :base64(stderr)".
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/15 09:30
+ * @Version 1.0
+ */
+public class CommandPipeline {
+
+    private static final String MARKER = "@@jarpilot-step";
+
+    private final List<String> commands;
+    private final boolean stopOnError;
+
+    private CommandPipeline(List<String> commands, boolean stopOnError) {
+        this.commands = commands;
+        this.stopOnError = stopOnError;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final List<String> commands = new ArrayList<>();
+        private boolean stopOnError;
+
+        /**
+         * add a step, args as for {@link CommandTemplate#render(Object...)}
+         */
+        public Builder step(CommandTemplate template, Object... args) {
+            commands.add(template.render(args));
+            return this;
+        }
+
+        /**
+         * skip the remaining steps once a step exits with a non-zero code
+         */
+        public Builder stopOnError() {
+            this.stopOnError = true;
+            return this;
+        }
+
+        public CommandPipeline build() {
+            if (commands.isEmpty()) {
+                throw new IllegalStateException("Pipeline has no steps");
+            }
+            return new CommandPipeline(List.copyOf(commands), stopOnError);
+        }
+    }
+
+    /**
+     * Result of one step.
+     */
+    public static class StepResult {
+        private final String command;
+        private final int exitCode;
+        private final String output;
+        private final String error;
+
+        StepResult(String command, int exitCode, String output, String error) {
+            this.command = command;
+            this.exitCode = exitCode;
+            this.output = output;
+            this.error = error;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        public String getOutput() {
+            return output;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return exitCode == 0;
+        }
+
+        /**
+         * same convention as a single exec: stdout, or stderr when the step printed nothing to stdout
+         */
+        public String getText() {
+            return output.isEmpty() ? error : output;
+        }
+    }
+
+    public List<String> getCommands() {
+        return commands;
+    }
+
+    /**
+     * build the remote script, it exits 0 unless it cannot create its temp dir
+     */
+    public String render() {
+        StringBuilder script = new StringBuilder("d=$(mktemp -d) || exit 1; trap 'rm -rf \"$d\"' EXIT; ");
+        for (int i = 0; i < commands.size(); i++) {
+            script.append("( ").append(commands.get(i)).append("\n) > \"$d/o\" 2> \"$d/e\" < /dev/null; rc=$?; ")
+                    .append("printf '").append(MARKER).append(" %s %s :%s :%s\\n' ").append(i)
+                    .append(" \"$rc\" \"$(base64 < \"$d/o\" | tr -d '\\n')\" \"$(base64 < \"$d/e\" | tr -d '\\n')\"; ");
+            if (stopOnError) {
+                script.append("[ \"$rc\" -eq 0 ] || exit 0; ");
+            }
+        }
+        return script.toString();
+    }
+
+    /**
+     * @param output stdout of the rendered script
+     * @return results of the steps that ran, in order; shorter than the pipeline when it stopped on an error
+     */
+    public List<StepResult> parse(String output) {
+        StepResult[] results = new StepResult[commands.size()];
+        for (String line : output.split("\\R")) {
+            if (!line.startsWith(MARKER + " ")) {
+                // login scripts may print banners
+                continue;
+            }
+            String[] parts = line.split(" ", -1);
+            if (parts.length != 5) {
+                continue;
+            }
+            int index = Integer.parseInt(parts[1]);
+            if (index >= 0 && index < results.length) {
+                results[index] = new StepResult(commands.get(index), Integer.parseInt(parts[2]),
+                        decode(parts[3]), decode(parts[4]));
+            }
+        }
+        List<StepResult> ran = new ArrayList<>();
+        for (StepResult result : results) {
+            if (result == null) {
+                break;
+            }
+            ran.add(result);
+        }
+        return Collections.unmodifiableList(ran);
+    }
+
+    private static String decode(String field) {
+        return new String(Base64.getMimeDecoder().decode(field.substring(1)), StandardCharsets.UTF_8);
+    }
+}
@@ -52,6 +52,70 @@ public class CommandTemplate {
     public static final CommandTemplate DELETE_FILE_UNIX =
             new CommandTemplate("rm -f \"%s\"");
 
+    /** Linux / macOS move file, replacing the target */
+    public static final CommandTemplate MOVE_FILE_UNIX =
+            new CommandTemplate("mv -f \"%s\" \"%s\"");
+
+    /** Linux sha256 of a file, hex digest only */
+    public static final CommandTemplate SHA256_FILE_UNIX =
+            new CommandTemplate("sha256sum \"%s\" | cut -d' ' -f1");
+
+    /** Linux run an uploaded shell script */
+    public static final CommandTemplate RUN_SCRIPT_UNIX =
+            new CommandTemplate("sh \"%s\"");
+
+    /** Linux list library hashes missing from the remote library store, touching the ones present */
+    public static final CommandTemplate MISSING_LIBRARIES_UNIX =
+            new CommandTemplate(
+                    "mkdir -p \"$HOME/.jarpilot/cas\" && cd \"$HOME/.jarpilot/cas\" && " +
+                            "for h in %s; do " +
+                            "if [ -f \"$h.jar\" ]; then touch \"$h.jar\"; else echo \"$h\"; fi; " +
+                            "done"
+            );
+
+    /** Linux publish uploaded libraries into the remote library store */
+    public static final CommandTemplate COMMIT_LIBRARIES_UNIX =
+            new CommandTemplate(
+                    "cd \"$HOME/.jarpilot/cas\" && " +
+                            "for h in %s; do mv -f \"$h.jar.part\" \"$h.jar\"; done"
+            );
+
+    /** Linux print "index md5" of the given fixed-size chunks of a file */
+    public static final CommandTemplate CHUNK_MD5_UNIX =
+            new CommandTemplate(
+                    "for i in %s; do " +
+                            "echo \"$i $(dd if=\"%s\" bs=%d skip=$i count=1 2>/dev/null | md5sum | cut -d' ' -f1)\"; " +
+                            "done"
+            );
+
+    /**
+     * Linux copy a file to another server within a number of seconds, relying on key based SSH and the known
+     * hosts of the copying server
+     */
+    public static final CommandTemplate RELAY_COPY_UNIX =
+            new CommandTemplate("timeout %d scp -q -o BatchMode=yes -P %d \"%s\" \"%s@%s:%s\"");
+
+    /**
+     * Linux command agent: reads "id base64(command)" lines, runs each command and answers with
+     * a line "id exit-code stdout-bytes stderr-bytes stdout-total stderr-total" followed by the captured
+     * stdout and stderr, each cut to the byte limit given as argument
+     */
+    public static final CommandTemplate COMMAND_AGENT_UNIX =
+            new CommandTemplate(
+                    "d=$(mktemp -d) || exit 1; trap 'rm -rf \"$d\"' EXIT; m=%d; " +
+                            "while read -r id b64; do " +
+                            "cmd=$(printf '%%s' \"$b64\" | base64 -d); " +
+                            "( eval \"$cmd\" ) > \"$d/o\" 2> \"$d/e\" < /dev/null; rc=$?; " +
+                            "o=$(($(wc -c < \"$d/o\"))); e=$(($(wc -c < \"$d/e\"))); " +
+                            "printf '%%s %%s %%s %%s %%s %%s\\n' \"$id\" \"$rc\" $((o < m ? o : m)) $((e < m ? e : m)) \"$o\" \"$e\"; " +
+                            "head -c \"$m\" \"$d/o\"; head -c \"$m\" \"$d/e\"; " +
+                            "done"
+            );
+
+    /** Linux read stdin to its end and drop it, used to measure the transport */
+    public static final CommandTemplate DISCARD_INPUT_UNIX =
+            new CommandTemplate("cat > /dev/null");
+
     /** Linux mkdir folders */
     public static final CommandTemplate MKDIRS_UNIX =
             new CommandTemplate("mkdir -p \"%s\"");
@@ -68,9 +132,66 @@ public class CommandTemplate {
     public static final CommandTemplate START_SPRING_BOOT_LOG =
             new CommandTemplate("tail -f %s");
 
-    /** Linux stop spring boot jar */
+    /** Linux stop spring boot jar, "[t]ail" keeps pkill from matching a script that contains this command */
     public static final CommandTemplate CLOSE_SPRING_BOOT_LOG =
-            new CommandTemplate("pkill -f 'tail -f %s'");
+            new CommandTemplate("pkill -f '[t]ail (-c [+][0-9]+ )?-f %s'");
+
+    /**
+     * Linux follow a log from a byte offset, -1 = its last 10 lines, and from the start when the file is now
+     * shorter or another file than inode %s. The file is followed by descriptor; once the path is another
+     * file or the file shrank, the tail is ended and the new file is followed from its start. Every start
+     * is announced as "@inode start-offset". An event starts with a digit; it is kept when it has at least
+     * the level of rank %d (1 = TRACE ... 6 = FATAL, 0 = any line), contains $JP_LOGGER and matches the
+     * extended regex $JP_REGEX, the lines after it, such as a stack trace, go with it. Kept lines are sent as
+     * "end-offset line", a bare "end-offset" reports every 1000 lines left out. The tail's PID is kept in a
+     * file for {@link #STOP_LOG_TAIL_UNIX}. The path and the inode come single quoted.
+     */
+    public static final CommandTemplate FOLLOW_LOG_FILTERED_UNIX =
+            new CommandTemplate(
+                    "f=%s; start=%d; ino0=%s; base=\"$HOME/.jarpilot/tail-%s\"; " +
+                            "mkdir -p \"$HOME/.jarpilot\"; rm -f \"$base.stop\" \"$base.rot\"; " +
+                            "inode() { ls -di \"$f\" 2>/dev/null | awk '{ print $1 }'; }; " +
+                            "size=$(($(wc -c < \"$f\" 2>/dev/null || echo 0))); ino=$(inode); " +
+                            "if [ \"$start\" -lt 0 ]; then start=$((size - $(tail -n 10 \"$f\" 2>/dev/null | wc -c))); " +
+                            "elif [ \"$start\" -gt \"$size\" ]; then start=0; " +
+                            "elif [ -n \"$ino0\" ] && [ \"$ino\" != \"$ino0\" ]; then start=0; fi; " +
+                            // mawk buffers its input unless interactive
+                            "if awk -W version 2>/dev/null | grep -q mawk; then awk='awk -W interactive'; else awk=awk; fi; " +
+                            "while :; do echo \"@$ino $start\"; " +
+                            "{ tail -c +$((start + 1)) -f \"$f\" 2>/dev/null & t=$!; echo $t > \"$base.pid\"; " +
+                            "[ -f \"$base.stop\" ] && kill $t; " +
+                            // the tail stays on a renamed file and starts over on a truncated one, end it then
+                            "( s0=$size; while kill -0 $t 2>/dev/null; do sleep 1; " +
+                            "s=$(($(wc -c < \"$f\" 2>/dev/null || echo 0))); " +
+                            "if [ \"$(inode)\" != \"$ino\" ] || [ \"$s\" -lt \"$s0\" ]; then touch \"$base.rot\"; kill $t; fi; " +
+                            "s0=$s; done ) > /dev/null 2>&1 & wait; } | " +
+                            "JP_LOGGER=%s JP_REGEX=%s LC_ALL=C $awk -v off=\"$start\" -v min=%d '" +
+                            "BEGIN { n = split(\"TRACE DEBUG INFO WARN ERROR FATAL\", names, \" \"); " +
+                            "for (i = 1; i <= n; i++) rank[names[i]] = i; rank[\"WARNING\"] = 4; " +
+                            "logger = ENVIRON[\"JP_LOGGER\"]; re = ENVIRON[\"JP_REGEX\"]; keep = 1 } " +
+                            "{ off += length($0) + 1; " +
+                            "if ($0 ~ /^[0-9]/) { keep = 1; " +
+                            "if (min > 0) { line = \" \" toupper($0) \" \"; keep = 0; " +
+                            "if (match(line, /[^A-Z0-9_](TRACE|DEBUG|INFO|WARN|WARNING|ERROR|FATAL)[^A-Z0-9_]/)) " +
+                            "keep = rank[substr(line, RSTART + 1, RLENGTH - 2)] >= min } " +
+                            "if (keep && logger != \"\") keep = index($0, logger) > 0; " +
+                            "if (keep && re != \"\") keep = $0 ~ re } " +
+                            "if (keep) { printf \"%%.0f %%s\\n\", off, $0; skipped = 0; fflush() } " +
+                            "else if (++skipped >= 1000) { printf \"%%.0f\\n\", off; skipped = 0; fflush() } }'; " +
+                            "if [ ! -f \"$base.rot\" ] || [ -f \"$base.stop\" ]; then break; fi; rm -f \"$base.rot\"; " +
+                            "while [ ! -e \"$f\" ] && [ ! -f \"$base.stop\" ]; do sleep 1; done; " +
+                            "start=0; size=0; ino=$(inode); done; " +
+                            "rm -f \"$base.pid\" \"$base.stop\" \"$base.rot\""
+            );
+
+    /** Linux stop a tail started by {@link #FOLLOW_LOG_FILTERED_UNIX}, the flag keeps it from starting over */
+    public static final CommandTemplate STOP_LOG_TAIL_UNIX =
+            new CommandTemplate(
+                    "base=\"$HOME/.jarpilot/tail-%s\"; " +
+                            "if [ -f \"$base.pid\" ]; then touch \"$base.stop\"; kill $(cat \"$base.pid\") 2>/dev/null; " +
+                            "echo 'Log tail stopped'; " +
+                            "else echo 'No log tail running'; fi"
+            );
 
 
     public static final CommandTemplate STOP_SPRING_BOOT =
@@ -0,0 +1,69 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keeps the first {@code limit} bytes written and counts the rest, so a chatty command cannot fill the heap.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/14 14:00
+ * @Version 1.0
+ */
+class BoundedOutputStream extends ByteArrayOutputStream {
+
+    private final int limit;
+    private long dropped;
+
+    BoundedOutputStream(int limit) {
+        super(Math.min(limit, 1024));
+        this.limit = limit;
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        if (count < limit) {
+            super.write(b);
+        } else {
+            dropped++;
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        int kept = Math.min(len, limit - count);
+        if (kept > 0) {
+            super.write(b, off, kept);
+        }
+        dropped += len - Math.max(kept, 0);
+    }
+
+    @Override
+    public synchronized String toString() {
+        String text = toString(StandardCharsets.UTF_8);
+        return dropped == 0 ? text : text + "\n... (" + dropped + " bytes truncated)";
+    }
+}
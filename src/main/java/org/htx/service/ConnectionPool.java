@@ -0,0 +1,176 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import net.schmizz.sshj.SSHClient;
+import org.htx.transfer.Digests;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SSH connections of a project shared by tabs and background jobs. A tab borrows an authenticated
+ * client for user@host:port, opens its sessions and SFTP channels on it, and returns it when it
+ * disconnects. Unused connections are closed after {@link #IDLE_TIMEOUT_MILLIS}.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/13 15:00
+ * @Version 1.0
+ */
+public class ConnectionPool implements Disposable {
+
+    /**
+     * Borrowers per connection. OpenSSH allows 10 sessions per connection by default
+     * (MaxSessions) and a tab may hold a log stream, a command and SFTP channels at once.
+     */
+    private static final int MAX_BORROWERS_PER_CONNECTION = 3;
+    private static final long IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000;
+    private static final long SWEEP_MILLIS = 30 * 1000;
+
+    private static final class Entry {
+        private final SSHClient client;
+        private int borrowers;
+        private long idleSince;
+
+        private Entry(SSHClient client) {
+            this.client = client;
+        }
+    }
+
+    // key = user@host:port, the transport profile and a hash of the password, so a wrong password never gets a shared client
+    private final Map<String, List<Entry>> entries = new HashMap<>();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "JarPilot connection pool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ConnectionPool() {
+        sweeper.scheduleWithFixedDelay(this::evictIdle, SWEEP_MILLIS, SWEEP_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public static ConnectionPool getInstance(@NotNull Project project) {
+        return project.getService(ConnectionPool.class);
+    }
+
+    /**
+     * Borrow a connected client, connecting a new one when every pooled client is busy or gone.
+     * The profile is a transport profile of {@link TransportTuning}, null for the default.
+     * Every successful call must be matched by {@link #release}.
+     */
+    public SSHClient borrow(String host, int port, String user, String password, String profile) throws IOException {
+        String key = user + "@" + host + ":" + port + "/" + profile
+                + "#" + Digests.sha256Hex(password == null ? "" : password);
+        synchronized (this) {
+            Entry entry = leastBorrowed(key);
+            if (entry != null) {
+                entry.borrowers++;
+                return entry.client;
+            }
+        }
+
+        // handshake outside the lock, other hosts must not wait for it
+        SSHClient client = ConnectionUtils.open(host, port, user, password, profile);
+        synchronized (this) {
+            Entry entry = new Entry(client);
+            entry.borrowers = 1;
+            entries.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+            return client;
+        }
+    }
+
+    /**
+     * Return a borrowed client. It stays open for the next borrower until it has been idle for a while.
+     */
+    public synchronized void release(SSHClient client) {
+        for (List<Entry> list : entries.values()) {
+            for (Entry entry : list) {
+                if (entry.client == client) {
+                    entry.borrowers = Math.max(0, entry.borrowers - 1);
+                    if (entry.borrowers == 0) {
+                        entry.idleSince = System.currentTimeMillis();
+                    }
+                    return;
+                }
+            }
+        }
+        // evicted while borrowed
+        ConnectionUtils.closeQuietly(client);
+    }
+
+    private Entry leastBorrowed(String key) {
+        List<Entry> list = entries.get(key);
+        if (list == null) {
+            return null;
+        }
+        Entry best = null;
+        for (Iterator<Entry> it = list.iterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            if (!entry.client.isConnected() || !entry.client.isAuthenticated()) {
+                // borrowers of a dead client reconnect through the pool on their own
+                it.remove();
+                continue;
+            }
+            if (entry.borrowers < MAX_BORROWERS_PER_CONNECTION && (best == null || entry.borrowers < best.borrowers)) {
+                best = entry;
+            }
+        }
+        return best;
+    }
+
+    private synchronized void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (Iterator<List<Entry>> lists = entries.values().iterator(); lists.hasNext(); ) {
+            List<Entry> list = lists.next();
+            for (Iterator<Entry> it = list.iterator(); it.hasNext(); ) {
+                Entry entry = it.next();
+                if (!entry.client.isConnected()
+                        || (entry.borrowers == 0 && now - entry.idleSince > IDLE_TIMEOUT_MILLIS)) {
+                    ConnectionUtils.closeQuietly(entry.client);
+                    it.remove();
+                }
+            }
+            if (list.isEmpty()) {
+                lists.remove();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void dispose() {
+        sweeper.shutdownNow();
+        entries.values().forEach(list -> list.forEach(entry -> ConnectionUtils.closeQuietly(entry.client)));
+        entries.clear();
+    }
+}
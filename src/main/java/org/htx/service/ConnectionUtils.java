@@ -23,15 +23,32 @@
  */
 package org.htx.service;
 
-import com.intellij.openapi.application.ApplicationManager;
+import net.schmizz.concurrent.Promise;
 import net.schmizz.sshj.SSHClient;
+import net.schmizz.sshj.common.SSHPacket;
+import net.schmizz.sshj.connection.ConnectionException;
 import net.schmizz.sshj.connection.channel.direct.Session;
+import net.schmizz.sshj.connection.channel.direct.Signal;
+import net.schmizz.sshj.sftp.SFTPClient;
 import net.schmizz.sshj.transport.verification.PromiscuousVerifier;
+import org.htx.model.CommandPipeline;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Utility class for managing SSH connections and executing commands.
@@ -42,19 +59,287 @@ import java.util.function.Consumer;
  */
 public class ConnectionUtils {
 
-    private SSHClient sshClient;
+    /** Runs commands and drains their output, shared by all connections. */
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "JarPilot exec");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final long DEFAULT_TIMEOUT_SECONDS = 30;
+    private static final int MAX_MISSED_HEARTBEATS = 3;
+    private static final int MAX_RECONNECT_ATTEMPTS = 8;
+    private static final long INITIAL_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 60 * 1000;
+    // states of a command waiting for the agent
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int DROPPED = 2;
+    /** Per stream cap of the output kept by {@link #execAsync}. */
+    public static final int MAX_OUTPUT_BYTES = 4 * 1024 * 1024;
+
+    /** null when this instance owns its connection */
+    private final ConnectionPool pool;
+    private final Set<CompletableFuture<String>> running = ConcurrentHashMap.newKeySet();
+    private final List<LogStream> streams = new CopyOnWriteArrayList<>();
+    private volatile SSHClient sshClient;
+    private volatile boolean agentMode;
+    private String host;
+    private int port;
+    private String username;
+    private String password;
+    /** the tab wants to be connected, false after {@link #close()} or when reconnecting gave up */
+    private volatile boolean connected;
+    private volatile int keepAliveSeconds = 10;
+    private volatile boolean autoReconnect = true;
+    private volatile String transportProfile;
+    private volatile Listener listener = new Listener() {};
+    private Future<?> heartbeat;
+    private volatile long rttMillis = -1;
+    private volatile long lastActivity;
+    private RemoteAgent agent;
+
+    public ConnectionUtils() {
+        this(null);
+    }
+
+    /**
+     * @param pool pool to borrow the connection from, null for a connection of its own
+     */
+    public ConnectionUtils(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Connection events of one tab, called from background threads.
+     */
+    public interface Listener {
+        /** a heartbeat was answered */
+        default void health(long rttMillis, long lastActivityMillis) {}
+
+        /** the connection is dead, next attempt after {@code delayMillis} */
+        default void reconnecting(int attempt, long delayMillis, Exception cause) {}
+
+        /** connected again, log streams are being restored */
+        default void reconnected() {}
+
+        /** every attempt failed, the tab is disconnected */
+        default void lost(Exception cause) {}
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener == null ? new Listener() {} : listener;
+    }
+
+    /**
+     * @param seconds heartbeat interval, 0 disables heartbeats and with them the reconnect
+     */
+    public void setKeepAlive(int seconds) {
+        this.keepAliveSeconds = Math.max(0, seconds);
+    }
+
+    /**
+     * @param profile transport profile of {@link TransportTuning} for the next connect, null for the default
+     */
+    public void setTransportProfile(String profile) {
+        this.transportProfile = profile;
+    }
+
+    public void setAutoReconnect(boolean autoReconnect) {
+        this.autoReconnect = autoReconnect;
+    }
+
+    /**
+     * @return round trip time of the last answered heartbeat, -1 before the first one
+     */
+    public long getRttMillis() {
+        return rttMillis;
+    }
+
+    public long getLastActivityMillis() {
+        return lastActivity;
+    }
 
     public void connect(String ip, int port, String username, String password) throws IOException {
         if (sshClient != null && sshClient.isConnected()) {
             return;
         }
+        this.host = ip;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        // the connection dropped, give it back before borrowing a new one
+        detach();
+        attach();
+        connected = true;
+    }
+
+    private void attach() throws IOException {
+        SSHClient client = pool != null
+                ? pool.borrow(host, port, username, password, transportProfile)
+                : open(host, port, username, password, transportProfile);
+        synchronized (this) {
+            sshClient = client;
+            rttMillis = -1;
+            lastActivity = System.currentTimeMillis();
+            if (keepAliveSeconds > 0) {
+                heartbeat = EXECUTOR.submit(() -> heartbeat(client));
+            }
+        }
+    }
+
+    private synchronized void detach() {
+        running.forEach(future -> future.cancel(true));
+        closeAgent();
+        if (heartbeat != null) {
+            heartbeat.cancel(true);
+            heartbeat = null;
+        }
+        if (sshClient != null) {
+            if (pool != null) {
+                pool.release(sshClient);
+            } else {
+                closeQuietly(sshClient);
+            }
+            sshClient = null;
+        }
+    }
+
+    /**
+     * Send keepalive@openssh.com requests and wait for the answers. A silently dropped connection
+     * is declared dead after {@link #MAX_MISSED_HEARTBEATS} unanswered intervals instead of
+     * hanging the next command until TCP gives up.
+     */
+    private void heartbeat(SSHClient client) {
+        long interval = TimeUnit.SECONDS.toMillis(keepAliveSeconds);
+        Promise<SSHPacket, ConnectionException> pending = null;
+        long sentAt = 0;
+        int missed = 0;
+        String reason;
+        try {
+            while (true) {
+                if (pending == null) {
+                    Thread.sleep(interval);
+                    if (client != sshClient) {
+                        return;
+                    }
+                    if (!client.isConnected()) {
+                        reason = "Connection closed";
+                        break;
+                    }
+                    sentAt = System.nanoTime();
+                    pending = client.getConnection().sendGlobalRequest("keepalive@openssh.com", true, new byte[0]);
+                }
+                boolean answered;
+                try {
+                    answered = pending.tryRetrieve(interval, TimeUnit.MILLISECONDS) != null;
+                } catch (ConnectionException e) {
+                    // servers without the extension answer with a failure, which is an answer too
+                    answered = client.isConnected();
+                }
+                if (client != sshClient) {
+                    return;
+                }
+                if (answered) {
+                    rttMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt);
+                    lastActivity = System.currentTimeMillis();
+                    listener.health(rttMillis, lastActivity);
+                    pending = null;
+                    missed = 0;
+                } else if (!client.isConnected()) {
+                    reason = "Connection closed";
+                    break;
+                } else if (++missed >= MAX_MISSED_HEARTBEATS) {
+                    reason = "No answer to " + missed + " heartbeats";
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            return;
+        } catch (IOException e) {
+            reason = e.getMessage();
+        }
+        reconnect(client, reason);
+    }
+
+    private void reconnect(SSHClient dead, String reason) {
+        synchronized (this) {
+            if (dead != sshClient || !connected) {
+                return;
+            }
+            // this thread is the heartbeat, it must not interrupt itself
+            heartbeat = null;
+            // a silently dropped connection still looks connected, keep the pool from lending it again
+            closeQuietly(dead);
+            detach();
+        }
+        Exception cause = new IOException(reason);
+        if (!autoReconnect) {
+            connected = false;
+            listener.lost(cause);
+            return;
+        }
+        for (int attempt = 1; attempt <= MAX_RECONNECT_ATTEMPTS; attempt++) {
+            long delay = Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << (attempt - 1));
+            listener.reconnecting(attempt, delay, cause);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!connected || sshClient != null) {
+                // disconnected or connected by hand meanwhile
+                return;
+            }
+            try {
+                attach();
+            } catch (IOException e) {
+                cause = e;
+                continue;
+            }
+            if (!connected) {
+                detach();
+                return;
+            }
+            listener.reconnected();
+            for (LogStream stream : streams) {
+                try {
+                    startStream(stream);
+                } catch (IOException e) {
+                    endStream(stream);
+                }
+            }
+            return;
+        }
+        connected = false;
+        endStreams();
+        listener.lost(cause);
+    }
+
+    /**
+     * @param profile transport profile of {@link TransportTuning}, null for the default
+     */
+    static SSHClient open(String ip, int port, String username, String password, String profile) throws IOException {
+        SSHClient client = new SSHClient(TransportTuning.config(profile));
+        client.addHostKeyVerifier(new PromiscuousVerifier());
+        // must be set before connecting to take effect, a dead host should not hang the reconnect
+        client.setConnectTimeout(3000);
+        client.connect(ip, port);
+        try {
+            client.authPassword(username, password);
+        } catch (IOException e) {
+            closeQuietly(client);
+            throw e;
+        }
+        return client;
+    }
 
-        sshClient = new SSHClient();
-        sshClient.addHostKeyVerifier(new PromiscuousVerifier());
-        sshClient.connect(ip, port);
-        sshClient.authPassword(username, password);
-        sshClient.useCompression();
-        sshClient.setConnectTimeout(3000);
+    static void closeQuietly(SSHClient client) {
+        try {
+            client.disconnect();
+            client.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     /**
@@ -84,75 +369,242 @@ public class ConnectionUtils {
         }
     }
 
+    /**
+     * Send {@link #exec(String)} commands through a {@link RemoteAgent} instead of a session per command.
+     */
+    public void setAgentMode(boolean agentMode) {
+        this.agentMode = agentMode;
+        if (!agentMode) {
+            closeAgent();
+        }
+    }
+
+    /**
+     * Run a command and wait for it, at most 30 seconds.
+     *
+     * @return stdout, or stderr when the command printed nothing to stdout
+     * @throws RuntimeException when the command exits with a non-zero code
+     * @throws TimeoutException when the command does not finish in time, the channel is closed then
+     */
     public String exec(String cmd) throws Exception {
-        checkConnection();
-        try (Session session = sshClient.startSession()) {
+        CompletableFuture<String> future = execAsync(cmd, DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
 
-            try (Session.Command exec = session.exec(cmd)) {
-                ByteArrayOutputStream outBuffer = new ByteArrayOutputStream();
-                ByteArrayOutputStream errBuffer = new ByteArrayOutputStream();
-
-                Thread outThread = new Thread(() -> {
-                    try (InputStream stdout = exec.getInputStream()) {
-                        byte[] buf = new byte[1024];
-                        int len;
-                        while ((len = stdout.read(buf)) != -1) {
-                            outBuffer.write(buf, 0, len);
+    /**
+     * Run a command without blocking the caller. The future completes with the same result as
+     * {@link #exec(String)}; cancelling it or passing the deadline closes the command's channel.
+     * Each stream keeps at most {@link #MAX_OUTPUT_BYTES}. It never throws, without a connection the future fails.
+     */
+    public CompletableFuture<String> execAsync(String cmd, long timeout, TimeUnit unit) {
+        SSHClient client = sshClient;
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            checkConnection();
+        } catch (IllegalStateException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        running.add(future);
+        future.whenComplete((result, error) -> {
+            running.remove(future);
+            if (error == null) {
+                lastActivity = System.currentTimeMillis();
+            }
+        });
+
+        EXECUTOR.execute(() -> {
+            try {
+                if (agentMode) {
+                    RemoteAgent current = currentAgent(client);
+                    if (current != null) {
+                        // the agent times the command once it runs; cancelling it while it waits for the
+                        // commands before it only drops it, the agent and the running command are left alone
+                        AtomicInteger state = new AtomicInteger(QUEUED);
+                        future.whenComplete((result, error) -> {
+                            if (error != null && !state.compareAndSet(QUEUED, DROPPED)) {
+                                current.close();
+                            }
+                        });
+                        RemoteAgent.Result result = current.exec(cmd, timeout, unit,
+                                () -> state.compareAndSet(QUEUED, RUNNING));
+                        if (result != null) {
+                            complete(future, cmd, result.getExitCode(), result.getStdout(), result.getStderr());
                         }
-                    } catch (IOException ignored) {}
-                });
+                        return;
+                    }
+                }
 
-                Thread errThread = new Thread(() -> {
-                    try (InputStream stderr = exec.getErrorStream()) {
-                        byte[] buf = new byte[1024];
-                        int len;
-                        while ((len = stderr.read(buf)) != -1) {
-                            errBuffer.write(buf, 0, len);
+                CompletableFuture.delayedExecutor(timeout, unit).execute(() -> future.completeExceptionally(
+                        new TimeoutException("命令执行超时 (" + unit.toSeconds(timeout) + " s): " + cmd)));
+                Session session = client.startSession();
+                Session.Command command = session.exec(cmd);
+                future.whenComplete((result, error) -> {
+                    try {
+                        if (error != null && command.isOpen()) {
+                            // servers that honour signals stop the command, the others drop it with the channel
+                            command.signal(Signal.TERM);
                         }
+                        command.close();
+                        session.close();
                     } catch (IOException ignored) {}
                 });
 
-                outThread.start();
-                errThread.start();
+                BoundedOutputStream out = new BoundedOutputStream(MAX_OUTPUT_BYTES);
+                BoundedOutputStream err = new BoundedOutputStream(MAX_OUTPUT_BYTES);
+                Future<?> errReader = EXECUTOR.submit(() -> drain(command.getErrorStream(), err));
+                drain(command.getInputStream(), out);
+                errReader.get();
+                command.join();
 
-                // 等待命令结束（带超时，避免卡死）
-                exec.join(30, TimeUnit.SECONDS);
+                Integer exitStatus = command.getExitStatus();
+                complete(future, cmd, exitStatus == null ? -1 : exitStatus, out.toString(), err.toString());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
 
-                outThread.join();
-                errThread.join();
+    /**
+     * Run all steps of a pipeline in one round trip and wait for them, at most 30 seconds.
+     * A failing step does not throw, check {@link CommandPipeline.StepResult#isSuccess()}.
+     */
+    public List<CommandPipeline.StepResult> exec(CommandPipeline pipeline) throws Exception {
+        CompletableFuture<List<CommandPipeline.StepResult>> future =
+                execAsync(pipeline, DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
 
-                int exitStatus = exec.getExitStatus();
-                String output = outBuffer.toString(StandardCharsets.UTF_8);
-                String errorOutput = errBuffer.toString(StandardCharsets.UTF_8);
+    public CompletableFuture<List<CommandPipeline.StepResult>> execAsync(CommandPipeline pipeline, long timeout, TimeUnit unit) {
+        CompletableFuture<String> script = execAsync(pipeline.render(), timeout, unit);
+        CompletableFuture<List<CommandPipeline.StepResult>> results = script.thenApply(pipeline::parse);
+        // cancelling the results has to reach the channel
+        results.whenComplete((result, error) -> {
+            if (error != null) {
+                script.cancel(true);
+            }
+        });
+        return results;
+    }
 
-                if (exitStatus != 0) {
-                    throw new RuntimeException(
-                            "命令执行失败: " + cmd +
-                                    "\nExit code: " + exitStatus +
-                                    "\nError: " + errorOutput);
-                }
+    private static void complete(CompletableFuture<String> future, String cmd, int exitStatus,
+                                 String output, String errorOutput) {
+        if (exitStatus != 0) {
+            future.completeExceptionally(new RuntimeException(
+                    "命令执行失败: " + cmd +
+                            "\nExit code: " + exitStatus +
+                            "\nError: " + errorOutput));
+        } else {
+            future.complete(output.isEmpty() ? errorOutput : output);
+        }
+    }
 
-                return output.isEmpty() ? errorOutput : output;
+    private static Void drain(InputStream in, OutputStream out) throws IOException {
+        byte[] buf = new byte[8192];
+        int len;
+        while ((len = in.read(buf)) != -1) {
+            out.write(buf, 0, len);
+        }
+        return null;
+    }
+
+    /**
+     * @return null when the agent cannot be started, the command then runs in a session of its own.
+     * A failure once the command was sent is not retried, the command may already have run.
+     */
+    private synchronized RemoteAgent currentAgent(SSHClient client) {
+        if (agent == null || !agent.isOpen()) {
+            try {
+                agent = new RemoteAgent(client);
+            } catch (IOException e) {
+                agent = null;
             }
         }
+        return agent;
+    }
+
+    private synchronized void closeAgent() {
+        if (agent != null) {
+            agent.close();
+            agent = null;
+        }
     }
 
+    /**
+     * Stream the output lines of a long running command. The stream is started again after a reconnect,
+     * until the command ends by itself or the tab disconnects.
+     */
     public void execStream(String cmd, Consumer<String> outputHandler) throws Exception {
+        execStream(() -> cmd, outputHandler, () -> {});
+    }
+
+    /**
+     * Stream the output lines of a command that is built again for every start, e.g. to resume where the
+     * last run stopped. {@code onEnd} runs once when the command ends by itself or the stream is given up.
+     */
+    public void execStream(Supplier<String> cmd, Consumer<String> outputHandler, Runnable onEnd) throws Exception {
         checkConnection();
+        LogStream stream = new LogStream(cmd, outputHandler, onEnd);
+        // listed first, a command that ends at once must find itself to be removed
+        streams.add(stream);
+        try {
+            startStream(stream);
+        } catch (IOException e) {
+            streams.remove(stream);
+            throw e;
+        }
+    }
+
+    private void startStream(LogStream stream) throws IOException {
         Session session = sshClient.startSession();
-        Session.Command exec = session.exec(cmd);
+        Session.Command exec;
+        try {
+            exec = session.exec(stream.cmd.get());
+        } catch (IOException e) {
+            session.close();
+            throw e;
+        }
 
-        // 提交到插件线程池
-        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+        EXECUTOR.execute(() -> {
             try (BufferedReader reader = new BufferedReader(
                     new InputStreamReader(exec.getInputStream(), StandardCharsets.UTF_8))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
-                    outputHandler.accept(line);
+                    stream.outputHandler.accept(line);
                 }
-            } catch (Exception ignored) {}
+                // the command ended, e.g. the tail was killed
+                endStream(stream);
+            } catch (Exception ignored) {
+                // the connection broke, the stream is restored after a reconnect
+            } finally {
+                try {
+                    session.close();
+                } catch (IOException ignored) {}
+            }
         });
+    }
 
+    /**
+     * Open an SFTP channel on the existing connection, the caller closes it.
+     */
+    public SFTPClient newSFTPClient() throws IOException {
+        checkConnection();
+        return sshClient.newSFTPClient();
     }
 
     private void checkConnection() {
@@ -162,13 +614,32 @@ public class ConnectionUtils {
     }
 
     public void close() {
-        if (sshClient != null) {
-            try {
-                sshClient.disconnect();
-                sshClient.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+        connected = false;
+        endStreams();
+        detach();
+    }
+
+    private void endStream(LogStream stream) {
+        if (streams.remove(stream)) {
+            stream.onEnd.run();
+        }
+    }
+
+    private void endStreams() {
+        for (LogStream stream : streams) {
+            endStream(stream);
+        }
+    }
+
+    private static final class LogStream {
+        private final Supplier<String> cmd;
+        private final Consumer<String> outputHandler;
+        private final Runnable onEnd;
+
+        private LogStream(Supplier<String> cmd, Consumer<String> outputHandler, Runnable onEnd) {
+            this.cmd = cmd;
+            this.outputHandler = outputHandler;
+            this.onEnd = onEnd;
         }
     }
 }
@@ -28,6 +28,7 @@ import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.project.Project;
 import org.apache.commons.lang3.StringUtils;
+import org.htx.transfer.UploadJournal;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -47,16 +48,51 @@ public class PersistentStateService implements PersistentStateComponent<Persiste
         public String host = "";
         public String user = "";
         public String passWord = "";
+        // passWord is encrypted, cleared while a tab holds it in plain text
+        public boolean passwordEncrypted = true;
         public int port = 22;
         public int serverPort = 8080;
         public String jarPath = "";
         public String logPath = "";
         public String activeField = "";
+        public int uploadChannels = 4;
+        public int uploadChunkSizeMb = 4;
+        // KB/s, 0 = unlimited
+        public int uploadLimitKb = 0;
+        // run commands through one persistent shell instead of a session per command
+        public boolean commandAgent = false;
+        // heartbeat interval in seconds, 0 = no heartbeat and no auto reconnect
+        public int keepAliveSeconds = 10;
+        public boolean autoReconnect = true;
+        // caps of the off-heap log store behind the console, the oldest lines go first
+        public int logStoreMegabytes = 32;
+        public int logStoreLines = 500_000;
+        // log patterns of the event index, one per line, empty = Spring Boot and Logback defaults
+        public String logPatterns = "";
+        // last event filter of the console
+        public String logFilterLevel = "";
+        public String logFilterThread = "";
+        public String logFilterLogger = "";
+        // filter applied by the server to the followed log
+        public String remoteFilterLevel = "";
+        public String remoteFilterLogger = "";
+        public String remoteFilterRegex = "";
     }
 
     public static class State {
         // key = windowId, value = window state
         public Map<String, WindowState> windowStates = new HashMap<>();
+        // key = user@host:port/remotePath, value = journal of the unfinished upload; copied on write
+        public volatile Map<String, UploadJournal> uploadJournals = new HashMap<>();
+        // last settings of the multi-host deploy
+        public String deployLocalJar = "";
+        public String deployRemotePath = "";
+        public int deployParallelism = 4;
+        public boolean deployRelay = false;
+        // KB/s shared by all uploads, 0 = unlimited
+        public int globalUploadLimitKb = 0;
+        // key = host:port, value = SSH transport settings of the host; copied on write
+        public volatile Map<String, TransportProfile> transportProfiles = new HashMap<>();
     }
 
     private State state = new State();
@@ -78,20 +114,67 @@ public class PersistentStateService implements PersistentStateComponent<Persiste
     /** Get or create state for a specific window */
     public WindowState getWindowState(String windowId) {
         WindowState windowState = state.windowStates.computeIfAbsent(windowId, id -> new WindowState());
-        if (StringUtils.isNoneEmpty(windowState.passWord)) {
-            windowState.passWord = CryptoUtils.decrypt(windowState.passWord);
+        if (windowState.passwordEncrypted && StringUtils.isNoneEmpty(windowState.passWord)) {
+            String password = CryptoUtils.decrypt(windowState.passWord);
+            windowState.passWord = password != null ? password : "";
         }
+        windowState.passwordEncrypted = false;
         return windowState;
     }
 
     /** Update state for a specific window */
     public void setWindowState(String windowId, WindowState windowState) {
-        if(StringUtils.isNoneEmpty(windowState.passWord)){
+        if (!windowState.passwordEncrypted && StringUtils.isNoneEmpty(windowState.passWord)) {
             windowState.passWord = CryptoUtils.encrypt(windowState.passWord);
         }
+        windowState.passwordEncrypted = true;
         state.windowStates.put(windowId, windowState);
     }
 
+    /** Get or create the journal of the upload to a remote path */
+    public synchronized UploadJournal getUploadJournal(String key) {
+        UploadJournal journal = state.uploadJournals.get(key);
+        if (journal == null) {
+            journal = new UploadJournal();
+            // the platform may be saving the current map on its own thread
+            Map<String, UploadJournal> journals = new HashMap<>(state.uploadJournals);
+            journals.put(key, journal);
+            state.uploadJournals = journals;
+        }
+        return journal;
+    }
+
+    /** Forget the journal once its upload has completed */
+    public synchronized void removeUploadJournal(String key) {
+        if (state.uploadJournals.containsKey(key)) {
+            Map<String, UploadJournal> journals = new HashMap<>(state.uploadJournals);
+            journals.remove(key);
+            state.uploadJournals = journals;
+        }
+    }
+
+    /** Get the transport settings of a host, a new unsaved one when there are none yet */
+    public synchronized TransportProfile getTransportProfile(String host, int port) {
+        TransportProfile profile = state.transportProfiles.get(host + ":" + port);
+        return profile != null ? profile : new TransportProfile();
+    }
+
+    /** Keep the transport settings of a host, once probed or chosen by hand */
+    public synchronized void saveTransportProfile(String host, int port, TransportProfile profile) {
+        // saved from the probe thread while the platform may be saving the current map
+        Map<String, TransportProfile> profiles = new HashMap<>(state.transportProfiles);
+        profiles.put(host + ":" + port, profile);
+        state.transportProfiles = profiles;
+    }
+
+    /**
+     * Password of a saved window in plain text, decrypted when the window marks it as encrypted.
+     * Null when the stored value can not be decrypted.
+     */
+    public static String getPlainPassword(WindowState windowState) {
+        return windowState.passwordEncrypted ? CryptoUtils.decrypt(windowState.passWord) : windowState.passWord;
+    }
+
     public Map<String, WindowState> getAllWindowStatesMutable() {
         return state.windowStates;
     }
@@ -0,0 +1,228 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.service;
+
+import net.schmizz.sshj.SSHClient;
+import net.schmizz.sshj.connection.channel.direct.Session;
+import org.htx.model.CommandTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A shell loop kept running in one session, so a command costs one round trip instead of
+ * opening a channel and starting a shell. Commands run one at a time.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/14 10:00
+ * @Version 1.0
+ */
+public class RemoteAgent implements Closeable {
+
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "JarPilot agent watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Output of one command.
+     */
+    public static final class Result {
+        private final int exitCode;
+        private final String stdout;
+        private final String stderr;
+
+        private Result(int exitCode, String stdout, String stderr) {
+            this.exitCode = exitCode;
+            this.stdout = stdout;
+            this.stderr = stderr;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        public String getStdout() {
+            return stdout;
+        }
+
+        public String getStderr() {
+            return stderr;
+        }
+    }
+
+    /** "id exit-code stdout-bytes stderr-bytes stdout-total stderr-total" with long numbers */
+    private static final int MAX_HEADER_BYTES = 256;
+
+    private final Closeable channel;
+    private final BooleanSupplier channelOpen;
+    private final OutputStream stdin;
+    private final DataInputStream stdout;
+    private final int maxOutputBytes;
+    private long nextId = 1;
+    private volatile boolean closed;
+
+    public RemoteAgent(SSHClient client) throws IOException {
+        this(start(client, ConnectionUtils.MAX_OUTPUT_BYTES), ConnectionUtils.MAX_OUTPUT_BYTES);
+    }
+
+    private RemoteAgent(Session.Command command, int maxOutputBytes) {
+        this(command.getInputStream(), command.getOutputStream(), command, command::isOpen, maxOutputBytes);
+    }
+
+    /**
+     * An agent script started as {@link CommandTemplate#COMMAND_AGENT_UNIX} with {@code maxOutputBytes}.
+     */
+    RemoteAgent(InputStream stdout, OutputStream stdin, Closeable channel, BooleanSupplier channelOpen,
+                int maxOutputBytes) {
+        this.stdout = new DataInputStream(stdout);
+        this.stdin = stdin;
+        this.channel = channel;
+        this.channelOpen = channelOpen;
+        this.maxOutputBytes = maxOutputBytes;
+    }
+
+    private static Session.Command start(SSHClient client, int maxOutputBytes) throws IOException {
+        Session session = client.startSession();
+        try {
+            // the command is the session channel, closing it closes the session
+            return session.exec(CommandTemplate.COMMAND_AGENT_UNIX.render(maxOutputBytes));
+        } catch (IOException e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Run {@code cmd} in a subshell of the agent. The timeout starts once the commands before it are done.
+     * On a timeout or a broken stream the agent is closed. Each stream keeps at most the byte limit of the
+     * agent, the script cuts the rest before sending it.
+     *
+     * @param start asked when it is the command's turn, false drops the command without running it
+     * @return null when the command was dropped
+     */
+    public synchronized Result exec(String cmd, long timeout, TimeUnit unit, BooleanSupplier start) throws IOException {
+        if (closed) {
+            throw new IOException("Command agent is closed");
+        }
+        if (!start.getAsBoolean()) {
+            return null;
+        }
+        long id = nextId++;
+        String line = id + " " + Base64.getEncoder().encodeToString(cmd.getBytes(StandardCharsets.UTF_8)) + "\n";
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> watchdog = WATCHDOG.schedule(() -> {
+            timedOut.set(true);
+            close();
+        }, timeout, unit);
+        try {
+            stdin.write(line.getBytes(StandardCharsets.UTF_8));
+            stdin.flush();
+
+            String reply = readLine();
+            String[] header = reply.split(" ");
+            if (header.length != 6 || Long.parseLong(header[0]) != id) {
+                throw new IOException("Unexpected command agent reply: " + reply);
+            }
+            int exitCode = Integer.parseInt(header[1]);
+            long outBytes = Long.parseLong(header[2]);
+            long errBytes = Long.parseLong(header[3]);
+            long outTotal = Long.parseLong(header[4]);
+            long errTotal = Long.parseLong(header[5]);
+            if (!isKept(outBytes, outTotal) || !isKept(errBytes, errTotal)) {
+                throw new IOException("Unexpected command agent reply: " + reply);
+            }
+            String out = readString((int) outBytes, outTotal);
+            String err = readString((int) errBytes, errTotal);
+            return new Result(exitCode, out, err);
+        } catch (IOException | RuntimeException e) {
+            close();
+            if (timedOut.get()) {
+                throw new IOException("Command timed out after " + unit.toSeconds(timeout) + " s: " + cmd, e);
+            }
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        } finally {
+            watchdog.cancel(false);
+        }
+    }
+
+    public boolean isOpen() {
+        return !closed && channelOpen.getAsBoolean();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException ignored) {}
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = stdout.read()) != '\n') {
+            if (b == -1) {
+                throw new EOFException("Command agent exited");
+            }
+            if (line.size() == MAX_HEADER_BYTES) {
+                throw new IOException("Unexpected command agent reply: header too long");
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Whether a stream length of the header is one the script sends, checked before anything is allocated.
+     */
+    private boolean isKept(long bytes, long total) {
+        return bytes >= 0 && bytes <= maxOutputBytes && bytes == Math.min(total, maxOutputBytes);
+    }
+
+    private String readString(int length, long total) throws IOException {
+        byte[] bytes = new byte[length];
+        stdout.readFully(bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        // the same note as BoundedOutputStream on the session path
+        return total == length ? text : text + "\n... (" + (total - length) + " bytes truncated)";
+    }
+}
@@ -0,0 +1,486 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.service;
+
+import net.schmizz.sshj.sftp.RemoteFile;
+import net.schmizz.sshj.sftp.SFTPClient;
+import org.htx.log.LogLayout;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Random access to the lines of a remote log without downloading it. The file is read with SFTP offset reads
+ * in pages of {@link #PAGE_BYTES}, and the pages are kept in an LRU cache, so paging back and forth or
+ * searching a time only transfers the parts that are looked at. The file may grow while it is read, and a
+ * rotated log is followed to the new file at the path.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 18:00
+ * @Version 1.0
+ */
+public class RemoteLogFile implements Closeable {
+
+    public static final int PAGE_BYTES = 64 * 1024;
+    /** 16 MB of pages */
+    public static final int DEFAULT_CACHE_PAGES = 256;
+    /** a probe of the time search gives up after this many bytes without a timestamp */
+    private static final int MAX_PROBE_BYTES = 1024 * 1024;
+    /** compared after a new handle is opened, log lines start with a timestamp so a rotated file differs */
+    private static final int HEAD_BYTES = 256;
+    /** longer lines are cut, the rest is still skipped to find the next line */
+    private static final int MAX_LINE_BYTES = 1024 * 1024;
+
+    /**
+     * A complete line of the file, without its line terminator.
+     */
+    public static final class Line {
+        private final long start;
+        private final long end;
+        private final String text;
+
+        private Line(long start, long end, String text) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+
+        /** offset of the first byte */
+        public long getStart() {
+            return start;
+        }
+
+        /** offset after the '\n' */
+        public long getEnd() {
+            return end;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+
+    /**
+     * A path and a handle of the file it named when the handle was opened. After a rotation the two differ
+     * until the handle is closed; the next read then opens the file the path names now.
+     */
+    interface Source extends Closeable {
+        /** size of the file the path names now */
+        long length() throws IOException;
+
+        /** size of the file the handle reads, opening it when closed */
+        long openLength() throws IOException;
+
+        /**
+         * @return bytes read through the handle, -1 at the end of the file
+         */
+        int read(long offset, byte[] data, int start, int length) throws IOException;
+
+        boolean isOpen();
+
+        @Override
+        void close();
+    }
+
+    /**
+     * The file over a SFTP channel of its own, opened on first use.
+     */
+    private static final class SftpSource implements Source {
+        private final ConnectionUtils connection;
+        private final String path;
+        private SFTPClient sftp;
+        private RemoteFile file;
+
+        private SftpSource(ConnectionUtils connection, String path) {
+            this.connection = connection;
+            this.path = path;
+        }
+
+        @Override
+        public long length() throws IOException {
+            return client().stat(path).getSize();
+        }
+
+        @Override
+        public long openLength() throws IOException {
+            return open().length();
+        }
+
+        @Override
+        public int read(long offset, byte[] data, int start, int length) throws IOException {
+            return open().read(offset, data, start, length);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return file != null;
+        }
+
+        private SFTPClient client() throws IOException {
+            if (sftp == null) {
+                sftp = connection.newSFTPClient();
+            }
+            return sftp;
+        }
+
+        private RemoteFile open() throws IOException {
+            if (file == null) {
+                file = client().open(path);
+            }
+            return file;
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (file != null) {
+                    file.close();
+                }
+            } catch (IOException ignored) {
+            } finally {
+                file = null;
+            }
+            try {
+                if (sftp != null) {
+                    sftp.close();
+                }
+            } catch (IOException ignored) {
+            } finally {
+                sftp = null;
+            }
+        }
+    }
+
+    private final String path;
+    private final Source source;
+    private final List<LogLayout> layouts = new ArrayList<>();
+    private final LogLayout.Event event = new LogLayout.Event();
+    private final Map<Long, byte[]> pages;
+    private long length;
+    private long fetched;
+    /** first bytes of the file, to tell the file a new handle reads from the one the pages are of */
+    private byte[] head;
+
+    public RemoteLogFile(ConnectionUtils connection, String path, List<String> patterns, int cachePages) {
+        this(path, new SftpSource(connection, path), patterns, cachePages);
+    }
+
+    RemoteLogFile(String path, Source source, List<String> patterns, int cachePages) {
+        this.path = path;
+        this.source = source;
+        for (String pattern : patterns) {
+            layouts.add(new LogLayout(pattern));
+        }
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > cachePages;
+            }
+        };
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Size of the file the path names, read again from the server.
+     */
+    public synchronized long length() throws IOException {
+        refresh();
+        return length;
+    }
+
+    /**
+     * Bytes transferred so far, cache hits cost nothing.
+     */
+    public synchronized long getFetched() {
+        return fetched;
+    }
+
+    /**
+     * The complete lines from a line start on, until {@code maxBytes} or {@code maxLines} are read.
+     */
+    public synchronized List<Line> readLines(long from, long maxBytes, int maxLines) throws IOException {
+        refresh();
+        List<Line> lines = new ArrayList<>();
+        long pos = from;
+        while (pos < length && pos - from < maxBytes && lines.size() < maxLines) {
+            Line line = line(pos);
+            if (line == null) {
+                break;
+            }
+            lines.add(line);
+            pos = line.end;
+        }
+        return lines;
+    }
+
+    /**
+     * The first line start at or after an offset, the file length when there is none.
+     */
+    public synchronized long lineStart(long offset) throws IOException {
+        refresh();
+        return nextLineStart(offset);
+    }
+
+    /**
+     * Start of the first line logged at or after a time, by binary search over the byte offsets: every step
+     * reads the first timestamped line after the middle of the range, about a page. Lines without a
+     * timestamp, such as stack frames, belong to the line before them.
+     *
+     * @return a line start, the file length when every line is older
+     */
+    public synchronized long findTime(long millis) throws IOException {
+        refresh();
+        long low = 0;
+        long high = length;
+        while (high - low > PAGE_BYTES) {
+            long middle = nextLineStart(low + (high - low) / 2);
+            Line probe = null;
+            long probeTime = -1;
+            for (long pos = middle; pos < Math.min(high, middle + MAX_PROBE_BYTES); pos = probe.end) {
+                probe = line(pos);
+                if (probe == null) {
+                    break;
+                }
+                probeTime = time(probe.text);
+                if (probeTime >= 0) {
+                    break;
+                }
+            }
+            if (probe == null || probeTime < 0) {
+                // nothing to compare with up to the end of the range, look before it
+                high = low + (high - low) / 2;
+            } else if (probeTime < millis) {
+                low = probe.end;
+            } else {
+                high = probe.start;
+            }
+        }
+        for (long pos = nextLineStart(low); pos < length; ) {
+            Line line = line(pos);
+            if (line == null) {
+                break;
+            }
+            long time = time(line.text);
+            if (time >= millis) {
+                return line.start;
+            }
+            pos = line.end;
+        }
+        return length;
+    }
+
+    /**
+     * Time of the last timestamped line in the last pages, or -1.
+     */
+    public synchronized long lastTime() throws IOException {
+        refresh();
+        for (long from = Math.max(0, length - PAGE_BYTES); ; from = Math.max(0, from - PAGE_BYTES)) {
+            long last = -1;
+            for (long pos = nextLineStart(from); pos < length; ) {
+                Line line = line(pos);
+                if (line == null) {
+                    break;
+                }
+                long time = time(line.text);
+                if (time >= 0) {
+                    last = time;
+                }
+                pos = line.end;
+            }
+            if (last >= 0 || from == 0 || length - from > MAX_PROBE_BYTES) {
+                return last;
+            }
+        }
+    }
+
+    /**
+     * Epoch millis of a line written with one of the patterns, or -1.
+     */
+    public synchronized long time(String line) {
+        for (LogLayout layout : layouts) {
+            if (layout.parse(line, event) && event.getTime() >= 0) {
+                return event.getTime();
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public synchronized void close() {
+        pages.clear();
+        head = null;
+        source.close();
+    }
+
+    private long nextLineStart(long offset) throws IOException {
+        if (offset <= 0) {
+            return 0;
+        }
+        if (offset >= length) {
+            return length;
+        }
+        long newline = indexOfNewline(offset - 1);
+        return newline < 0 ? length : newline + 1;
+    }
+
+    /**
+     * The complete line starting at an offset, or null when the file ends before its '\n'.
+     */
+    private Line line(long start) throws IOException {
+        long newline = indexOfNewline(start);
+        if (newline < 0) {
+            return null;
+        }
+        int size = (int) Math.min(newline - start, MAX_LINE_BYTES);
+        if (size > 0 && newline - start <= MAX_LINE_BYTES && byteAt(newline - 1) == '\r') {
+            size--;
+        }
+        byte[] bytes = new byte[size];
+        for (int copied = 0; copied < size; ) {
+            long pos = start + copied;
+            byte[] page = page(pos / PAGE_BYTES);
+            int offset = (int) (pos % PAGE_BYTES);
+            int n = Math.min(size - copied, page.length - offset);
+            System.arraycopy(page, offset, bytes, copied, n);
+            copied += n;
+        }
+        return new Line(start, newline + 1, new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return offset of the first '\n' at or after {@code from}, or -1
+     */
+    private long indexOfNewline(long from) throws IOException {
+        long pos = from;
+        while (pos < length) {
+            byte[] page = page(pos / PAGE_BYTES);
+            int offset = (int) (pos % PAGE_BYTES);
+            if (offset >= page.length) {
+                // the file shrank since its length was read
+                return -1;
+            }
+            for (int i = offset; i < page.length; i++) {
+                if (page[i] == '\n') {
+                    return pos + i - offset;
+                }
+            }
+            pos += page.length - offset;
+        }
+        return -1;
+    }
+
+    private byte byteAt(long pos) throws IOException {
+        return page(pos / PAGE_BYTES)[(int) (pos % PAGE_BYTES)];
+    }
+
+    /**
+     * A page from the cache, fetched when missing or when it was the short last page and the file has grown.
+     */
+    private byte[] page(long index) throws IOException {
+        long start = index * PAGE_BYTES;
+        byte[] page = pages.get(index);
+        if (page != null && (page.length == PAGE_BYTES || start + page.length >= length)) {
+            return page;
+        }
+        int size = (int) Math.max(0, Math.min(PAGE_BYTES, length - start));
+        byte[] data = new byte[size];
+        int read = 0;
+        try {
+            read = readFully(start, data);
+        } catch (IOException e) {
+            // the SFTP channel does not survive a reconnect, try once more on a new one, which may be of
+            // another file by now
+            source.close();
+            check();
+            read = readFully(start, data);
+        }
+        fetched += read;
+        page = read == size ? data : Arrays.copyOf(data, read);
+        pages.put(index, page);
+        if (index == 0 && (head == null || head.length < Math.min(HEAD_BYTES, page.length))) {
+            head = Arrays.copyOf(page, Math.min(HEAD_BYTES, page.length));
+        }
+        return page;
+    }
+
+    private int readFully(long start, byte[] data) throws IOException {
+        int read = 0;
+        while (read < data.length) {
+            int n = source.read(start + read, data, read, data.length - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        return read;
+    }
+
+    private void refresh() throws IOException {
+        try {
+            check();
+        } catch (IOException e) {
+            source.close();
+            check();
+        }
+    }
+
+    /**
+     * Follow the path: once its size changed the file may be another one, e.g. after a log rotation renamed
+     * the old one, so reading goes on through a new handle of the path, and the pages go when it reads other
+     * content. The size of the open handle does not tell, some servers answer it for the path.
+     */
+    private void check() throws IOException {
+        long current = source.length();
+        boolean reopened = !source.isOpen() || current != length;
+        if (reopened) {
+            source.close();
+            current = source.openLength();
+        }
+        if (current < length || (reopened && !pages.isEmpty() && !sameHead(current))) {
+            // truncated or rotated, the cached pages are of the old content
+            pages.clear();
+            head = null;
+        }
+        length = current;
+    }
+
+    private boolean sameHead(long size) throws IOException {
+        if (head == null || head.length == 0 || size < head.length) {
+            return false;
+        }
+        byte[] bytes = new byte[head.length];
+        int read = readFully(0, bytes);
+        fetched += read;
+        return read == bytes.length && Arrays.equals(bytes, head);
+    }
+}
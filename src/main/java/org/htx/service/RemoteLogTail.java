@@ -0,0 +1,239 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.service;
+
+import org.htx.log.LogLevel;
+import org.htx.model.CommandTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Follows a remote log with the filter applied on the server, so left out lines never cross the connection.
+ * The byte offset after the last line received is tracked with the inode of its file, a new filter or a
+ * reconnect starts the remote side again from there without losing or repeating lines, and from the start
+ * of the file when it was rotated in between.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 10:00
+ * @Version 1.0
+ */
+public class RemoteLogTail {
+
+    /**
+     * Conditions on the first line of an event, unset ones match everything.
+     */
+    public static final class Filter {
+        private final LogLevel level;
+        private final String logger;
+        private final String regex;
+
+        /**
+         * @param level  at least this level, or null
+         * @param logger text the line contains, or empty
+         * @param regex  POSIX extended regex the line matches, or empty
+         */
+        public Filter(LogLevel level, String logger, String regex) {
+            this.level = level;
+            this.logger = logger == null ? "" : logger;
+            this.regex = regex == null ? "" : regex;
+        }
+
+        public boolean isEmpty() {
+            return level == null && logger.isEmpty() && regex.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            if (level != null) {
+                parts.add("level >= " + level);
+            }
+            if (!logger.isEmpty()) {
+                parts.add("contains " + logger);
+            }
+            if (!regex.isEmpty()) {
+                parts.add("matches " + regex);
+            }
+            return parts.isEmpty() ? "all lines" : String.join(", ", parts);
+        }
+    }
+
+    private final ConnectionUtils connection;
+    private final Supplier<Consumer<String>> sinks;
+    private final String id = UUID.randomUUID().toString();
+
+    private Filter filter = new Filter(null, "", "");
+    private String logPath;
+    /** byte offset after the last line received, -1 before the first */
+    private volatile long offset = -1;
+    /** inode of the file the offset is in, empty before the first start */
+    private volatile String inode = "";
+    /** counts the starts, a stream of an older one is stale and its lines are dropped */
+    private volatile int generation;
+    private boolean running;
+
+    /**
+     * @param sinks a consumer of the log lines for every start of the remote side
+     */
+    public RemoteLogTail(ConnectionUtils connection, Supplier<Consumer<String>> sinks) {
+        this.connection = connection;
+        this.sinks = sinks;
+    }
+
+    /**
+     * Follow a log from its last 10 lines.
+     */
+    public synchronized void start(String logPath) throws Exception {
+        this.logPath = logPath;
+        this.offset = -1;
+        this.inode = "";
+        resume();
+    }
+
+    /**
+     * Stop following, the remote tail is killed.
+     *
+     * @return output of the stop command
+     */
+    public synchronized CompletableFuture<String> stop() {
+        String stopCommand = getStopCommand();
+        running = false;
+        generation++;
+        return connection.execAsync(stopCommand, 10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Use another filter, a running tail starts again from the line after the last one received.
+     */
+    public synchronized CompletableFuture<Void> setFilter(Filter filter) {
+        this.filter = filter;
+        if (!running) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return stop().handle((output, error) -> {
+            synchronized (this) {
+                try {
+                    resume();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Failed to restart the log tail: " + e.getMessage(), e);
+                }
+            }
+            return null;
+        });
+    }
+
+    public synchronized Filter getFilter() {
+        return filter;
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    public synchronized String getStopCommand() {
+        return CommandTemplate.STOP_LOG_TAIL_UNIX.render(id + "-" + generation);
+    }
+
+    private void resume() throws Exception {
+        int started = ++generation;
+        Filter current = filter;
+        String path = logPath;
+        Consumer<String> sink = sinks.get();
+        running = true;
+        // built again on a reconnect, from the offset reached by then
+        connection.execStream(() -> command(path, current, started), line -> accept(line, started, sink), () -> ended(started));
+    }
+
+    private synchronized void ended(int started) {
+        if (generation == started) {
+            running = false;
+        }
+    }
+
+    synchronized String command(String path, Filter current, int started) {
+        return CommandTemplate.FOLLOW_LOG_FILTERED_UNIX.render(quote(path), offset, quote(inode), id + "-" + started,
+                quote(current.logger), quote(current.regex), current.level == null ? 0 : current.level.ordinal() + 1);
+    }
+
+    /**
+     * Strip the offset of a line and hand the line on.
+     */
+    void accept(String line, int started, Consumer<String> sink) {
+        if (generation != started) {
+            return;
+        }
+        if (line.startsWith("@")) {
+            // a start of the remote side, e.g. after a rotation: the offsets that follow are in this file
+            String[] start = line.substring(1).split(" ");
+            if (start.length == 2 && start[0].matches("\\d{0,20}") && start[1].matches("\\d{1,18}")) {
+                synchronized (this) {
+                    inode = start[0];
+                    offset = Long.parseLong(start[1]);
+                }
+                return;
+            }
+        }
+        int space = line.indexOf(' ');
+        int end = space < 0 ? line.length() : space;
+        long lineEnd = 0;
+        for (int i = 0; i < end; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9' || i == 18) {
+                // not from the filter script, e.g. a shell error
+                sink.accept(line);
+                return;
+            }
+            lineEnd = lineEnd * 10 + (c - '0');
+        }
+        if (end == 0) {
+            sink.accept(line);
+            return;
+        }
+        offset = lineEnd;
+        if (space >= 0) {
+            sink.accept(line.substring(space + 1));
+        }
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    String getInode() {
+        return inode;
+    }
+
+    /**
+     * Single quote a value for the remote shell.
+     */
+    private static String quote(String value) {
+        return "'" + value.replace("'", "'\\''") + "'";
+    }
+}
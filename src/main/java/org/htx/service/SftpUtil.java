@@ -23,13 +23,29 @@
  */
 package org.htx.service;
 
-import com.jcraft.jsch.*;
+import net.schmizz.sshj.sftp.FileAttributes;
+import net.schmizz.sshj.sftp.OpenMode;
+import net.schmizz.sshj.sftp.RemoteFile;
+import net.schmizz.sshj.sftp.SFTPClient;
+import org.htx.model.CommandTemplate;
+import org.htx.transfer.DeltaTransfer;
+import org.htx.transfer.Digests;
+import org.htx.transfer.LibraryCacheTransfer;
+import org.htx.transfer.ParallelTransfer;
+import org.htx.transfer.TransferMonitor;
+import org.htx.transfer.UploadJournal;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
- * Utility class for SFTP file transfers using JSch.
+ * Utility class for SFTP file transfers over the SSH connection of a tab.
  *
  * @Author Hao Tong Xue
  * @Date 2025/8/27 15:30
@@ -37,46 +53,164 @@ import java.io.FileOutputStream;
  */
 public class SftpUtil {
 
-    public static void upload(String host, int port, String user, String password,
-                              String local, String remote, SftpProgressMonitor monitor) throws Exception {
-
-        JSch jsch = new JSch();
-        Session session = jsch.getSession(user, host, port);
-        session.setPassword(password);
-        session.setConfig("StrictHostKeyChecking", "no");
-        session.connect();
+    /** Writes kept in flight before waiting for the server to acknowledge them. */
+    private static final int MAX_UNCONFIRMED_WRITES = 16;
+    private static final int READ_AHEAD = 16;
+    private static final int BUFFER_SIZE = 32 * 1024;
 
-        Channel channel = session.openChannel("sftp");
-        channel.connect();
-        ChannelSftp sftp = (ChannelSftp) channel;
+    public static void upload(ConnectionUtils connection,
+                              String local, String remote, TransferMonitor monitor) throws Exception {
 
         File file = new File(local);
-        try (FileInputStream fis = new FileInputStream(file)) {
-            sftp.put(fis, remote, monitor);
+        String part = tempPath(remote);
+        try (SFTPClient sftp = connection.newSFTPClient();
+             FileInputStream fis = new FileInputStream(file)) {
+            monitor.init(local, remote, file.length());
+            write(sftp, fis, part, 0, true, monitor);
+        }
+        publish(connection, file, part, remote);
+        monitor.end();
+    }
+
+    /**
+     * Upload {@code local} in chunks written at their offsets over {@code channels} SFTP channels of the connection.
+     * Chunks already confirmed by {@code journal} and still intact on the server are not sent again.
+     */
+    public static void uploadParallel(ConnectionUtils connection,
+                                      String local, String remote, int channels, int chunkSize,
+                                      UploadJournal journal, TransferMonitor monitor) throws Exception {
+
+        new ParallelTransfer(connection, channels, chunkSize).upload(local, remote, journal, monitor);
+    }
+
+    /**
+     * Upload only the blocks of {@code local} that differ from the JAR already at {@code remote}.
+     * The remote file must not be deleted beforehand, it is the base of the delta.
+     */
+    public static void uploadDelta(ConnectionUtils connection, String signatureKey,
+                                   String local, String remote, TransferMonitor monitor) throws Exception {
+
+        try (SFTPClient sftp = connection.newSFTPClient()) {
+            new DeltaTransfer(connection, sftp, signatureKey).upload(local, remote, monitor);
+        }
+    }
+
+    /**
+     * Upload a Spring Boot fat JAR, sending only the nested libraries missing from the
+     * server's library store.
+     */
+    public static void uploadWithLibraryCache(ConnectionUtils connection,
+                                              String local, String remote, TransferMonitor monitor) throws Exception {
+
+        try (SFTPClient sftp = connection.newSFTPClient()) {
+            new LibraryCacheTransfer(connection, sftp).upload(local, remote, monitor);
         }
+    }
+
+    /**
+     * Temp file an upload to {@code remote} is written to. It is in the same directory,
+     * so {@link #publish} can rename it over {@code remote} atomically.
+     */
+    public static String tempPath(String remote) {
+        return remote + ".part";
+    }
 
-        sftp.disconnect();
-        session.disconnect();
+    /**
+     * Replace {@code remote} with the uploaded {@code temp} once its SHA-256 matches {@code local}.
+     * Until then {@code remote} keeps its old content, so the running service never sees a missing
+     * or half-written JAR.
+     */
+    public static void publish(ConnectionUtils connection, File local, String temp, String remote) throws Exception {
+        String sha256 = connection.exec(CommandTemplate.SHA256_FILE_UNIX.render(temp)).trim();
+        if (!sha256.equals(Digests.cachedSha256Hex(local))) {
+            connection.exec(CommandTemplate.DELETE_FILE_UNIX.render(temp));
+            throw new IOException("Uploaded " + temp + " does not match " + local);
+        }
+        connection.exec(CommandTemplate.MOVE_FILE_UNIX.render(temp, remote));
     }
 
-    public static void download(String host, int port, String user, String password,
-                                String remote, String local, SftpProgressMonitor monitor) throws Exception {
+    /**
+     * Whether {@code remote} already holds the content of {@code local}. Size and mtime, which
+     * {@link #markUploaded} copies from the local file, answer the check without hashing;
+     * otherwise the remote {@code sha256sum} is compared with the cached local digest.
+     *
+     * @return false when they differ or the remote file cannot be checked
+     */
+    public static boolean isIdentical(ConnectionUtils connection, String local, String remote) {
+        File file = new File(local);
+        try {
+            FileAttributes attributes;
+            try (SFTPClient sftp = connection.newSFTPClient()) {
+                attributes = sftp.statExistence(remote);
+            }
+            if (attributes == null || attributes.getSize() != file.length()) {
+                return false;
+            }
+            if (attributes.getMtime() == file.lastModified() / 1000) {
+                return true;
+            }
+            String remoteSha256 = connection.exec(CommandTemplate.SHA256_FILE_UNIX.render(remote)).trim();
+            if (!remoteSha256.equals(Digests.cachedSha256Hex(file))) {
+                return false;
+            }
+            markUploaded(connection, local, remote);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
 
-        JSch jsch = new JSch();
-        Session session = jsch.getSession(user, host, port);
-        session.setPassword(password);
-        session.setConfig("StrictHostKeyChecking", "no");
-        session.connect();
+    /**
+     * Give {@code remote} the mtime of {@code local}, the fast path of {@link #isIdentical}.
+     */
+    public static void markUploaded(ConnectionUtils connection, String local, String remote) throws IOException {
+        long mtime = new File(local).lastModified() / 1000;
+        try (SFTPClient sftp = connection.newSFTPClient()) {
+            sftp.setattr(remote, new FileAttributes.Builder().withAtimeMtime(mtime, mtime).build());
+        }
+    }
 
-        Channel channel = session.openChannel("sftp");
-        channel.connect();
-        ChannelSftp sftp = (ChannelSftp) channel;
+    public static void download(ConnectionUtils connection,
+                                String remote, String local, TransferMonitor monitor) throws Exception {
 
-        try (FileOutputStream fos = new FileOutputStream(local)) {
-            sftp.get(remote, fos, monitor);
+        try (SFTPClient sftp = connection.newSFTPClient();
+             RemoteFile file = sftp.open(remote);
+             InputStream in = file.new ReadAheadRemoteFileInputStream(READ_AHEAD);
+             FileOutputStream fos = new FileOutputStream(local)) {
+            monitor.init(remote, local, file.length());
+            byte[] buf = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                fos.write(buf, 0, n);
+                if (!monitor.count(n)) {
+                    throw new IOException("Download cancelled");
+                }
+            }
+            monitor.end();
         }
+    }
 
-        sftp.disconnect();
-        session.disconnect();
+    /**
+     * Write {@code in} into {@code remote} starting at {@code offset}, keeping several writes in flight.
+     *
+     * @param truncate whether to drop the current content of {@code remote} first
+     * @param monitor  receives the byte counts, may be null
+     */
+    public static void write(SFTPClient sftp, InputStream in, String remote, long offset, boolean truncate,
+                             TransferMonitor monitor) throws IOException {
+        Set<OpenMode> modes = truncate
+                ? EnumSet.of(OpenMode.WRITE, OpenMode.CREAT, OpenMode.TRUNC)
+                : EnumSet.of(OpenMode.WRITE, OpenMode.CREAT);
+        try (RemoteFile file = sftp.open(remote, modes);
+             OutputStream out = file.new RemoteFileOutputStream(offset, MAX_UNCONFIRMED_WRITES)) {
+            byte[] buf = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+                if (monitor != null && !monitor.count(n)) {
+                    throw new IOException("Upload cancelled");
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,63 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.service;
+
+/**
+ * SSH transport settings of one host: the profile learned by {@link TransportTuning#probe} and an
+ * optional manual override. Public fields keep it serializable by the state component.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/15 15:00
+ * @Version 1.0
+ */
+public class TransportProfile {
+
+    /** a probe result is trusted for a week, networks and servers change */
+    private static final long MAX_AGE_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    /** best profile of the last probe, e.g. "aes128-gcm@openssh.com" or "aes128-ctr/hmac-sha2-512-etm@openssh.com+zlib" */
+    public String learned = "";
+    public long bytesPerSecond;
+    public long measuredAt;
+    /** profile chosen by hand, {@link TransportTuning#AUTO} to use the learned one */
+    public String override = TransportTuning.AUTO;
+
+    /**
+     * @return the profile to connect with
+     */
+    public String effective() {
+        if (!TransportTuning.AUTO.equals(override) && !override.isEmpty()) {
+            return override;
+        }
+        return learned.isEmpty() ? TransportTuning.DEFAULT_PROFILE : learned;
+    }
+
+    /**
+     * @return whether a new probe should run, never for a manual override
+     */
+    public boolean needsProbe() {
+        return (TransportTuning.AUTO.equals(override) || override.isEmpty())
+                && (learned.isEmpty() || System.currentTimeMillis() - measuredAt > MAX_AGE_MILLIS);
+    }
+}
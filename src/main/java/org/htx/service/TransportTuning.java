@@ -0,0 +1,227 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.service;
+
+import net.schmizz.sshj.Config;
+import net.schmizz.sshj.DefaultConfig;
+import net.schmizz.sshj.SSHClient;
+import net.schmizz.sshj.common.Factory;
+import net.schmizz.sshj.connection.channel.direct.Session;
+import net.schmizz.sshj.transport.cipher.Cipher;
+import net.schmizz.sshj.transport.compression.Compression;
+import net.schmizz.sshj.transport.compression.DelayedZlibCompression;
+import net.schmizz.sshj.transport.compression.NoneCompression;
+import net.schmizz.sshj.transport.compression.ZlibCompression;
+import net.schmizz.sshj.transport.mac.MAC;
+import org.htx.model.CommandTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the SSH cipher, MAC and compression of a host by measuring them. A transport profile is a
+ * cipher name, then "/" and a MAC name for ciphers that are not AEAD, with "+zlib" when compression is on.
+ * The chosen algorithms go first in the client's proposal, the rest stay as fallback for servers that do
+ * not offer them.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/15 15:00
+ * @Version 1.0
+ */
+public final class TransportTuning {
+
+    public static final String AUTO = "auto";
+    private static final String ZLIB = "+zlib";
+
+    private static final String MAC_SEPARATOR = "/";
+
+    /** candidates, the AEAD ciphers need no separate MAC */
+    private static final List<String> CIPHERS =
+            List.of("aes128-gcm@openssh.com", "chacha20-poly1305@openssh.com", "aes128-ctr");
+    private static final Set<String> AEAD_CIPHERS = Set.of("aes128-gcm@openssh.com", "chacha20-poly1305@openssh.com");
+    /** candidates for the ciphers that are not AEAD, SHA-512 is often the faster one on 64-bit CPUs */
+    private static final List<String> MACS = List.of("hmac-sha2-256-etm@openssh.com", "hmac-sha2-512-etm@openssh.com");
+    public static final String DEFAULT_PROFILE = CIPHERS.get(0);
+
+    /**
+     * Half random bytes like an already deflated JAR, half log lines like the streams that follow a deploy,
+     * so compression only wins when it pays off for both. Big enough to leave the TCP slow start behind on
+     * a fast link, small enough for a slow one.
+     */
+    private static final int PROBE_BYTES = 4 * 1024 * 1024;
+    /** sent before the clock starts, so the first profile does not pay for the JIT and the TCP ramp up */
+    private static final int WARM_UP_BYTES = 512 * 1024;
+    private static final double COMPRESSION_MARGIN = 1.1;
+
+    private TransportTuning() {
+    }
+
+    /**
+     * @return {@link #AUTO} followed by every profile, for the manual override
+     */
+    public static List<String> profiles() {
+        List<String> profiles = new ArrayList<>();
+        profiles.add(AUTO);
+        for (String profile : uncompressedProfiles()) {
+            profiles.add(profile);
+            profiles.add(profile + ZLIB);
+        }
+        return profiles;
+    }
+
+    /**
+     * Every cipher, the ones that are not AEAD with each MAC.
+     */
+    private static List<String> uncompressedProfiles() {
+        List<String> profiles = new ArrayList<>();
+        for (String cipher : CIPHERS) {
+            if (AEAD_CIPHERS.contains(cipher)) {
+                profiles.add(cipher);
+            } else {
+                for (String mac : MACS) {
+                    profiles.add(cipher + MAC_SEPARATOR + mac);
+                }
+            }
+        }
+        return profiles;
+    }
+
+    static Config config(String profile) {
+        String algorithms = profile == null || profile.isEmpty() || AUTO.equals(profile)
+                ? DEFAULT_PROFILE : profile.replace(ZLIB, "");
+        boolean compression = profile != null && profile.endsWith(ZLIB);
+        int separator = algorithms.indexOf(MAC_SEPARATOR);
+        String cipher = separator < 0 ? algorithms : algorithms.substring(0, separator);
+        // profiles learned before the MAC was measured have none
+        String mac = separator < 0 ? MACS.get(0) : algorithms.substring(separator + 1);
+
+        DefaultConfig config = new DefaultConfig();
+        List<Factory.Named<Cipher>> ciphers = new ArrayList<>(config.getCipherFactories());
+        ciphers.sort(Comparator.comparing(factory -> !factory.getName().equals(cipher)));
+        config.setCipherFactories(ciphers);
+
+        List<Factory.Named<MAC>> macs = new ArrayList<>(config.getMACFactories());
+        macs.sort(Comparator.comparing(factory -> !factory.getName().equals(mac)));
+        config.setMACFactories(macs);
+
+        List<Factory.Named<Compression>> compressions = new ArrayList<>();
+        if (compression) {
+            compressions.add(new DelayedZlibCompression.Factory());
+            compressions.add(new ZlibCompression.Factory());
+        }
+        compressions.add(new NoneCompression.Factory());
+        config.setCompressionFactories(compressions);
+        return config;
+    }
+
+    /**
+     * Send the probe over a fresh connection per profile: every cipher and MAC without compression, then
+     * the fastest of them with compression. Profiles the server rejects are left out.
+     *
+     * @return bytes per second of each measured profile, best first. Compression costs CPU on both
+     * ends and is only ranked first when it is clearly faster.
+     */
+    public static Map<String, Long> probe(String host, int port, String user, String password) {
+        byte[] data = probeData();
+
+        Map<String, Long> results = new LinkedHashMap<>();
+        for (String profile : uncompressedProfiles()) {
+            measure(host, port, user, password, profile, data, results);
+        }
+        String fastest = fastest(results);
+        if (fastest != null) {
+            measure(host, port, user, password, fastest + ZLIB, data, results);
+        }
+
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        results.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<String, Long> entry) -> score(entry)).reversed())
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private static byte[] probeData() {
+        Random random = new Random();
+        byte[] data = new byte[PROBE_BYTES];
+        random.nextBytes(data);
+        StringBuilder log = new StringBuilder(PROBE_BYTES / 2 + 256);
+        for (int i = 0; log.length() < PROBE_BYTES / 2; i++) {
+            log.append(String.format("2025-10-15T15:%02d:%02d.%03d+08:00  INFO %d --- [nio-8080-exec-%d] "
+                            + "c.e.d.web.OrderController                : Handled order %d for user %d in %d ms%n",
+                    i / 60_000 % 60, i / 1000 % 60, i % 1000, 4242, random.nextInt(10) + 1,
+                    random.nextInt(1_000_000), random.nextInt(10_000), random.nextInt(500)));
+        }
+        byte[] text = log.toString().getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(text, 0, data, PROBE_BYTES / 2, PROBE_BYTES / 2);
+        return data;
+    }
+
+    private static void measure(String host, int port, String user, String password, String profile,
+                                byte[] data, Map<String, Long> results) {
+        SSHClient client;
+        try {
+            client = ConnectionUtils.open(host, port, user, password, profile);
+        } catch (IOException e) {
+            return;
+        }
+        try (Session session = client.startSession();
+             Session.Command command = session.exec(CommandTemplate.DISCARD_INPUT_UNIX.render())) {
+            OutputStream out = command.getOutputStream();
+            out.write(data, 0, WARM_UP_BYTES);
+            out.flush();
+            long start = System.nanoTime();
+            out.write(data, WARM_UP_BYTES, data.length - WARM_UP_BYTES);
+            // EOF, the command exits once the server has read everything
+            out.close();
+            command.join(30, TimeUnit.SECONDS);
+            long nanos = System.nanoTime() - start;
+            if (Integer.valueOf(0).equals(command.getExitStatus())) {
+                results.put(profile, (data.length - WARM_UP_BYTES) * 1_000_000_000L / Math.max(1, nanos));
+            }
+        } catch (IOException ignored) {
+        } finally {
+            ConnectionUtils.closeQuietly(client);
+        }
+    }
+
+    private static double score(Map.Entry<String, Long> result) {
+        return result.getKey().endsWith(ZLIB) ? result.getValue() / COMPRESSION_MARGIN : result.getValue();
+    }
+
+    private static String fastest(Map<String, Long> results) {
+        return results.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null);
+    }
+}
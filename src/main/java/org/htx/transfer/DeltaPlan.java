@@ -0,0 +1,206 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.*;
+
+/**
+ * Instructions that rebuild a new file from the blocks of an old one plus literal data.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/9 10:00
+ * @Version 1.0
+ */
+public class DeltaPlan {
+
+    /**
+     * A copy of {@code length} bytes from the base file, or of literal data from the literal file.
+     */
+    public static final class Op {
+        final boolean copy;
+        final long offset;
+        long length;
+
+        Op(boolean copy, long offset, long length) {
+            this.copy = copy;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final int blockSize;
+    private final List<Op> ops = new ArrayList<>();
+    private long literalBytes;
+    private long reusedBytes;
+
+    private DeltaPlan(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Compare {@code target} against the signature of the base file. Bytes that cannot be
+     * matched to a base block are appended to {@code literalOut}.
+     */
+    public static DeltaPlan encode(File target, DeltaSignature base, File literalOut) throws IOException {
+        int bs = base.getBlockSize();
+        DeltaPlan plan = new DeltaPlan(bs);
+
+        // only full-size blocks can match while rolling, the short tail block is checked at the end
+        Map<Integer, List<Integer>> index = new HashMap<>();
+        for (int i = 0; i < base.getBlockCount(); i++) {
+            if (base.getBlockLength(i) == bs) {
+                index.computeIfAbsent(base.getWeak(i), k -> new ArrayList<>(1)).add(i);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.READ);
+             OutputStream literal = new BufferedOutputStream(new FileOutputStream(literalOut), 64 * 1024)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large for delta upload: " + target);
+            }
+            int n = (int) size;
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, n);
+            MessageDigest md5 = Digests.md5();
+            RollingChecksum rolling = new RollingChecksum();
+
+            int pos = 0;
+            int literalStart = 0;
+            boolean primed = false;
+            while (pos + bs <= n) {
+                if (!primed) {
+                    rolling.init(buf, pos, bs);
+                    primed = true;
+                }
+                List<Integer> candidates = index.get(rolling.value());
+                int block = candidates == null ? -1 : findStrong(buf, pos, bs, candidates, base, md5);
+                if (block >= 0) {
+                    plan.literal(buf, literalStart, pos - literalStart, literal);
+                    plan.copy(block, bs);
+                    pos += bs;
+                    literalStart = pos;
+                    primed = false;
+                    continue;
+                }
+                if (pos + bs < n) {
+                    rolling.roll(buf.get(pos), buf.get(pos + bs));
+                }
+                pos++;
+            }
+
+            int last = base.getBlockCount() - 1;
+            int tailLength = last >= 0 ? base.getBlockLength(last) : bs;
+            if (tailLength < bs && n - tailLength >= literalStart
+                    && findStrong(buf, n - tailLength, tailLength, List.of(last), base, md5) >= 0) {
+                plan.literal(buf, literalStart, n - tailLength - literalStart, literal);
+                plan.copy(last, tailLength);
+            } else {
+                plan.literal(buf, literalStart, n - literalStart, literal);
+            }
+        }
+        return plan;
+    }
+
+    private static int findStrong(ByteBuffer window, int pos, int len, List<Integer> candidates,
+                                  DeltaSignature base, MessageDigest md5) {
+        ByteBuffer slice = window.duplicate();
+        slice.limit(pos + len).position(pos);
+        md5.update(slice);
+        byte[] digest = md5.digest();
+        for (int block : candidates) {
+            if (base.getBlockLength(block) == len && MessageDigest.isEqual(digest, base.getStrong(block))) {
+                return block;
+            }
+        }
+        return -1;
+    }
+
+    private void copy(int block, int length) {
+        long offset = (long) block * blockSize;
+        Op prev = ops.isEmpty() ? null : ops.get(ops.size() - 1);
+        if (prev != null && prev.copy && prev.offset + prev.length == offset) {
+            prev.length += length;
+        } else {
+            ops.add(new Op(true, offset, length));
+        }
+        reusedBytes += length;
+    }
+
+    private void literal(ByteBuffer buf, int offset, int length, OutputStream out) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        byte[] chunk = new byte[Math.min(length, 64 * 1024)];
+        for (int done = 0; done < length; ) {
+            int n = Math.min(chunk.length, length - done);
+            buf.get(offset + done, chunk, 0, n);
+            out.write(chunk, 0, n);
+            done += n;
+        }
+        ops.add(new Op(false, literalBytes, length));
+        literalBytes += length;
+    }
+
+    /**
+     * Shell script that writes the rebuilt file to {@code outPath} on the server.
+     */
+    public String toScript(String basePath, String literalPath, String outPath) {
+        StringBuilder sb = new StringBuilder("set -e\n{\n:\n");
+        for (Op op : ops) {
+            if (op.copy) {
+                long count = (op.length + blockSize - 1) / blockSize;
+                sb.append("dd if=\"").append(basePath).append("\" bs=").append(blockSize)
+                        .append(" skip=").append(op.offset / blockSize)
+                        .append(" count=").append(count).append(" 2>/dev/null\n");
+            } else {
+                sb.append("tail -c +").append(op.offset + 1).append(" \"").append(literalPath)
+                        .append("\" | head -c ").append(op.length).append('\n');
+            }
+        }
+        sb.append("} > \"").append(outPath).append("\"\n");
+        return sb.toString();
+    }
+
+    List<Op> getOps() {
+        return Collections.unmodifiableList(ops);
+    }
+
+    public long getLiteralBytes() {
+        return literalBytes;
+    }
+
+    public long getReusedBytes() {
+        return reusedBytes;
+    }
+
+    public int getOpCount() {
+        return ops.size();
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import java.io.*;
+import java.security.MessageDigest;
+
+/**
+ * Per-block weak/strong checksums of a file, used as the base of a delta upload.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/9 10:00
+ * @Version 1.0
+ */
+public class DeltaSignature {
+
+    private static final int MAGIC = 0x4A504453;
+
+    private final long length;
+    private final String sha256;
+    private final int blockSize;
+    private final int[] weak;
+    private final byte[][] strong;
+
+    public DeltaSignature(long length, String sha256, int blockSize, int[] weak, byte[][] strong) {
+        this.length = length;
+        this.sha256 = sha256;
+        this.blockSize = blockSize;
+        this.weak = weak;
+        this.strong = strong;
+    }
+
+    /**
+     * rsync heuristic: roughly sqrt(length), rounded down to 1 KB and kept within 2 KB .. 64 KB.
+     */
+    public static int blockSizeFor(long length) {
+        int size = (int) Math.sqrt((double) length) & ~1023;
+        return Math.max(2048, Math.min(64 * 1024, size));
+    }
+
+    public static DeltaSignature compute(File file) throws IOException {
+        long length = file.length();
+        int blockSize = blockSizeFor(length);
+        int blocks = (int) ((length + blockSize - 1) / blockSize);
+        int[] weak = new int[blocks];
+        byte[][] strong = new byte[blocks][];
+
+        MessageDigest md5 = Digests.md5();
+        MessageDigest sha256 = Digests.sha256();
+        RollingChecksum rolling = new RollingChecksum();
+        byte[] buf = new byte[blockSize];
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), 64 * 1024)) {
+            for (int i = 0; i < blocks; i++) {
+                int len = in.readNBytes(buf, 0, blockSize);
+                sha256.update(buf, 0, len);
+                rolling.init(buf, 0, len);
+                weak[i] = rolling.value();
+                md5.update(buf, 0, len);
+                strong[i] = md5.digest();
+            }
+        }
+        return new DeltaSignature(length, Digests.hex(sha256.digest()), blockSize, weak, strong);
+    }
+
+    public static DeltaSignature read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a signature file: " + file);
+            }
+            long length = in.readLong();
+            String sha256 = in.readUTF();
+            int blockSize = in.readInt();
+            int blocks = in.readInt();
+            int[] weak = new int[blocks];
+            byte[][] strong = new byte[blocks][];
+            for (int i = 0; i < blocks; i++) {
+                weak[i] = in.readInt();
+                strong[i] = in.readNBytes(in.readUnsignedByte());
+            }
+            return new DeltaSignature(length, sha256, blockSize, weak, strong);
+        }
+    }
+
+    public void write(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(length);
+            out.writeUTF(sha256);
+            out.writeInt(blockSize);
+            out.writeInt(weak.length);
+            for (int i = 0; i < weak.length; i++) {
+                out.writeInt(weak[i]);
+                out.writeByte(strong[i].length);
+                out.write(strong[i]);
+            }
+        }
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getBlockCount() {
+        return weak.length;
+    }
+
+    public int getWeak(int block) {
+        return weak[block];
+    }
+
+    public byte[] getStrong(int block) {
+        return strong[block];
+    }
+
+    public int getBlockLength(int block) {
+        return (int) Math.min(blockSize, length - (long) block * blockSize);
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import net.schmizz.sshj.sftp.SFTPClient;
+import org.htx.model.CommandPipeline;
+import org.htx.model.CommandTemplate;
+import org.htx.service.ConnectionUtils;
+import org.htx.service.SftpUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * rsync style upload: only blocks missing from the remote JAR are sent, the server splices
+ * the new JAR together from its old copy and the literal data.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/9 10:00
+ * @Version 1.0
+ */
+public class DeltaTransfer {
+
+    private final ConnectionUtils connection;
+    private final SFTPClient sftp;
+    private final String signatureKey;
+
+    public DeltaTransfer(ConnectionUtils connection, SFTPClient sftp, String signatureKey) {
+        this.connection = connection;
+        this.sftp = sftp;
+        this.signatureKey = signatureKey;
+    }
+
+    /**
+     * Upload {@code local} to {@code remote}. Falls back to a full upload when there is no
+     * signature for the remote file or the remote file no longer matches it.
+     */
+    public void upload(String local, String remote, TransferMonitor monitor) throws Exception {
+        File localFile = new File(local);
+        DeltaSignature base = SignatureStore.load(signatureKey);
+        if (base != null && !base.getSha256().equals(remoteSha256(remote))) {
+            base = null;
+        }
+
+        DeltaSignature target = DeltaSignature.compute(localFile);
+        if (base == null) {
+            String part = SftpUtil.tempPath(remote);
+            monitor.init(local, remote, localFile.length());
+            try (InputStream in = new FileInputStream(localFile)) {
+                SftpUtil.write(sftp, in, part, 0, true, monitor);
+            }
+            SftpUtil.publish(connection, localFile, part, remote);
+            monitor.end();
+            SignatureStore.save(signatureKey, target);
+            return;
+        }
+
+        String literalPath = remote + ".delta";
+        String scriptPath = remote + ".delta.sh";
+        String rebuiltPath = remote + ".delta.jar";
+        File literal = File.createTempFile("jarpilot-", ".delta");
+        try {
+            DeltaPlan plan = DeltaPlan.encode(localFile, base, literal);
+
+            monitor.init(local, remote, localFile.length());
+            monitor.reuse(plan.getReusedBytes());
+            try (InputStream in = new FileInputStream(literal)) {
+                SftpUtil.write(sftp, in, literalPath, 0, true, monitor);
+            }
+            byte[] script = plan.toScript(remote, literalPath, rebuiltPath).getBytes(StandardCharsets.UTF_8);
+            SftpUtil.write(sftp, new ByteArrayInputStream(script), scriptPath, 0, true, null);
+
+            List<CommandPipeline.StepResult> rebuilt = connection.exec(CommandPipeline.builder()
+                    .step(CommandTemplate.RUN_SCRIPT_UNIX, scriptPath)
+                    .step(CommandTemplate.SHA256_FILE_UNIX, rebuiltPath)
+                    .stopOnError()
+                    .build());
+            if (rebuilt.size() < 2 || !target.getSha256().equals(rebuilt.get(1).getOutput().trim())) {
+                connection.exec(CommandTemplate.DELETE_FILE_UNIX.render(rebuiltPath));
+                throw new IOException("Rebuilt " + remote + " does not match the local JAR");
+            }
+            connection.exec(CommandTemplate.MOVE_FILE_UNIX.render(rebuiltPath, remote));
+            SignatureStore.save(signatureKey, target);
+            monitor.end();
+        } finally {
+            literal.delete();
+            try {
+                connection.exec(CommandPipeline.builder()
+                        .step(CommandTemplate.DELETE_FILE_UNIX, literalPath)
+                        .step(CommandTemplate.DELETE_FILE_UNIX, scriptPath)
+                        .build());
+            } catch (Exception ignored) {}
+        }
+    }
+
+    private String remoteSha256(String remote) {
+        try {
+            return connection.exec(CommandTemplate.SHA256_FILE_UNIX.render(remote)).trim();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+}
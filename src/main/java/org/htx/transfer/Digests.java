@@ -0,0 +1,125 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Message digest helpers shared by the transfer strategies.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/9 10:00
+ * @Version 1.0
+ */
+public final class Digests {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** key = absolute path */
+    private static final Map<String, CachedDigest> SHA256_CACHE = new ConcurrentHashMap<>();
+
+    private static final class CachedDigest {
+        private final long length;
+        private final long modified;
+        private final String sha256;
+
+        private CachedDigest(long length, long modified, String sha256) {
+            this.length = length;
+            this.modified = modified;
+            this.sha256 = sha256;
+        }
+    }
+
+    private Digests() {
+    }
+
+    public static MessageDigest md5() {
+        return getInstance("MD5");
+    }
+
+    public static MessageDigest sha256() {
+        return getInstance("SHA-256");
+    }
+
+    /**
+     * SHA-256 of a local file as lower-case hex, the same format {@code sha256sum} prints.
+     */
+    public static String sha256Hex(File file) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(file)) {
+            int len;
+            while ((len = in.read(buf)) != -1) {
+                digest.update(buf, 0, len);
+            }
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * Like {@link #sha256Hex(File)}, but remembered per path until the size or mtime of the file changes,
+     * so pressing Upload again does not re-hash a large JAR.
+     */
+    public static String cachedSha256Hex(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        long length = file.length();
+        long modified = file.lastModified();
+        CachedDigest cached = SHA256_CACHE.get(path);
+        if (cached != null && cached.length == length && cached.modified == modified) {
+            return cached.sha256;
+        }
+        String sha256 = sha256Hex(file);
+        SHA256_CACHE.put(path, new CachedDigest(length, modified, sha256));
+        return sha256;
+    }
+
+    public static String sha256Hex(String text) {
+        return hex(sha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static String hex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(out);
+    }
+
+    private static MessageDigest getInstance(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import org.htx.model.CommandTemplate;
+import org.htx.service.ConnectionPool;
+import org.htx.service.ConnectionUtils;
+import org.htx.service.SftpUtil;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes one JAR to many servers, at most {@code parallelism} at a time. In relay mode the JAR is
+ * uploaded to the first server only, and the others copy it from there with {@code scp}, which needs
+ * key based SSH between the servers and their host keys known to the first one; a server the relay
+ * cannot reach gets a direct upload instead.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/12 15:00
+ * @Version 1.0
+ */
+public class FanOutDeploy {
+
+    private static final String RELAY_SUFFIX = ".relay";
+    /** a relay copy gets this long plus a second per {@link #RELAY_MIN_BYTES_PER_SECOND} of the JAR */
+    private static final long RELAY_BASE_SECONDS = 30;
+    private static final long RELAY_MIN_BYTES_PER_SECOND = 1024 * 1024;
+    private static final long RELAY_GRACE_SECONDS = 15;
+
+    public enum Outcome {
+        UPLOADED("Uploaded"),
+        RELAYED("Relayed"),
+        UP_TO_DATE("Up to date"),
+        FAILED("Failed");
+
+        private final String label;
+
+        Outcome(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * Called from the deploy threads.
+     */
+    public interface Listener {
+
+        /**
+         * @return the monitor of the upload to {@code target}
+         */
+        TransferMonitor started(DeployTarget target);
+
+        /**
+         * @param error null unless {@code outcome} is {@link Outcome#FAILED}
+         */
+        void finished(DeployTarget target, Outcome outcome, Exception error);
+    }
+
+    private final ConnectionPool pool;
+    private final String local;
+    private final int parallelism;
+    private final boolean relay;
+
+    /**
+     * @param pool pool the connections are borrowed from, null to open connections of its own
+     */
+    public FanOutDeploy(ConnectionPool pool, String local, int parallelism, boolean relay) {
+        this.pool = pool;
+        this.local = local;
+        this.parallelism = Math.max(1, parallelism);
+        this.relay = relay;
+    }
+
+    /**
+     * Deploy to all {@code targets} and wait until every one has finished.
+     */
+    public void deploy(List<DeployTarget> targets, Listener listener) throws InterruptedException {
+        if (targets.isEmpty()) {
+            return;
+        }
+        List<DeployTarget> rest = targets;
+        ConnectionUtils seed = null;
+        DeployTarget seedTarget = null;
+        if (relay && targets.size() > 1) {
+            seedTarget = targets.get(0);
+            rest = targets.subList(1, targets.size());
+            seed = new ConnectionUtils(pool);
+            if (deployTo(seedTarget, seed, null, null, listener) == Outcome.FAILED) {
+                // every other server gets a direct upload
+                seed.close();
+                seed = null;
+            }
+        }
+
+        ConnectionUtils relaySource = seed;
+        DeployTarget relayTarget = seedTarget;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, rest.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (DeployTarget target : rest) {
+                futures.add(executor.submit(() -> {
+                    ConnectionUtils connection = new ConnectionUtils(pool);
+                    try {
+                        deployTo(target, connection, relaySource, relayTarget, listener);
+                    } finally {
+                        connection.close();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ignored) {
+                    // reported to the listener by deployTo
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            if (seed != null) {
+                seed.close();
+            }
+        }
+    }
+
+    /**
+     * Deploy to one target, copying from {@code relaySource} when it is given.
+     */
+    private Outcome deployTo(DeployTarget target, ConnectionUtils connection,
+                             ConnectionUtils relaySource, DeployTarget relayTarget, Listener listener) {
+        // only the global cap applies to a deploy
+        TransferMonitor monitor = ThrottledMonitor.of(listener.started(target), 0);
+        String remote = target.getRemotePath();
+        Outcome outcome;
+        try {
+            connection.connect(target.getHost(), target.getPort(), target.getUser(), target.getPassword());
+            if (SftpUtil.isIdentical(connection, local, remote)) {
+                outcome = Outcome.UP_TO_DATE;
+            } else {
+                try {
+                    connection.exec(CommandTemplate.MKDIRS_UNIX.render(new File(remote).getParent()));
+                } catch (Exception ignored) {}
+                if (relaySource != null && relayCopy(relaySource, relayTarget, connection, target, monitor)) {
+                    outcome = Outcome.RELAYED;
+                } else {
+                    SftpUtil.upload(connection, local, remote, monitor);
+                    outcome = Outcome.UPLOADED;
+                }
+                try {
+                    SftpUtil.markUploaded(connection, local, remote);
+                } catch (Exception ignored) {}
+            }
+        } catch (Exception e) {
+            listener.finished(target, Outcome.FAILED, e);
+            return Outcome.FAILED;
+        }
+        listener.finished(target, outcome, null);
+        return outcome;
+    }
+
+    /**
+     * Have the seed server copy its JAR to a temp file on {@code target}, then publish it there.
+     *
+     * @return false when the seed cannot reach the target, the caller uploads directly then
+     */
+    private boolean relayCopy(ConnectionUtils seed, DeployTarget seedTarget, ConnectionUtils connection,
+                              DeployTarget target, TransferMonitor monitor) throws Exception {
+        File localFile = new File(local);
+        // not the temp file of a direct upload, which may follow while a late copy is still writing
+        String temp = SftpUtil.tempPath(target.getRemotePath()) + RELAY_SUFFIX;
+        monitor.init(seedTarget.getHost() + ":" + seedTarget.getRemotePath(), target.getRemotePath(), localFile.length());
+        long seconds = RELAY_BASE_SECONDS + localFile.length() / RELAY_MIN_BYTES_PER_SECOND;
+        try {
+            // the seed kills the copy itself at the deadline, before the command here gives up
+            seed.execAsync(CommandTemplate.RELAY_COPY_UNIX.render(seconds, target.getPort(), seedTarget.getRemotePath(),
+                    target.getUser(), target.getHost(), temp), seconds + RELAY_GRACE_SECONDS, TimeUnit.SECONDS).get();
+        } catch (ExecutionException e) {
+            try {
+                connection.exec(CommandTemplate.DELETE_FILE_UNIX.render(temp));
+            } catch (Exception ignored) {}
+            return false;
+        }
+        monitor.reuse(localFile.length());
+        SftpUtil.publish(connection, localFile, temp, target.getRemotePath());
+        monitor.end();
+        return true;
+    }
+}
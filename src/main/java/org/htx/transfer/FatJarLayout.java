@@ -0,0 +1,187 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Byte layout of the nested libraries inside a Spring Boot fat JAR, read from its central directory.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/10 14:00
+ * @Version 1.0
+ */
+public class FatJarLayout {
+
+    private static final String LIB_PREFIX = "BOOT-INF/lib/";
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+
+    /**
+     * A nested library, identified by the SHA-256 of its raw entry data.
+     */
+    public static final class Library {
+        private final String name;
+        private final long offset;
+        private final long length;
+        private String sha256;
+
+        Library(String name, long offset, long length) {
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** Offset of the entry data in the fat JAR. */
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+    }
+
+    private final long length;
+    private final List<Library> libraries;
+
+    private FatJarLayout(long length, List<Library> libraries) {
+        this.length = length;
+        this.libraries = libraries;
+    }
+
+    /**
+     * Read the central directory of {@code jar} and hash every {@code BOOT-INF/lib/*.jar} entry.
+     */
+    public static FatJarLayout read(File jar) throws IOException {
+        try (FileChannel channel = FileChannel.open(jar.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer eocd = findEndOfCentralDirectory(channel, size);
+            int entries = eocd.getShort(10) & 0xffff;
+            long cenSize = eocd.getInt(12) & 0xffffffffL;
+            long cenOffset = eocd.getInt(16) & 0xffffffffL;
+            if (entries == 0xffff || cenOffset == 0xffffffffL) {
+                throw new IOException("ZIP64 archives are not supported: " + jar);
+            }
+
+            ByteBuffer cen = read(channel, cenOffset, (int) cenSize);
+            List<Library> libraries = new ArrayList<>();
+            int pos = 0;
+            for (int i = 0; i < entries; i++) {
+                if (cen.getInt(pos) != CEN_SIGNATURE) {
+                    throw new IOException("Corrupt central directory in " + jar);
+                }
+                long compressedSize = cen.getInt(pos + 20) & 0xffffffffL;
+                int nameLength = cen.getShort(pos + 28) & 0xffff;
+                int extraLength = cen.getShort(pos + 30) & 0xffff;
+                int commentLength = cen.getShort(pos + 32) & 0xffff;
+                long headerOffset = cen.getInt(pos + 42) & 0xffffffffL;
+                byte[] nameBytes = new byte[nameLength];
+                cen.get(pos + 46, nameBytes);
+                String name = new String(nameBytes, StandardCharsets.UTF_8);
+                pos += 46 + nameLength + extraLength + commentLength;
+
+                if (name.startsWith(LIB_PREFIX) && name.endsWith(".jar") && compressedSize > 0) {
+                    ByteBuffer loc = read(channel, headerOffset, 30);
+                    if (loc.getInt(0) != LOC_SIGNATURE) {
+                        throw new IOException("Corrupt local header for " + name + " in " + jar);
+                    }
+                    long dataOffset = headerOffset + 30 + (loc.getShort(26) & 0xffff) + (loc.getShort(28) & 0xffff);
+                    libraries.add(new Library(name, dataOffset, compressedSize));
+                }
+            }
+            libraries.sort(Comparator.comparingLong(Library::getOffset));
+
+            MessageDigest sha256 = Digests.sha256();
+            ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+            for (Library library : libraries) {
+                long done = 0;
+                while (done < library.length) {
+                    buf.clear().limit((int) Math.min(buf.capacity(), library.length - done));
+                    int n = channel.read(buf, library.offset + done);
+                    if (n < 0) {
+                        throw new IOException("Unexpected end of " + jar);
+                    }
+                    sha256.update(buf.flip());
+                    done += n;
+                }
+                library.sha256 = Digests.hex(sha256.digest());
+            }
+            return new FatJarLayout(size, libraries);
+        }
+    }
+
+    private static ByteBuffer findEndOfCentralDirectory(FileChannel channel, long size) throws IOException {
+        int tail = (int) Math.min(size, 22 + 0xffff);
+        ByteBuffer buf = read(channel, size - tail, tail);
+        for (int i = tail - 22; i >= 0; i--) {
+            if (buf.getInt(i) == EOCD_SIGNATURE) {
+                return buf.slice(i, 22).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        throw new IOException("Not a JAR file, end of central directory not found");
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        return buf.flip();
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    /** Nested libraries in file order. */
+    public List<Library> getLibraries() {
+        return libraries;
+    }
+
+    public long getLibraryBytes() {
+        return libraries.stream().mapToLong(Library::getLength).sum();
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import net.schmizz.sshj.sftp.SFTPClient;
+import org.htx.model.CommandPipeline;
+import org.htx.model.CommandTemplate;
+import org.htx.service.ConnectionUtils;
+import org.htx.service.SftpUtil;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Upload of a Spring Boot fat JAR through a content-addressed library store on the server.
+ * Nested libraries already in {@code ~/.jarpilot/cas/<sha256>.jar} are not sent again, the rest
+ * of the JAR is sent as a skeleton and the server concatenates both back into the original bytes.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/10 14:00
+ * @Version 1.0
+ */
+public class LibraryCacheTransfer {
+
+    /** Library store, relative to the login directory of the SFTP channel. */
+    private static final String STORE = ".jarpilot/cas";
+
+    private final ConnectionUtils connection;
+    private final SFTPClient sftp;
+
+    public LibraryCacheTransfer(ConnectionUtils connection, SFTPClient sftp) {
+        this.connection = connection;
+        this.sftp = sftp;
+    }
+
+    public void upload(String local, String remote, TransferMonitor monitor) throws Exception {
+        File localFile = new File(local);
+        FatJarLayout layout = FatJarLayout.read(localFile);
+        String sha256 = Digests.cachedSha256Hex(localFile);
+
+        Map<String, FatJarLayout.Library> unique = new LinkedHashMap<>();
+        for (FatJarLayout.Library library : layout.getLibraries()) {
+            unique.putIfAbsent(library.getSha256(), library);
+        }
+        Set<String> missing = missingLibraries(unique.keySet());
+
+        monitor.init(local, remote, layout.getLength());
+        long sent = missing.stream().mapToLong(sha -> unique.get(sha).getLength()).sum();
+        monitor.reuse(layout.getLibraryBytes() - sent);
+
+        String skeletonPath = remote + ".skeleton";
+        String scriptPath = remote + ".skeleton.sh";
+        String assembledPath = remote + ".assembled.jar";
+        File skeleton = File.createTempFile("jarpilot-", ".skeleton");
+        try (FileChannel channel = FileChannel.open(localFile.toPath(), StandardOpenOption.READ)) {
+            for (String sha : missing) {
+                FatJarLayout.Library library = unique.get(sha);
+                SftpUtil.write(sftp, new RangeInputStream(channel, library.getOffset(), library.getLength()),
+                        STORE + "/" + sha + ".jar.part", 0, true, monitor);
+            }
+            if (!missing.isEmpty()) {
+                connection.exec(CommandTemplate.COMMIT_LIBRARIES_UNIX.render(String.join(" ", missing)));
+            }
+
+            StringBuilder script = new StringBuilder("set -e\n{\n:\n");
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(skeleton), 64 * 1024)) {
+                long skeletonOffset = 0;
+                long pos = 0;
+                for (FatJarLayout.Library library : layout.getLibraries()) {
+                    skeletonOffset = appendSkeleton(channel, pos, library.getOffset() - pos,
+                            out, skeletonOffset, skeletonPath, script);
+                    script.append("cat \"$HOME/").append(STORE).append('/')
+                            .append(library.getSha256()).append(".jar\"\n");
+                    pos = library.getOffset() + library.getLength();
+                }
+                appendSkeleton(channel, pos, layout.getLength() - pos, out, skeletonOffset, skeletonPath, script);
+            }
+            script.append("} > \"").append(assembledPath).append("\"\n");
+
+            try (InputStream in = new FileInputStream(skeleton)) {
+                SftpUtil.write(sftp, in, skeletonPath, 0, true, monitor);
+            }
+            SftpUtil.write(sftp, new ByteArrayInputStream(script.toString().getBytes(StandardCharsets.UTF_8)),
+                    scriptPath, 0, true, null);
+        } finally {
+            skeleton.delete();
+        }
+
+        try {
+            List<CommandPipeline.StepResult> assembled = connection.exec(CommandPipeline.builder()
+                    .step(CommandTemplate.RUN_SCRIPT_UNIX, scriptPath)
+                    .step(CommandTemplate.SHA256_FILE_UNIX, assembledPath)
+                    .stopOnError()
+                    .build());
+            if (assembled.size() < 2 || !sha256.equals(assembled.get(1).getOutput().trim())) {
+                connection.exec(CommandTemplate.DELETE_FILE_UNIX.render(assembledPath));
+                throw new IOException("Assembled " + remote + " does not match the local JAR");
+            }
+            connection.exec(CommandTemplate.MOVE_FILE_UNIX.render(assembledPath, remote));
+            monitor.end();
+        } finally {
+            try {
+                connection.exec(CommandPipeline.builder()
+                        .step(CommandTemplate.DELETE_FILE_UNIX, skeletonPath)
+                        .step(CommandTemplate.DELETE_FILE_UNIX, scriptPath)
+                        .build());
+            } catch (Exception ignored) {}
+        }
+    }
+
+    /**
+     * Copy a non-library range of the JAR into the skeleton and add the script line that restores it.
+     *
+     * @return the new skeleton length
+     */
+    private static long appendSkeleton(FileChannel channel, long offset, long length, OutputStream skeleton,
+                                       long skeletonOffset, String skeletonPath, StringBuilder script) throws IOException {
+        if (length <= 0) {
+            return skeletonOffset;
+        }
+        new RangeInputStream(channel, offset, length).transferTo(skeleton);
+        script.append("tail -c +").append(skeletonOffset + 1).append(" \"").append(skeletonPath)
+                .append("\" | head -c ").append(length).append('\n');
+        return skeletonOffset + length;
+    }
+
+    private Set<String> missingLibraries(Collection<String> hashes) throws Exception {
+        Set<String> missing = new LinkedHashSet<>();
+        if (hashes.isEmpty()) {
+            return missing;
+        }
+        String output = connection.exec(CommandTemplate.MISSING_LIBRARIES_UNIX.render(String.join(" ", hashes)));
+        for (String line : output.split("\\R")) {
+            String hash = line.trim();
+            if (hashes.contains(hash)) {
+                missing.add(hash);
+            }
+        }
+        return missing;
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import net.schmizz.sshj.sftp.FileAttributes;
+import net.schmizz.sshj.sftp.SFTPClient;
+import org.htx.model.CommandTemplate;
+import org.htx.service.ConnectionUtils;
+import org.htx.service.SftpUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Splits a file into chunks and writes them at their offsets over several SFTP channels of one connection,
+ * so a high-latency link is not limited by the window of a single channel. Written chunks are recorded
+ * in an {@link UploadJournal}, and a retry after a dropped link only sends the chunks that the server
+ * cannot confirm. Chunks go to a temp file next to the target, which replaces the target only once complete.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/11 09:30
+ * @Version 1.0
+ */
+public class ParallelTransfer {
+
+    private final ConnectionUtils connection;
+    private final int channels;
+    private final int chunkSize;
+
+    public ParallelTransfer(ConnectionUtils connection, int channels, int chunkSize) {
+        this.connection = connection;
+        this.channels = Math.max(1, channels);
+        this.chunkSize = Math.max(64 * 1024, chunkSize);
+    }
+
+    /**
+     * @param monitor counts the bytes of all channels at once, so {@link TransferMonitor#count} has to be thread-safe;
+     *                a throttled monitor then only holds back the channel that writes
+     */
+    public void upload(String local, String remote, UploadJournal journal, TransferMonitor monitor) throws Exception {
+        File localFile = new File(local);
+        long length = localFile.length();
+        int chunks = (int) Math.max(1, (length + chunkSize - 1) / chunkSize);
+        String part = SftpUtil.tempPath(remote);
+
+        Map<Integer, String> verified;
+        try (SFTPClient first = connection.newSFTPClient()) {
+            verified = verifiedChunks(first, localFile, part, journal);
+            journal.reset(localFile, chunkSize);
+            if (verified.isEmpty()) {
+                SftpUtil.write(first, new ByteArrayInputStream(new byte[0]), part, 0, true, null);
+            } else {
+                verified.forEach(journal::confirm);
+            }
+        }
+
+        List<Integer> pending = new ArrayList<>();
+        long resumed = 0;
+        for (int i = 0; i < chunks; i++) {
+            if (verified.containsKey(i)) {
+                resumed += chunkLength(i, length);
+            } else {
+                pending.add(i);
+            }
+        }
+
+        monitor.init(local, remote, length);
+        if (resumed > 0) {
+            monitor.reuse(resumed);
+        }
+        if (!pending.isEmpty()) {
+            writeChunks(localFile, part, pending, length, journal, monitor);
+        }
+        SftpUtil.publish(connection, localFile, part, remote);
+        monitor.end();
+    }
+
+    private void writeChunks(File localFile, String remote, List<Integer> pending, long length,
+                             UploadJournal journal, TransferMonitor monitor) throws Exception {
+        int workers = Math.min(channels, pending.size());
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try (FileChannel file = FileChannel.open(localFile.toPath(), StandardOpenOption.READ)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> {
+                    try (SFTPClient sftp = connection.newSFTPClient()) {
+                        int task;
+                        while ((task = next.getAndIncrement()) < pending.size()) {
+                            int chunk = pending.get(task);
+                            long offset = (long) chunk * chunkSize;
+                            String md5 = writeChunk(sftp, file, remote, offset, chunkLength(chunk, length), monitor);
+                            journal.confirm(chunk, md5);
+                        }
+                    } catch (Exception e) {
+                        // stop the other channels from picking up new chunks
+                        next.set(pending.size());
+                        throw e;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return MD5 of the written chunk, known to be on the server once the stream is closed
+     */
+    private String writeChunk(SFTPClient sftp, FileChannel file, String remote, long offset, long length,
+                              TransferMonitor monitor) throws Exception {
+        MessageDigest md5 = Digests.md5();
+        try (InputStream in = new DigestInputStream(new RangeInputStream(file, offset, length), md5)) {
+            SftpUtil.write(sftp, in, remote, offset, false, monitor);
+        }
+        return Digests.hex(md5.digest());
+    }
+
+    /**
+     * Chunks of the journal that the remote file still holds. Empty when the journal belongs to
+     * another file version or the remote file cannot be checked, so the upload starts over.
+     */
+    private Map<Integer, String> verifiedChunks(SFTPClient sftp, File localFile, String remote,
+                                                UploadJournal journal) {
+        Map<Integer, String> verified = new TreeMap<>();
+        if (!journal.matches(localFile, chunkSize)) {
+            return verified;
+        }
+        Map<Integer, String> confirmed = journal.confirmed();
+        if (confirmed.isEmpty()) {
+            return verified;
+        }
+        try {
+            FileAttributes attributes = sftp.statExistence(remote);
+            if (attributes == null || attributes.getSize() > localFile.length()) {
+                return verified;
+            }
+            String indexes = confirmed.keySet().stream().map(String::valueOf).collect(Collectors.joining(" "));
+            String output = connection.exec(CommandTemplate.CHUNK_MD5_UNIX.render(indexes, remote, chunkSize));
+            for (String line : output.split("\\R")) {
+                String[] parts = line.trim().split(" ");
+                if (parts.length == 2) {
+                    Integer chunk = Integer.valueOf(parts[0]);
+                    if (parts[1].equals(confirmed.get(chunk))) {
+                        verified.put(chunk, parts[1]);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            verified.clear();
+        }
+        return verified;
+    }
+
+    private long chunkLength(int chunk, long length) {
+        return Math.min(chunkSize, length - (long) chunk * chunkSize);
+    }
+}
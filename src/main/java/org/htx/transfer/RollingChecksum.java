@@ -0,0 +1,78 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * rsync style weak checksum that can slide over a buffer one byte at a time.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/9 10:00
+ * @Version 1.0
+ */
+public final class RollingChecksum {
+
+    private int a;
+    private int b;
+    private int length;
+
+    public void init(byte[] buf, int offset, int len) {
+        a = 0;
+        b = 0;
+        for (int i = 0; i < len; i++) {
+            int x = buf[offset + i] & 0xff;
+            a += x;
+            b += (len - i) * x;
+        }
+        length = len;
+    }
+
+    public void init(ByteBuffer buf, int offset, int len) {
+        a = 0;
+        b = 0;
+        for (int i = 0; i < len; i++) {
+            int x = buf.get(offset + i) & 0xff;
+            a += x;
+            b += (len - i) * x;
+        }
+        length = len;
+    }
+
+    /**
+     * Slide the window one byte forward.
+     *
+     * @param out the byte leaving the window
+     * @param in  the byte entering the window
+     */
+    public void roll(byte out, byte in) {
+        int o = out & 0xff;
+        a += (in & 0xff) - o;
+        b += a - length * o;
+    }
+
+    public int value() {
+        return (a & 0xffff) | (b << 16);
+    }
+}
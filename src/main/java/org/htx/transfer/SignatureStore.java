@@ -0,0 +1,77 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import com.intellij.openapi.application.PathManager;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Keeps the block signature of the last JAR uploaded to each remote path, so the next
+ * delta upload does not need to read the remote file block by block.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/9 10:00
+ * @Version 1.0
+ */
+public class SignatureStore {
+
+    public static String key(String user, String host, int port, String remotePath) {
+        return user + "@" + host + ":" + port + remotePath;
+    }
+
+    /**
+     * @return the stored signature, or null when there is none or it cannot be read
+     */
+    public static DeltaSignature load(String key) {
+        File file = file(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return DeltaSignature.read(file);
+        } catch (IOException e) {
+            file.delete();
+            return null;
+        }
+    }
+
+    public static void save(String key, DeltaSignature signature) throws IOException {
+        File file = file(key);
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        signature.write(file);
+    }
+
+    public static void remove(String key) {
+        file(key).delete();
+    }
+
+    private static File file(String key) {
+        return new File(PathManager.getSystemPath(), "jarpilot/signatures/" + Digests.sha256Hex(key) + ".sig");
+    }
+}
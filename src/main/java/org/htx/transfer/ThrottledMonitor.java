@@ -0,0 +1,78 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+/**
+ * Holds back an upload to the rate of its own bucket and the global one. Every written buffer passes
+ * through {@link #count}, so sleeping there paces the stream itself. Log streams and commands never
+ * take tokens, which leaves them the rest of the link while a capped upload runs.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/13 10:00
+ * @Version 1.0
+ */
+public class ThrottledMonitor implements TransferMonitor {
+
+    private final TransferMonitor target;
+    private final TokenBucket bucket;
+
+    private ThrottledMonitor(TransferMonitor target, TokenBucket bucket) {
+        this.target = target;
+        this.bucket = bucket;
+    }
+
+    /**
+     * @param bytesPerSecond cap of this transfer, 0 for none; the global cap applies either way
+     */
+    public static TransferMonitor of(TransferMonitor target, long bytesPerSecond) {
+        return new ThrottledMonitor(target, new TokenBucket(bytesPerSecond));
+    }
+
+    @Override
+    public void init(String src, String dest, long max) {
+        target.init(src, dest, max);
+    }
+
+    @Override
+    public boolean count(long count) {
+        try {
+            bucket.acquire(count);
+            TokenBucket.global().acquire(count);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return target.count(count);
+    }
+
+    @Override
+    public void reuse(long bytes) {
+        target.reuse(bytes);
+    }
+
+    @Override
+    public void end() {
+        target.end();
+    }
+}
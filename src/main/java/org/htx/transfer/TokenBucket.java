@@ -0,0 +1,83 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+/**
+ * Token bucket limiting a byte rate. A request larger than the bucket goes into debt and the
+ * caller sleeps until it is paid off, so the average rate holds for any buffer size.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/13 10:00
+ * @Version 1.0
+ */
+public class TokenBucket {
+
+    /** Shared by all uploads of the IDE, so several tabs together stay under the cap. */
+    private static final TokenBucket GLOBAL = new TokenBucket(0);
+
+    private long rate;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    /**
+     * @param bytesPerSecond 0 for unlimited
+     */
+    public TokenBucket(long bytesPerSecond) {
+        setRate(bytesPerSecond);
+    }
+
+    public static TokenBucket global() {
+        return GLOBAL;
+    }
+
+    public synchronized void setRate(long bytesPerSecond) {
+        rate = Math.max(0, bytesPerSecond);
+        tokens = Math.min(tokens, burst());
+    }
+
+    /**
+     * Take {@code bytes} from the bucket, sleeping as long as the rate requires.
+     */
+    public void acquire(long bytes) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            if (rate == 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            tokens = Math.min(burst(), tokens + (now - lastRefill) * rate / 1_000_000_000.0);
+            lastRefill = now;
+            tokens -= bytes;
+            waitNanos = tokens < 0 ? (long) (-tokens * 1_000_000_000.0 / rate) : 0;
+        }
+        if (waitNanos > 0) {
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+
+    /** A quarter second of traffic, at least one SFTP buffer. */
+    private double burst() {
+        return Math.max(32 * 1024, rate / 4.0);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free byte counters of one transfer. {@link #count} is called from the I/O threads for every
+ * buffer and only bumps a counter; rendering reads the counters on its own schedule.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/12 10:00
+ * @Version 1.0
+ */
+public class TransferProgress implements TransferMonitor {
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private volatile String source = "";
+    private volatile String destination = "";
+    private volatile long total;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    @Override
+    public void init(String src, String dest, long max) {
+        source = src;
+        destination = dest;
+        total = max;
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public boolean count(long count) {
+        sent.addAndGet(count);
+        return true;
+    }
+
+    @Override
+    public void reuse(long bytes) {
+        reused.addAndGet(bytes);
+    }
+
+    @Override
+    public void end() {
+        endNanos = System.nanoTime();
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getReused() {
+        return reused.get();
+    }
+
+    /** Logical size of the target file, sent and reused bytes together. */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getElapsedNanos() {
+        if (startNanos == 0) {
+            return 0;
+        }
+        return (endNanos != 0 ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    public TransferStats toStats(boolean success) {
+        return new TransferStats(source, destination, total, getSent(), getReused(), getElapsedNanos(), success);
+    }
+}
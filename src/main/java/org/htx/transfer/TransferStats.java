@@ -0,0 +1,91 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+/**
+ * Outcome of one finished transfer.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/12 10:00
+ * @Version 1.0
+ */
+public class TransferStats {
+
+    private final long finishedAt = System.currentTimeMillis();
+    private final String source;
+    private final String destination;
+    private final long total;
+    private final long sent;
+    private final long reused;
+    private final long elapsedNanos;
+    private final boolean success;
+
+    public TransferStats(String source, String destination, long total, long sent, long reused,
+                         long elapsedNanos, boolean success) {
+        this.source = source;
+        this.destination = destination;
+        this.total = total;
+        this.sent = sent;
+        this.reused = reused;
+        this.elapsedNanos = elapsedNanos;
+        this.success = success;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getReused() {
+        return reused;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /** Average bytes per second actually sent. */
+    public double getAverageThroughput() {
+        return elapsedNanos > 0 ? sent * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+}
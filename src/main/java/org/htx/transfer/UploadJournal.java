@@ -0,0 +1,81 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Chunks of an interrupted upload that are confirmed on the server, persisted with the tool window
+ * state so a retry only sends the rest. Public fields keep it serializable by the state component.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/11 15:00
+ * @Version 1.0
+ */
+public class UploadJournal {
+
+    public String localPath = "";
+    public long localLength;
+    public long localModified;
+    public int chunkSize;
+    /**
+     * key = chunk index, value = MD5 of the chunk as written. Replaced by a copy on every change and never
+     * changed in place, so the state component saving it on its own thread reads a complete map.
+     */
+    public volatile Map<Integer, String> chunks = new TreeMap<>();
+
+    /**
+     * @return whether this journal was written for the same local file content and chunking
+     */
+    boolean matches(File local, int chunkSize) {
+        return this.chunkSize == chunkSize
+                && localPath.equals(local.getAbsolutePath())
+                && localLength == local.length()
+                && localModified == local.lastModified();
+    }
+
+    synchronized void confirm(int chunk, String md5) {
+        Map<Integer, String> confirmed = new TreeMap<>(chunks);
+        confirmed.put(chunk, md5);
+        chunks = confirmed;
+    }
+
+    synchronized Map<Integer, String> confirmed() {
+        return new TreeMap<>(chunks);
+    }
+
+    /**
+     * Start a journal for {@code local}, forgetting all confirmed chunks.
+     */
+    synchronized void reset(File local, int chunkSize) {
+        // first, a journal saved halfway through never claims chunks for the new file
+        chunks = new TreeMap<>();
+        this.localPath = local.getAbsolutePath();
+        this.localLength = local.length();
+        this.localModified = local.lastModified();
+        this.chunkSize = chunkSize;
+    }
+}
@@ -30,12 +30,16 @@ import com.intellij.openapi.ui.ValidationInfo;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.ui.DocumentAdapter;
 import com.intellij.ui.JBColor;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.openapi.ui.ComboBox;
 import com.intellij.ui.components.JBPanel;
 import com.intellij.ui.components.JBPasswordField;
 import com.intellij.ui.components.JBTextField;
 import com.intellij.util.ui.JBUI;
 import groovyjarjarantlr4.v4.runtime.misc.NotNull;
 import org.htx.service.PersistentStateService;
+import org.htx.service.TransportTuning;
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import java.awt.*;
@@ -54,6 +58,10 @@ public class ConnectionForm {
     private final JBTextField userField = new JBTextField(10);
     private final JBPasswordField passwordField = new JBPasswordField();
     private final JBTextField portField = new JBTextField("22", 10);
+    private final JBCheckBox agentCheckBox = new JBCheckBox("Agent");
+    private final JSpinner keepAliveSpinner;
+    private final ComboBox<String> transportBox = new ComboBox<>(TransportTuning.profiles().toArray(new String[0]));
+    private final JBLabel healthLabel = new JBLabel();
 
     private final JButton connectButton = new JButton();
     private final JBPanel mainPanel;
@@ -75,6 +83,11 @@ public class ConnectionForm {
         userField.setText(windowState.user);
         passwordField.setText(windowState.passWord);
         portField.setText(String.valueOf(windowState.port));
+        agentCheckBox.setSelected(windowState.commandAgent);
+        agentCheckBox.setToolTipText("Run commands through one persistent remote shell");
+        keepAliveSpinner = new JSpinner(new SpinnerNumberModel(Math.max(0, windowState.keepAliveSeconds), 0, 3600, 5));
+        transportBox.setToolTipText("SSH cipher and compression, auto picks the fastest one measured for the host");
+        keepAliveSpinner.setToolTipText("Heartbeat interval in seconds, a dead connection is reconnected. 0 = off");
 
         passwordField.setColumns(20);
         connectButton.setIcon(AllIcons.Actions.Execute);
@@ -94,7 +107,13 @@ public class ConnectionForm {
         mainPanel.add(passwordField);
         mainPanel.add(new JLabel("Port:"));
         mainPanel.add(portField);
+        mainPanel.add(new JLabel("Transport:"));
+        mainPanel.add(transportBox);
+        mainPanel.add(new JLabel("Keepalive s:"));
+        mainPanel.add(keepAliveSpinner);
+        mainPanel.add(agentCheckBox);
         mainPanel.add(connectButton);
+        mainPanel.add(healthLabel);
 
         setupValidation(project);
 
@@ -227,6 +246,10 @@ public class ConnectionForm {
 
         portField.setEditable(false);
         portField.setEnabled(false);
+
+        agentCheckBox.setEnabled(false);
+        keepAliveSpinner.setEnabled(false);
+        transportBox.setEnabled(false);
     }
 
     public void enableAllFields() {
@@ -241,6 +264,10 @@ public class ConnectionForm {
 
         portField.setEditable(true);
         portField.setEnabled(true);
+
+        agentCheckBox.setEnabled(true);
+        keepAliveSpinner.setEnabled(true);
+        transportBox.setEnabled(true);
     }
 
     public JPanel getPanel() {
@@ -267,6 +294,34 @@ public class ConnectionForm {
         return Integer.parseInt(portField.getText());
     }
 
+    public boolean isAgentMode() {
+        return agentCheckBox.isSelected();
+    }
+
+    public int getKeepAliveSeconds() {
+        return (Integer) keepAliveSpinner.getValue();
+    }
+
+    /**
+     * @return a transport profile of {@link TransportTuning}, or {@link TransportTuning#AUTO}
+     */
+    public String getTransport() {
+        Object selected = transportBox.getSelectedItem();
+        return selected == null ? TransportTuning.AUTO : selected.toString();
+    }
+
+    public void setTransport(String profile) {
+        transportBox.setSelectedItem(TransportTuning.profiles().contains(profile) ? profile : TransportTuning.AUTO);
+    }
+
+    /**
+     * show the connection health next to the connect button, call on the EDT
+     */
+    public void showHealth(String text, String tooltip) {
+        healthLabel.setText(text);
+        healthLabel.setToolTipText(tooltip);
+    }
+
     public JButton getConnectButton() {
         return connectButton;
     }
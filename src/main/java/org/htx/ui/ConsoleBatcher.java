@@ -0,0 +1,360 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.ui;
+
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import org.htx.log.LogIndex;
+import org.htx.log.LogSearchIndex;
+import org.htx.log.LogStore;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects console lines and prints runs of the same content type with one {@link ConsoleView#print} call,
+ * {@link #FLUSH_DELAY_MILLIS} after the first pending line or as soon as {@link #FLUSH_CHARS} are pending.
+ * A stream that outruns the console waits for room, which holds back the SSH channel; lines that still
+ * find no room after {@link #OFFER_TIMEOUT_MILLIS} are dropped and counted in the console.
+ * <p>
+ * Queued lines also go to a {@link LogStore} and its {@link LogSearchIndex}, streamed ones are parsed into a {@link LogIndex} as well. The console shows a window of at most twice
+ * {@link #WINDOW_LINES} and is printed again from the store with the last {@link #WINDOW_LINES} once it grows
+ * beyond that, so the editor never holds the whole log. Older lines are shown by moving the window, which
+ * stops following the stream until {@link #follow()}.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/16 16:00
+ * @Version 1.0
+ */
+class ConsoleBatcher {
+
+    /** about one frame, the console does not repaint faster */
+    static final long FLUSH_DELAY_MILLIS = 16;
+    static final int FLUSH_CHARS = 64 * 1024;
+    /** lines of streamed output waiting for the console, about half a second of a busy log */
+    static final int MAX_PENDING_LINES = 10_000;
+    static final long OFFER_TIMEOUT_MILLIS = 500;
+    /** lines printed into the console at a time */
+    static final int WINDOW_LINES = 5_000;
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "JarPilot console flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class Run {
+        private final ConsoleViewContentType type;
+        private final StringBuilder text = new StringBuilder();
+
+        private Run(ConsoleViewContentType type) {
+            this.type = type;
+        }
+    }
+
+    private final ConsoleView consoleView;
+    private final LogStore store;
+    private final LogIndex index;
+    private final LogSearchIndex searchIndex;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Object printLock = new Object();
+    private final ArrayDeque<Run> runs = new ArrayDeque<>();
+    private int pendingLines;
+    private int pendingChars;
+    private long dropped;
+    private boolean flushScheduled;
+    // store indexes of the lines in the console, guarded by printLock
+    private long windowStart;
+    private long windowEnd;
+    private volatile boolean following = true;
+
+    ConsoleBatcher(ConsoleView consoleView, LogStore store, LogIndex index, LogSearchIndex searchIndex) {
+        this.consoleView = consoleView;
+        this.store = store;
+        this.index = index;
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Queue a line of streamed output, waiting for room when the console is behind.
+     */
+    void offer(String line, ConsoleViewContentType type) {
+        boolean flushNow;
+        lock.lock();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(OFFER_TIMEOUT_MILLIS);
+            while (pendingLines >= MAX_PENDING_LINES) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    dropped++;
+                    return;
+                }
+                try {
+                    notFull.awaitNanos(left);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped++;
+                    return;
+                }
+            }
+            flushNow = append(line, type, true);
+        } finally {
+            lock.unlock();
+        }
+        if (flushNow) {
+            flush();
+        }
+    }
+
+    /**
+     * Queue a line that must not be lost or wait, e.g. a status message from the EDT.
+     */
+    void add(String line, ConsoleViewContentType type) {
+        boolean flushNow;
+        lock.lock();
+        try {
+            flushNow = append(line, type, false);
+        } finally {
+            lock.unlock();
+        }
+        if (flushNow) {
+            flush();
+        }
+    }
+
+    /**
+     * Print everything pending, in order.
+     */
+    void flush() {
+        synchronized (printLock) {
+            List<Run> batch;
+            long droppedLines;
+            long end;
+            lock.lock();
+            try {
+                flushScheduled = false;
+                batch = new ArrayList<>(runs);
+                runs.clear();
+                pendingLines = 0;
+                pendingChars = 0;
+                droppedLines = dropped;
+                dropped = 0;
+                end = store.end();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (!following) {
+                // the lines are in the store and show up again on follow()
+                return;
+            }
+            if (end - windowStart > 2L * WINDOW_LINES) {
+                render(end - WINDOW_LINES, end, -1);
+            } else {
+                for (Run run : batch) {
+                    consoleView.print(run.text.toString(), run.type);
+                }
+                windowEnd = end;
+            }
+            if (droppedLines > 0) {
+                consoleView.print("[JarPilot] " + droppedLines + " lines dropped, the console could not keep up\n",
+                        ConsoleViewContentType.LOG_WARNING_OUTPUT);
+            }
+        }
+    }
+
+    boolean isFollowing() {
+        return following;
+    }
+
+    /**
+     * Show the newest lines and print new ones as they come.
+     */
+    void follow() {
+        synchronized (printLock) {
+            long end;
+            lock.lock();
+            try {
+                // pending lines are already in the store
+                runs.clear();
+                pendingLines = 0;
+                pendingChars = 0;
+                end = store.end();
+                following = true;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            render(end - WINDOW_LINES, end, -1);
+        }
+    }
+
+    /**
+     * Stop following and show the window before the current one.
+     */
+    void showEarlier() {
+        synchronized (printLock) {
+            following = false;
+            long from = Math.max(store.first(), windowStart - WINDOW_LINES);
+            render(from, from + WINDOW_LINES, -1);
+        }
+    }
+
+    /**
+     * Show the window after the current one, following again once it reaches the newest lines.
+     */
+    void showLater() {
+        long end;
+        synchronized (printLock) {
+            end = store.end();
+            if (following || windowEnd + WINDOW_LINES < end) {
+                if (!following) {
+                    render(windowEnd, windowEnd + WINDOW_LINES, -1);
+                }
+                return;
+            }
+        }
+        follow();
+    }
+
+    /**
+     * Stop following and show the window around a stored line, scrolled to it.
+     *
+     * @return whether the line is still stored
+     */
+    boolean showLine(long line) {
+        synchronized (printLock) {
+            if (line < store.first() || line >= store.end()) {
+                return false;
+            }
+            following = false;
+            long from = Math.max(store.first(), line - WINDOW_LINES / 2);
+            int offset = render(from, from + WINDOW_LINES, line);
+            consoleView.scrollTo(offset);
+            return true;
+        }
+    }
+
+    /**
+     * Stop following and show the newest of the given stored line ranges under a header line.
+     *
+     * @param ranges {@code [start, end)} pairs, oldest first
+     */
+    void showRanges(String header, long[] ranges) {
+        synchronized (printLock) {
+            following = false;
+            consoleView.clear();
+            consoleView.print(header + "\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+            int first = ranges.length;
+            long lines = 0;
+            while (first >= 2 && lines + ranges[first - 1] - ranges[first - 2] <= 2L * WINDOW_LINES) {
+                first -= 2;
+                lines += ranges[first + 1] - ranges[first];
+            }
+            for (int i = first; i < ranges.length; i += 2) {
+                print(ranges[i], ranges[i + 1], -1, new int[2]);
+            }
+            windowStart = ranges.length == 0 ? store.end() : ranges[first];
+            windowEnd = ranges.length == 0 ? store.end() : ranges[ranges.length - 1];
+        }
+    }
+
+    /**
+     * Replace the console content with the stored lines of {@code [from, to)}.
+     *
+     * @return character offset of line {@code mark} in the console
+     */
+    private int render(long from, long to, long mark) {
+        consoleView.clear();
+        windowStart = Math.max(from, store.first());
+        windowEnd = Math.min(to, store.end());
+        int[] offset = {0, 0};
+        print(windowStart, windowEnd, mark, offset);
+        return offset[0];
+    }
+
+    /**
+     * Print stored lines in runs of one content type.
+     *
+     * @param offset character offset of line {@code mark} and of the end of the printed text, both updated
+     */
+    private void print(long from, long to, long mark, int[] offset) {
+        Run[] run = {null};
+        store.read(from, to, (index, text, type) -> {
+            if (index == mark) {
+                offset[0] = offset[1];
+            }
+            offset[1] += text.length() + 1;
+            if (run[0] != null && run[0].type != type) {
+                consoleView.print(run[0].text.toString(), run[0].type);
+                run[0] = null;
+            }
+            if (run[0] == null) {
+                run[0] = new Run(type);
+            }
+            run[0].text.append(text).append('\n');
+        });
+        if (run[0] != null) {
+            consoleView.print(run[0].text.toString(), run[0].type);
+        }
+    }
+
+    /**
+     * @return whether enough is pending to flush right away
+     */
+    private boolean append(String line, ConsoleViewContentType type, boolean streamed) {
+        long index = store.append(line, type);
+        searchIndex.add(index, line);
+        if (index >= 0) {
+            if (streamed) {
+                this.index.add(index, line);
+            } else {
+                this.index.skip(index);
+            }
+        }
+        Run last = runs.peekLast();
+        if (last == null || last.type != type) {
+            last = new Run(type);
+            runs.addLast(last);
+        }
+        last.text.append(line).append('\n');
+        pendingLines++;
+        pendingChars += line.length() + 1;
+        if (pendingChars >= FLUSH_CHARS) {
+            return true;
+        }
+        if (!flushScheduled) {
+            flushScheduled = true;
+            FLUSHER.schedule(this::flush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.ui;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.ValidationInfo;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.JBUI;
+import org.htx.service.PersistentStateService;
+import org.htx.transfer.DeployTarget;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Picks the saved hosts and settings of a multi-host deploy.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/12 15:00
+ * @Version 1.0
+ */
+public class DeployDialog extends DialogWrapper {
+
+    private final PersistentStateService.State state;
+    private final JBTextField localJarField = new JBTextField(30);
+    private final JBTextField remoteJarField = new JBTextField(30);
+    private final JSpinner parallelismSpinner;
+    private final JBCheckBox relayBox;
+    // key = window id
+    private final Map<String, JBCheckBox> hostBoxes = new LinkedHashMap<>();
+    private final Map<String, PersistentStateService.WindowState> hosts = new TreeMap<>();
+
+    public DeployDialog(Project project, PersistentStateService.State state) {
+        super(project);
+        this.state = state;
+        state.windowStates.forEach((id, windowState) -> {
+            if (StringUtil.isNotEmpty(windowState.host)) {
+                hosts.put(id, windowState);
+            }
+        });
+        localJarField.setText(state.deployLocalJar);
+        localJarField.getEmptyText().setText("Local JAR Path");
+        remoteJarField.setText(state.deployRemotePath);
+        remoteJarField.getEmptyText().setText("Used for hosts without a service JAR path");
+        parallelismSpinner = new JSpinner(new SpinnerNumberModel(Math.max(1, state.deployParallelism), 1, 32, 1));
+        relayBox = new JBCheckBox("Upload once, then copy between servers (needs SSH keys and known hosts between them)", state.deployRelay);
+        setTitle("Deploy to Hosts");
+        init();
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JPanel panel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = JBUI.insets(5);
+        gbc.anchor = GridBagConstraints.LINE_START;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+
+        panel.add(new JLabel("Local JAR:"), gbc);
+        gbc.gridx = 1;
+        panel.add(localJarField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        panel.add(new JLabel("Remote Path:"), gbc);
+        gbc.gridx = 1;
+        panel.add(remoteJarField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        panel.add(new JLabel("Parallel:"), gbc);
+        gbc.gridx = 1;
+        gbc.fill = GridBagConstraints.NONE;
+        panel.add(parallelismSpinner, gbc);
+
+        gbc.gridx = 1;
+        gbc.gridy++;
+        panel.add(relayBox, gbc);
+
+        JPanel hostPanel = new JPanel();
+        hostPanel.setLayout(new BoxLayout(hostPanel, BoxLayout.Y_AXIS));
+        hosts.forEach((id, windowState) -> {
+            String path = StringUtil.isEmpty(windowState.jarPath) ? "" : "  " + windowState.jarPath;
+            JBCheckBox box = new JBCheckBox(id + "  " + windowState.user + "@" + windowState.host + ":" + windowState.port + path, true);
+            hostBoxes.put(id, box);
+            hostPanel.add(box);
+        });
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        gbc.anchor = GridBagConstraints.FIRST_LINE_START;
+        panel.add(new JLabel("Hosts:"), gbc);
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        gbc.weighty = 1.0;
+        gbc.fill = GridBagConstraints.BOTH;
+        JBScrollPane scrollPane = new JBScrollPane(hostPanel);
+        scrollPane.setPreferredSize(new Dimension(420, 180));
+        panel.add(scrollPane, gbc);
+        return panel;
+    }
+
+    @Override
+    protected @Nullable ValidationInfo doValidate() {
+        if (!localJarField.getText().trim().endsWith(".jar") || !new File(localJarField.getText().trim()).isFile()) {
+            return new ValidationInfo("Local path must be an existing .jar file", localJarField);
+        }
+        if (hostBoxes.values().stream().noneMatch(AbstractButton::isSelected)) {
+            return new ValidationInfo("Select at least one host");
+        }
+        for (Map.Entry<String, JBCheckBox> entry : hostBoxes.entrySet()) {
+            if (entry.getValue().isSelected() && StringUtil.isEmpty(hosts.get(entry.getKey()).jarPath)
+                    && remoteJarField.getText().trim().isEmpty()) {
+                return new ValidationInfo(entry.getKey() + " has no service JAR path, enter a remote path", remoteJarField);
+            }
+            if (entry.getValue().isSelected() && PersistentStateService.getPlainPassword(hosts.get(entry.getKey())) == null) {
+                return new ValidationInfo("The saved password of " + entry.getKey() + " can not be decrypted, connect it again");
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected void doOKAction() {
+        state.deployLocalJar = getLocalJarPath();
+        state.deployRemotePath = remoteJarField.getText().trim();
+        state.deployParallelism = getParallelism();
+        state.deployRelay = isRelay();
+        super.doOKAction();
+    }
+
+    public String getLocalJarPath() {
+        return localJarField.getText().trim();
+    }
+
+    public int getParallelism() {
+        return (Integer) parallelismSpinner.getValue();
+    }
+
+    public boolean isRelay() {
+        return relayBox.isSelected();
+    }
+
+    /**
+     * Selected hosts, a host goes to its service JAR path or else to the remote path of the dialog.
+     */
+    public List<DeployTarget> getTargets() {
+        List<DeployTarget> targets = new ArrayList<>();
+        hostBoxes.forEach((id, box) -> {
+            if (box.isSelected()) {
+                PersistentStateService.WindowState windowState = hosts.get(id);
+                String remotePath = StringUtil.isEmpty(windowState.jarPath) ? remoteJarField.getText().trim() : windowState.jarPath;
+                targets.add(new DeployTarget(id, windowState.host, windowState.port, windowState.user,
+                        PersistentStateService.getPlainPassword(windowState), remotePath));
+            }
+        });
+        return targets;
+    }
+}
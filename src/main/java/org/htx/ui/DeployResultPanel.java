@@ -0,0 +1,189 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.ui;
+
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import org.htx.transfer.DeployTarget;
+import org.htx.transfer.FanOutDeploy;
+import org.htx.transfer.TransferMonitor;
+import org.htx.transfer.TransferProgress;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-host progress and the overall result of a multi-host deploy. Like the upload monitor,
+ * the deploy threads only update counters and a 10 Hz timer repaints the table.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/12 15:00
+ * @Version 1.0
+ */
+public class DeployResultPanel implements FanOutDeploy.Listener {
+
+    private static final String[] COLUMNS = {"Tab", "Host", "Remote Path", "Status", "Progress", "Speed", "Message"};
+
+    private static final class Row {
+        private final DeployTarget target;
+        private volatile TransferProgress progress;
+        private volatile String status = "Waiting";
+        private volatile String message = "";
+
+        private Row(DeployTarget target) {
+            this.target = target;
+        }
+    }
+
+    private final List<Row> rows = new ArrayList<>();
+    private final JPanel mainPanel = new JPanel(new BorderLayout());
+    private final JLabel summary = new JLabel();
+    private final AbstractTableModel model = new AbstractTableModel() {
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            Row row = rows.get(rowIndex);
+            TransferProgress progress = row.progress;
+            switch (columnIndex) {
+                case 0:
+                    return row.target.getName();
+                case 1:
+                    return row.target.toString();
+                case 2:
+                    return row.target.getRemotePath();
+                case 3:
+                    return row.status;
+                case 4:
+                    return progress == null || progress.getTotal() == 0 ? ""
+                            : (progress.getSent() + progress.getReused()) * 100 / progress.getTotal() + "%";
+                case 5:
+                    return progress == null ? "" : formatSpeed(progress);
+                default:
+                    return row.message;
+            }
+        }
+    };
+    private final Timer timer = new Timer(100, e -> refresh());
+    private final long startTime = System.currentTimeMillis();
+
+    public DeployResultPanel(List<DeployTarget> targets) {
+        for (DeployTarget target : targets) {
+            rows.add(new Row(target));
+        }
+        JBTable table = new JBTable(model);
+        mainPanel.add(new JBScrollPane(table), BorderLayout.CENTER);
+        summary.setBorder(JBUI.Borders.empty(5));
+        mainPanel.add(summary, BorderLayout.SOUTH);
+        refresh();
+        timer.start();
+    }
+
+    @Override
+    public TransferMonitor started(DeployTarget target) {
+        Row row = row(target);
+        row.status = "Uploading";
+        row.progress = new TransferProgress();
+        return row.progress;
+    }
+
+    @Override
+    public void finished(DeployTarget target, FanOutDeploy.Outcome outcome, Exception error) {
+        Row row = row(target);
+        row.status = outcome.toString();
+        row.message = error == null ? "" : String.valueOf(error.getMessage());
+    }
+
+    /**
+     * Stop refreshing once the deploy has returned.
+     */
+    public void done() {
+        SwingUtilities.invokeLater(() -> {
+            timer.stop();
+            refresh();
+        });
+    }
+
+    /**
+     * @return e.g. "6 hosts: 4 uploaded, 1 up to date, 1 failed"
+     */
+    public String getSummary() {
+        int finished = 0;
+        StringBuilder counts = new StringBuilder();
+        for (FanOutDeploy.Outcome outcome : FanOutDeploy.Outcome.values()) {
+            long count = rows.stream().filter(row -> row.status.equals(outcome.toString())).count();
+            finished += count;
+            if (count > 0) {
+                counts.append(counts.length() == 0 ? "" : ", ").append(count).append(' ')
+                        .append(outcome.toString().toLowerCase());
+            }
+        }
+        String text = rows.size() + " hosts: " + (counts.length() == 0 ? "started" : counts.toString());
+        return finished < rows.size() ? text + ", " + (rows.size() - finished) + " running" : text;
+    }
+
+    public boolean hasFailures() {
+        return rows.stream().anyMatch(row -> row.status.equals(FanOutDeploy.Outcome.FAILED.toString()));
+    }
+
+    public JPanel getMainPanel() {
+        return mainPanel;
+    }
+
+    private void refresh() {
+        model.fireTableRowsUpdated(0, rows.size() - 1);
+        long seconds = (System.currentTimeMillis() - startTime) / 1000;
+        summary.setText(String.format("%s  (%d:%02d)", getSummary(), seconds / 60, seconds % 60));
+    }
+
+    private Row row(DeployTarget target) {
+        return rows.stream().filter(row -> row.target == target).findFirst().orElseThrow();
+    }
+
+    private static String formatSpeed(TransferProgress progress) {
+        long elapsed = progress.getElapsedNanos();
+        double speed = elapsed > 0 ? progress.getSent() * 1_000_000_000.0 / elapsed / 1024.0 : 0;
+        if (speed >= 1024) {
+            return String.format("%.2f MB/s", speed / 1024.0);
+        }
+        return String.format("%.2f KB/s", speed);
+    }
+}
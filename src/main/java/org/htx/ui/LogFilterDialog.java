@@ -0,0 +1,174 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.ui;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.ValidationInfo;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.JBUI;
+import org.htx.log.LogIndex;
+import org.htx.log.LogLayout;
+import org.htx.log.LogLevel;
+import org.htx.service.PersistentStateService;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Level, thread and logger conditions for the parsed events of a console, and the log patterns they are parsed with.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/18 14:00
+ * @Version 1.0
+ */
+public class LogFilterDialog extends DialogWrapper {
+
+    private static final String ANY_LEVEL = "Any";
+
+    private final PersistentStateService.WindowState windowState;
+    private final ComboBox<String> levelBox;
+    private final JBTextField threadField = new JBTextField(30);
+    private final JBTextField loggerField = new JBTextField(30);
+    private final JTextArea patternArea = new JTextArea(4, 50);
+
+    public LogFilterDialog(Project project, PersistentStateService.WindowState windowState) {
+        super(project);
+        this.windowState = windowState;
+        List<String> levels = new ArrayList<>();
+        levels.add(ANY_LEVEL);
+        for (LogLevel level : LogLevel.values()) {
+            levels.add(level.name());
+        }
+        levelBox = new ComboBox<>(levels.toArray(new String[0]));
+        levelBox.setSelectedItem(windowState.logFilterLevel.isEmpty() ? ANY_LEVEL : windowState.logFilterLevel);
+        threadField.setText(windowState.logFilterThread);
+        threadField.getEmptyText().setText("Exact thread name, e.g. main");
+        loggerField.setText(windowState.logFilterLogger);
+        loggerField.getEmptyText().setText("Part of the logger name, e.g. o.s.web");
+        patternArea.setText(windowState.logPatterns.isEmpty() ? String.join("\n", LogLayout.DEFAULTS) : windowState.logPatterns);
+        setTitle("Filter Log");
+        init();
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JPanel panel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = JBUI.insets(5);
+        gbc.anchor = GridBagConstraints.LINE_START;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+
+        panel.add(new JLabel("Level at least:"), gbc);
+        gbc.gridx = 1;
+        gbc.fill = GridBagConstraints.NONE;
+        panel.add(levelBox, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        panel.add(new JLabel("Thread:"), gbc);
+        gbc.gridx = 1;
+        panel.add(threadField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        panel.add(new JLabel("Logger:"), gbc);
+        gbc.gridx = 1;
+        panel.add(loggerField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        gbc.anchor = GridBagConstraints.FIRST_LINE_START;
+        panel.add(new JLabel("Log patterns:"), gbc);
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        gbc.weighty = 1.0;
+        gbc.fill = GridBagConstraints.BOTH;
+        panel.add(new JBScrollPane(patternArea), gbc);
+        return panel;
+    }
+
+    @Override
+    protected @Nullable ValidationInfo doValidate() {
+        List<String> patterns = getPatterns();
+        if (patterns.isEmpty()) {
+            return new ValidationInfo("Enter at least one log pattern", patternArea);
+        }
+        for (String pattern : patterns) {
+            try {
+                new LogLayout(pattern);
+            } catch (IllegalArgumentException e) {
+                return new ValidationInfo(e.getMessage(), patternArea);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected void doOKAction() {
+        Object level = levelBox.getSelectedItem();
+        windowState.logFilterLevel = ANY_LEVEL.equals(level) || level == null ? "" : level.toString();
+        windowState.logFilterThread = threadField.getText().trim();
+        windowState.logFilterLogger = loggerField.getText().trim();
+        String patterns = String.join("\n", getPatterns());
+        windowState.logPatterns = patterns.equals(String.join("\n", LogLayout.DEFAULTS)) ? "" : patterns;
+        super.doOKAction();
+    }
+
+    /**
+     * One pattern per line.
+     */
+    public List<String> getPatterns() {
+        List<String> patterns = new ArrayList<>();
+        for (String line : patternArea.getText().split("\\R")) {
+            if (!line.isBlank()) {
+                patterns.add(line.strip());
+            }
+        }
+        return patterns;
+    }
+
+    public LogIndex.Filter getFilter() {
+        LogIndex.Filter filter = new LogIndex.Filter();
+        Object level = levelBox.getSelectedItem();
+        if (level != null && !ANY_LEVEL.equals(level)) {
+            filter.level(LogLevel.valueOf(level.toString()));
+        }
+        if (!threadField.getText().trim().isEmpty()) {
+            filter.thread(threadField.getText().trim());
+        }
+        if (!loggerField.getText().trim().isEmpty()) {
+            filter.logger(loggerField.getText().trim());
+        }
+        return filter;
+    }
+}
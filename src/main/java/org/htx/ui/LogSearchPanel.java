@@ -0,0 +1,151 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.ui;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.SearchTextField;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.ui.JBUI;
+import org.htx.log.LogSearchIndex;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Search bar above a log console: lists the stored lines that contain a text, newest first, and shows
+ * the selected one in the console. The search runs on a pooled thread over the trigram index of the console.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 16:00
+ * @Version 1.0
+ */
+public class LogSearchPanel {
+
+    static final int MAX_HITS = 500;
+    /** the list shows the start of long lines, the console shows them whole */
+    private static final int PREVIEW_CHARS = 300;
+
+    private static final class Hit {
+        private final long line;
+        private final String text;
+
+        private Hit(long line, String text) {
+            this.line = line;
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return line + ": " + (text.length() > PREVIEW_CHARS ? text.substring(0, PREVIEW_CHARS) + "..." : text);
+        }
+    }
+
+    private final SpringBootLogConsole console;
+    private final JPanel mainPanel = new JPanel(new BorderLayout());
+    private final SearchTextField searchField = new SearchTextField();
+    private final JLabel status = new JLabel();
+    private final DefaultListModel<Hit> hits = new DefaultListModel<>();
+    private final JBList<Hit> list = new JBList<>(hits);
+    /** results of an older search that finishes late are dropped */
+    private final AtomicInteger searches = new AtomicInteger();
+
+    LogSearchPanel(SpringBootLogConsole console) {
+        this.console = console;
+
+        JPanel top = new JPanel(new BorderLayout(8, 0));
+        top.add(searchField, BorderLayout.CENTER);
+        top.add(status, BorderLayout.EAST);
+        top.setBorder(JBUI.Borders.empty(2, 4, 2, 4));
+
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setVisibleRowCount(8);
+        list.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                show(list.getSelectedValue());
+            }
+        });
+        searchField.getTextEditor().addActionListener(e -> search());
+
+        mainPanel.add(top, BorderLayout.NORTH);
+        mainPanel.add(new JBScrollPane(list), BorderLayout.CENTER);
+        mainPanel.setBorder(JBUI.Borders.customLineBottom(JBColor.border()));
+        mainPanel.setVisible(false);
+    }
+
+    public JPanel getMainPanel() {
+        return mainPanel;
+    }
+
+    /**
+     * Show or hide the panel, focusing the search field when shown.
+     */
+    void toggle() {
+        mainPanel.setVisible(!mainPanel.isVisible());
+        mainPanel.revalidate();
+        if (mainPanel.isVisible()) {
+            searchField.getTextEditor().requestFocusInWindow();
+        }
+    }
+
+    private void search() {
+        String text = searchField.getText();
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        int search = searches.incrementAndGet();
+        status.setText("Searching...");
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            long start = System.nanoTime();
+            LogSearchIndex.Hits found = console.search(text, MAX_HITS);
+            List<Hit> rows = new ArrayList<>();
+            for (long line : found.getLines()) {
+                String stored = console.readLine(line);
+                if (stored != null) {
+                    rows.add(new Hit(line, stored));
+                }
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            SwingUtilities.invokeLater(() -> {
+                if (search != searches.get()) {
+                    return;
+                }
+                hits.clear();
+                hits.addAll(rows);
+                status.setText(String.format("%s%d lines, %d of %d read (%d ms)", rows.size() == MAX_HITS ? "newest " : "",
+                        rows.size(), found.getScanned(), found.getIndexed(), millis));
+            });
+        });
+    }
+
+    private void show(Hit hit) {
+        if (hit != null && !console.showLine(hit.line)) {
+            status.setText("Line " + hit.line + " is no longer stored");
+        }
+    }
+}
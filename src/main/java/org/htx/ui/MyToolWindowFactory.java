@@ -40,17 +40,36 @@ import com.intellij.ui.content.ContentFactory;
 import com.intellij.ui.content.ContentManagerEvent;
 import com.intellij.ui.content.ContentManagerListener;
 import com.intellij.util.ui.JBUI;
-import com.jcraft.jsch.SftpProgressMonitor;
+import org.htx.log.LogLayout;
+import org.htx.model.CommandPipeline;
 import org.htx.model.CommandTemplate;
 import org.htx.service.ConnectionNotifier;
+import org.htx.service.ConnectionPool;
 import org.htx.service.PersistentStateService;
 import org.htx.service.ConnectionUtils;
+import org.htx.service.RemoteLogFile;
+import org.htx.service.RemoteLogTail;
 import org.htx.service.SftpUtil;
+import org.htx.service.TransportProfile;
+import org.htx.service.TransportTuning;
+import org.htx.transfer.DeployTarget;
+import org.htx.transfer.FanOutDeploy;
+import org.htx.transfer.SignatureStore;
+import org.htx.transfer.ThrottledMonitor;
+import org.htx.transfer.TokenBucket;
+import org.htx.transfer.TransferMonitor;
+import org.htx.transfer.UploadMode;
 import org.jetbrains.annotations.NotNull;
 import javax.swing.*;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -68,6 +87,7 @@ public class MyToolWindowFactory implements ToolWindowFactory {
     public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
 
         PersistentStateService stateService = PersistentStateService.getInstance(project);
+        TokenBucket.global().setRate(stateService.getState().globalUploadLimitKb * 1024L);
 
         toolWindow.addContentManagerListener(new ContentManagerListener() {
             @Override
@@ -89,6 +109,12 @@ public class MyToolWindowFactory implements ToolWindowFactory {
                 createNewTab(project, toolWindow);
             }
         });
+        actionGroup.add(new AnAction(null, "Deploy to hosts", AllIcons.Actions.Upload) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                deployToHosts(project, toolWindow);
+            }
+        });
 
         AtomicBoolean isInit = new AtomicBoolean(true);
         stateService.getAllWindowStatesMutable().forEach((id, state) -> {
@@ -117,25 +143,60 @@ public class MyToolWindowFactory implements ToolWindowFactory {
         initTab(project, toolWindow, windowId, stateService);
     }
 
+    private void deployToHosts(Project project, ToolWindow toolWindow) {
+        PersistentStateService stateService = PersistentStateService.getInstance(project);
+        DeployDialog dialog = new DeployDialog(project, stateService.getState());
+        if (!dialog.showAndGet()) {
+            return;
+        }
+
+        List<DeployTarget> targets = dialog.getTargets();
+        DeployResultPanel resultPanel = new DeployResultPanel(targets);
+        Content content = toolWindow.getContentManager().getFactory()
+                .createContent(resultPanel.getMainPanel(), "Deploy " + new File(dialog.getLocalJarPath()).getName(), false);
+        content.setCloseable(true);
+        toolWindow.getContentManager().addContent(content);
+        toolWindow.getContentManager().setSelectedContent(content);
+
+        FanOutDeploy deploy = new FanOutDeploy(ConnectionPool.getInstance(project), dialog.getLocalJarPath(), dialog.getParallelism(), dialog.isRelay());
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                deploy.deploy(targets, resultPanel);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            } finally {
+                resultPanel.done();
+                ConnectionNotifier.notifyConnectionResult(project, !resultPanel.hasFailures(),
+                        "Deploy finished, " + resultPanel.getSummary());
+            }
+        });
+    }
+
     private void initTab(Project project, ToolWindow toolWindow, String id, PersistentStateService stateService) {
         PersistentStateService.WindowState windowState = stateService.getWindowState(id);
 
-        SpringBootLogConsole consoleView = new SpringBootLogConsole(project);
+        SpringBootLogConsole consoleView = new SpringBootLogConsole(project,
+                windowState.logStoreMegabytes * 1024L * 1024L, windowState.logStoreLines);
+        if (!windowState.logPatterns.isBlank()) {
+            consoleView.setLogPatterns(windowState.logPatterns);
+        }
 
         JPanel panel = new JPanel(new BorderLayout());
 
         ContentFactory contentFactory = toolWindow.getContentManager().getFactory();
         Content content = contentFactory.createContent(panel, id, false);
-        ConnectionUtils connectionUtils = new ConnectionUtils();
+        ConnectionUtils connectionUtils = new ConnectionUtils(ConnectionPool.getInstance(project));
+        RemoteLogTail logTail = new RemoteLogTail(connectionUtils, consoleView::newStream);
+        logTail.setFilter(RemoteFilterDialog.getFilter(windowState));
 
         ConnectionForm connectionForm = buildConnectionForm(project, windowState, connectionUtils, stateService, id, consoleView, content);
         panel.add(connectionForm.getPanel(), BorderLayout.NORTH);
 
         JPanel westPanel = new JPanel(new BorderLayout());
 
-        PushForm pushForm = buildPushForm(project, connectionForm, connectionUtils, consoleView);
+        PushForm pushForm = buildPushForm(project, windowState, connectionForm, connectionUtils, consoleView);
 
-        ServiceForm serviceForm = buildServiceForm(project,windowState, connectionForm, connectionUtils, consoleView, stateService, id);
+        ServiceForm serviceForm = buildServiceForm(project,windowState, connectionForm, connectionUtils, logTail, consoleView, stateService, id);
 
         pushForm.getPanel().setBorder(JBUI.Borders.customLineBottom(JBColor.border()));
 
@@ -143,7 +204,19 @@ public class MyToolWindowFactory implements ToolWindowFactory {
         westPanel.add(serviceForm.getMainPanel(), BorderLayout.CENTER);
         panel.add(westPanel, BorderLayout.WEST);
 
-        panel.add(consoleView.getConsoleView().getComponent(), BorderLayout.CENTER);
+        JPanel consolePanel = new JPanel(new BorderLayout());
+        DefaultActionGroup historyActions = consoleView.createHistoryActions(project, windowState);
+        historyActions.add(createRemoteFilterAction(project, windowState, stateService, id, logTail, consoleView));
+        historyActions.add(createBrowseLogAction(project, toolWindow, windowState, connectionForm, serviceForm, connectionUtils));
+        ActionToolbar historyToolbar = ActionManager.getInstance()
+                .createActionToolbar("JarPilotLogHistory", historyActions, false);
+        historyToolbar.setTargetComponent(consoleView.getConsoleView().getComponent());
+        consolePanel.add(historyToolbar.getComponent(), BorderLayout.WEST);
+        consolePanel.add(consoleView.getSearchPanel().getMainPanel(), BorderLayout.NORTH);
+        consolePanel.add(consoleView.getConsoleView().getComponent(), BorderLayout.CENTER);
+        panel.add(consolePanel, BorderLayout.CENTER);
+
+        watchConnection(project, connectionForm, serviceForm, connectionUtils, consoleView);
 
         connectionForm.setOnConnect(e->{
             releaseALl(project, connectionForm, serviceForm, connectionUtils, consoleView);
@@ -153,6 +226,7 @@ public class MyToolWindowFactory implements ToolWindowFactory {
         content.setTabName(id);
         content.setCloseable(true);
         Disposer.register(content, () -> releaseALl(project, connectionForm, serviceForm, connectionUtils, consoleView));
+        Disposer.register(content, consoleView::dispose);
         toolWindow.getContentManager().addContent(content);
         tabIndex++;
     }
@@ -164,44 +238,143 @@ public class MyToolWindowFactory implements ToolWindowFactory {
 
             connectButton.setEnabled(false);
 
-            try {
-                String port = serviceForm.getPortField().getText();
-                String jarPath = serviceForm.getJarField().getText();
-                JBTextField logField = serviceForm.getLogField();
-                String logPath = logField.getText();
-                String pidPath = jarPath.replace(".jar", ".pid");
-                String stopCmd = CommandTemplate.STOP_SPRING_BOOT.render(
-                        pidPath, pidPath, pidPath, port, port, port, port);
-                String closeCmd = CommandTemplate.CLOSE_SPRING_BOOT_LOG.render(logPath);
-
+            String port = serviceForm.getPortField().getText();
+            String jarPath = serviceForm.getJarField().getText();
+            JBTextField logField = serviceForm.getLogField();
+            String logPath = logField.getText();
+            String pidPath = jarPath.replace(".jar", ".pid");
+            CommandPipeline pipeline = CommandPipeline.builder()
+                    .step(CommandTemplate.STOP_SPRING_BOOT, pidPath, pidPath, pidPath, port, port, port, port)
+                    .step(CommandTemplate.CLOSE_SPRING_BOOT_LOG, logPath)
+                    .build();
+
+            connectionUtils.execAsync(pipeline, 10, TimeUnit.SECONDS).handle((result, error) -> {
                 try {
-                    connectionUtils.exec(stopCmd);
-                } catch (Exception ignored) {}
+                    connectionUtils.close();
+                    connectionForm.setConnection(false);
+                    consoleView.appendLog("Disconnected from " + connectionForm.getHost(), ConsoleViewContentType.NORMAL_OUTPUT);
+                    ConnectionNotifier.notifyConnectionResult(project, true, "Disconnect " + connectionForm.getHost() + " successful!");
+                } catch (Exception ignored) {
+                    ConnectionNotifier.notifyConnectionResult(project, false, "Disconnect " + connectionForm.getHost() + " failed!");
+                } finally {
+                    SwingUtilities.invokeLater(() -> showDisconnected(connectionForm, serviceForm));
+                }
+                return null;
+            });
+        }
+    }
 
-                try {
-                    connectionUtils.exec(closeCmd);
-                }catch (Exception ignored){}
-
-                connectionUtils.close();
-                connectionForm.setConnection(false);
-                consoleView.appendLog("Disconnected from " + connectionForm.getHost(), ConsoleViewContentType.NORMAL_OUTPUT);
-                ConnectionNotifier.notifyConnectionResult(project, true, "Disconnect " + connectionForm.getHost() + " successful!");
-            } catch (Exception ignored) {
-                ConnectionNotifier.notifyConnectionResult(project, false, "Disconnect " + connectionForm.getHost() + " failed!");
-            } finally {
+    private static void showDisconnected(ConnectionForm connectionForm, ServiceForm serviceForm) {
+        JButton connectButton = connectionForm.getConnectButton();
+        serviceForm.getViewCloseLogButton().setIcon(AllIcons.Actions.Execute);
+        serviceForm.getStartStopButton().setIcon(AllIcons.Actions.Execute);
+        serviceForm.getStartStopButton().setEnabled(true);
+        connectButton.setEnabled(true);
+        connectButton.setIcon(AllIcons.Actions.Execute);
+        connectionForm.enableAllFields();
+        connectionForm.showHealth("", null);
+    }
+
+    /**
+     * Show heartbeats and reconnects of the tab's connection in the connection form and the console.
+     */
+    private static void watchConnection(Project project, ConnectionForm connectionForm, ServiceForm serviceForm,
+                                        ConnectionUtils connectionUtils, SpringBootLogConsole consoleView) {
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss");
+        connectionUtils.setListener(new ConnectionUtils.Listener() {
+            @Override
+            public void health(long rttMillis, long lastActivityMillis) {
+                String lastActivity = time.format(new Date(lastActivityMillis));
+                SwingUtilities.invokeLater(() -> connectionForm.showHealth(rttMillis + " ms",
+                        "Round trip " + rttMillis + " ms, last activity " + lastActivity));
+            }
+
+            @Override
+            public void reconnecting(int attempt, long delayMillis, Exception cause) {
+                consoleView.appendLog(String.format("WARNING: Connection to %s lost (%s), reconnect %d in %d s",
+                        connectionForm.getHost(), cause.getMessage(), attempt, delayMillis / 1000), ConsoleViewContentType.LOG_WARNING_OUTPUT);
+                SwingUtilities.invokeLater(() -> connectionForm.showHealth("reconnecting", cause.getMessage()));
+            }
+
+            @Override
+            public void reconnected() {
+                consoleView.appendLog("Reconnected to " + connectionForm.getHost(), ConsoleViewContentType.NORMAL_OUTPUT);
+                SwingUtilities.invokeLater(() -> connectionForm.showHealth("", null));
+            }
+
+            @Override
+            public void lost(Exception cause) {
+                consoleView.appendLog("ERROR: Connection to " + connectionForm.getHost() + " lost: " + cause.getMessage(),
+                        ConsoleViewContentType.LOG_ERROR_OUTPUT);
+                ConnectionNotifier.notifyConnectionResult(project, false, "Connection " + connectionForm.getHost() + " lost!");
                 SwingUtilities.invokeLater(() -> {
-                    serviceForm.getViewCloseLogButton().setIcon(AllIcons.Actions.Execute);
-                    serviceForm.getStartStopButton().setIcon(AllIcons.Actions.Execute);
-                    serviceForm.getStartStopButton().setEnabled(true);
-                    connectButton.setEnabled(true);
-                    connectButton.setIcon(AllIcons.Actions.Execute);
-                    connectionForm.enableAllFields();
+                    connectionForm.setConnection(false);
+                    showDisconnected(connectionForm, serviceForm);
                 });
             }
-        }
+        });
+    }
+
+    /**
+     * Change the filter the server applies to the followed log, a running tail resumes where it was.
+     */
+    private static AnAction createRemoteFilterAction(Project project, PersistentStateService.WindowState windowState,
+                                                     PersistentStateService stateService, String windowId,
+                                                     RemoteLogTail logTail, SpringBootLogConsole consoleView) {
+        return new AnAction("Filter on Server", "Send only the log events of a level, logger or regex", AllIcons.General.Web) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                if (!new RemoteFilterDialog(project, windowState).showAndGet()) {
+                    return;
+                }
+                stateService.setWindowState(windowId, windowState);
+                RemoteLogTail.Filter filter = RemoteFilterDialog.getFilter(windowState);
+                boolean restart = logTail.isRunning();
+                logTail.setFilter(filter).whenComplete((ignored, ex) -> {
+                    if (ex != null) {
+                        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                        consoleView.appendLog("ERROR: " + cause.getMessage(), ConsoleViewContentType.LOG_ERROR_OUTPUT);
+                    } else if (restart) {
+                        consoleView.appendLog("INFO: Log stream now filtered on the server: " + filter,
+                                ConsoleViewContentType.NORMAL_OUTPUT);
+                    }
+                });
+            }
+        };
     }
 
-    private static @NotNull ServiceForm buildServiceForm(Project project, PersistentStateService.WindowState windowState, ConnectionForm connectionForm, ConnectionUtils connectionUtils, SpringBootLogConsole consoleView, PersistentStateService stateService, String windowId) {
+    /**
+     * Open the log file of the service in a tab of its own that pages through it, however large it is.
+     */
+    private static AnAction createBrowseLogAction(Project project, ToolWindow toolWindow, PersistentStateService.WindowState windowState,
+                                                  ConnectionForm connectionForm, ServiceForm serviceForm, ConnectionUtils connectionUtils) {
+        return new AnAction("Browse Log File", "Page through the whole remote log, fetching only the parts shown", AllIcons.Actions.Preview) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                if (!connectionForm.isConnection()) {
+                    ConnectionNotifier.notifyConnectionResult(project, false, "Please Connection first!");
+                    return;
+                }
+                String logPath = serviceForm.getLogField().getText().trim();
+                if (logPath.isEmpty()) {
+                    ConnectionNotifier.notifyConnectionResult(project, false, "Please enter the log path first!");
+                    return;
+                }
+                RemoteLogFile file = new RemoteLogFile(connectionUtils, logPath, LogLayout.patterns(windowState.logPatterns),
+                        RemoteLogFile.DEFAULT_CACHE_PAGES);
+                RemoteLogViewer viewer = new RemoteLogViewer(project, file);
+                Content content = toolWindow.getContentManager().getFactory()
+                        .createContent(viewer.getMainPanel(), "Log " + new File(logPath).getName(), false);
+                content.setCloseable(true);
+                Disposer.register(content, viewer::dispose);
+                toolWindow.getContentManager().addContent(content);
+                toolWindow.getContentManager().setSelectedContent(content);
+                viewer.showEnd();
+            }
+        };
+    }
+
+    private static @NotNull ServiceForm buildServiceForm(Project project, PersistentStateService.WindowState windowState, ConnectionForm connectionForm, ConnectionUtils connectionUtils, RemoteLogTail logTail, SpringBootLogConsole consoleView, PersistentStateService stateService, String windowId) {
         ServiceForm serviceForm = new ServiceForm(project, windowState);
 
         serviceForm.setOnStartStopButton(e->{
@@ -225,11 +398,23 @@ public class MyToolWindowFactory implements ToolWindowFactory {
 
                     startStopButton.setEnabled(false);
 
+                    // stop and start go to the server as one script
+                    boolean running = startStopButton.getIcon() == AllIcons.Actions.Suspend;
+                    CommandPipeline.Builder builder = CommandPipeline.builder()
+                            .step(CommandTemplate.STOP_SPRING_BOOT, pidPath, pidPath, pidPath, port, port, port, port);
+                    if (!running) {
+                        builder.step(CommandTemplate.START_SPRING_BOOT_JAR_WITH_PID, jarPath, jarPath, StringUtil.isEmpty(activeText) ? "" : ("--spring.profiles.active=" + activeText), port, logPath, pidPath, jarPath);
+                    }
+                    CommandPipeline pipeline = builder.build();
+                    List<CommandPipeline.StepResult> results = connectionUtils.exec(pipeline);
+                    if (results.size() < pipeline.getCommands().size()) {
+                        throw new RuntimeException("Service commands did not complete");
+                    }
+
                     // ---------------- STOP ----------------
                     consoleView.appendLog("===== [STOP SERVICE ] =====", ConsoleViewContentType.NORMAL_OUTPUT);
-                    String stopCmd = CommandTemplate.STOP_SPRING_BOOT.render(pidPath, pidPath, pidPath, port, port, port, port);
-                    consoleView.appendLog("Command: " + stopCmd, ConsoleViewContentType.LOG_DEBUG_OUTPUT);
-                    String stopOutput = connectionUtils.exec(stopCmd).trim();
+                    consoleView.appendLog("Command: " + results.get(0).getCommand(), ConsoleViewContentType.LOG_DEBUG_OUTPUT);
+                    String stopOutput = results.get(0).getText().trim();
 
                     if (stopOutput.contains("Stopped by PID file")) {
                         consoleView.appendLog(stopOutput, ConsoleViewContentType.NORMAL_OUTPUT);
@@ -241,7 +426,7 @@ public class MyToolWindowFactory implements ToolWindowFactory {
                         consoleView.appendLog("ERROR: Unexpected response: " + stopOutput, ConsoleViewContentType.LOG_ERROR_OUTPUT);
                     }
 
-                    if (startStopButton.getIcon() == AllIcons.Actions.Suspend){
+                    if (running){
                         startStopButton.setIcon(AllIcons.Actions.Execute);
                         startStopButton.setEnabled(true);
                         return;
@@ -253,10 +438,13 @@ public class MyToolWindowFactory implements ToolWindowFactory {
 
                     // ---------------- START ----------------
                     consoleView.appendLog("===== [START SERVICE] =====", ConsoleViewContentType.NORMAL_OUTPUT);
-                    String startCmd = CommandTemplate.START_SPRING_BOOT_JAR_WITH_PID.render(jarPath, jarPath, StringUtil.isEmpty(activeText) ? "" : ("--spring.profiles.active=" + activeText), port, logPath, pidPath, jarPath);
-                    String startOutput = connectionUtils.exec(startCmd);
+                    CommandPipeline.StepResult start = results.get(1);
+                    if (!start.isSuccess()) {
+                        throw new RuntimeException("Start failed, exit code " + start.getExitCode() + ": " + start.getError());
+                    }
+                    String startOutput = start.getText();
 
-                    consoleView.appendLog("Command: " + startCmd, ConsoleViewContentType.LOG_DEBUG_OUTPUT);
+                    consoleView.appendLog("Command: " + start.getCommand(), ConsoleViewContentType.LOG_DEBUG_OUTPUT);
                     consoleView.appendLog(startOutput, ConsoleViewContentType.NORMAL_OUTPUT);
 
                     if (startOutput.contains("No such file") || startOutput.contains("cannot find")) {
@@ -308,29 +496,29 @@ public class MyToolWindowFactory implements ToolWindowFactory {
 
             // ---------------- CLOSE LOG STREAM ----------------
             if (viewCloseLogButton.getIcon() == AllIcons.Actions.Suspend) {
-                try {
-                    String closeCmd = CommandTemplate.CLOSE_SPRING_BOOT_LOG.render(logField.getText());
-                    consoleView.appendLog("\n\n\n\n===== [CLOSE LOG STREAM] =====", ConsoleViewContentType.NORMAL_OUTPUT);
-                    consoleView.appendLog("Command: " + closeCmd, ConsoleViewContentType.LOG_DEBUG_OUTPUT);
-
-                    String closeOutput = connectionUtils.exec(closeCmd).trim();
-                    consoleView.appendLog("Output: " + closeOutput, ConsoleViewContentType.NORMAL_OUTPUT);
-
+                consoleView.appendLog("\n\n\n\n===== [CLOSE LOG STREAM] =====", ConsoleViewContentType.NORMAL_OUTPUT);
+                consoleView.appendLog("Command: " + logTail.getStopCommand(), ConsoleViewContentType.LOG_DEBUG_OUTPUT);
+                viewCloseLogButton.setEnabled(false);
+
+                logTail.stop().whenComplete((closeOutput, ex) -> {
+                    if (ex == null) {
+                        consoleView.appendLog("Output: " + closeOutput.trim(), ConsoleViewContentType.NORMAL_OUTPUT);
+                        consoleView.appendLog("INFO: Log streaming stopped for " + logField.getText(),
+                                ConsoleViewContentType.NORMAL_OUTPUT);
+                    } else {
+                        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                        consoleView.appendLog("ERROR: Failed to close log stream: " + cause.getMessage(),
+                                ConsoleViewContentType.LOG_ERROR_OUTPUT);
+                    }
                     SwingUtilities.invokeLater(() -> {
-                        windowState.logPath = serviceForm.getJarField().getText().replace(".jar", ".out");
-                        stateService.setWindowState(windowId, windowState);
+                        if (ex == null) {
+                            windowState.logPath = serviceForm.getJarField().getText().replace(".jar", ".out");
+                            stateService.setWindowState(windowId, windowState);
+                        }
                         viewCloseLogButton.setIcon(AllIcons.Actions.Execute);
+                        viewCloseLogButton.setEnabled(true);
                     });
-
-                    consoleView.appendLog("INFO: Log streaming stopped for " + logField.getText(),
-                            ConsoleViewContentType.NORMAL_OUTPUT);
-
-                } catch (Exception ex) {
-                    consoleView.appendLog("ERROR: Failed to close log stream: " + ex.getMessage(),
-                            ConsoleViewContentType.LOG_ERROR_OUTPUT);
-                    SwingUtilities.invokeLater(() -> viewCloseLogButton.setIcon(AllIcons.Actions.Execute));
-                    throw new RuntimeException(ex);
-                }
+                });
 
                 return;
 
@@ -339,10 +527,10 @@ public class MyToolWindowFactory implements ToolWindowFactory {
             try {
                 // ---------------- OPEN LOG STREAM ----------------
                 consoleView.appendLog("\n\n\n\n===== [OPEN LOG STREAM] =====", ConsoleViewContentType.NORMAL_OUTPUT);
-                String logCmd = CommandTemplate.START_SPRING_BOOT_LOG.render(logField.getText());
-                consoleView.appendLog("Command: " + logCmd, ConsoleViewContentType.LOG_DEBUG_OUTPUT);
+                consoleView.appendLog("Command: tail -F " + logField.getText() + ", filtered on the server: " + logTail.getFilter(),
+                        ConsoleViewContentType.LOG_DEBUG_OUTPUT);
 
-                connectionUtils.execStream(logCmd, consoleView::appendLog);
+                logTail.start(logField.getText());
 
                 consoleView.appendLog("INFO: Log streaming started from " + logField.getText(),
                         ConsoleViewContentType.NORMAL_OUTPUT);
@@ -362,6 +550,7 @@ public class MyToolWindowFactory implements ToolWindowFactory {
 
     private static @NotNull ConnectionForm buildConnectionForm(Project project, PersistentStateService.WindowState windowState, ConnectionUtils connectionUtils, PersistentStateService stateService, String windowId, SpringBootLogConsole consoleView, Content content) {
         ConnectionForm connectionForm = new ConnectionForm(project, windowState);
+        connectionForm.setTransport(stateService.getTransportProfile(windowState.host, windowState.port).override);
         connectionForm.setOnConnect(e -> {
 
             JButton connectButton = connectionForm.getConnectButton();
@@ -370,12 +559,21 @@ public class MyToolWindowFactory implements ToolWindowFactory {
                 connectButton.setIcon(AnimatedIcon.Default.INSTANCE);
 
                 try {
+                    TransportProfile transport = stateService.getTransportProfile(connectionForm.getHost(), connectionForm.getPort());
+                    transport.override = connectionForm.getTransport();
+                    if (!TransportTuning.AUTO.equals(transport.override)) {
+                        stateService.saveTransportProfile(connectionForm.getHost(), connectionForm.getPort(), transport);
+                    }
+                    connectionUtils.setTransportProfile(transport.effective());
+                    connectionUtils.setKeepAlive(connectionForm.getKeepAliveSeconds());
+                    connectionUtils.setAutoReconnect(windowState.autoReconnect);
                     connectionUtils.connect(
                             connectionForm.getHost(),
                             connectionForm.getPort(),
                             connectionForm.getUser(),
                             connectionForm.getPassword()
                     );
+                    connectionUtils.setAgentMode(connectionForm.isAgentMode());
 
                     SwingUtilities.invokeLater(() -> {
                         connectionForm.setConnection(true);
@@ -386,12 +584,19 @@ public class MyToolWindowFactory implements ToolWindowFactory {
                         windowState.host = connectionForm.getHost();
                         windowState.user = connectionForm.getUser();
                         windowState.passWord = connectionForm.getPassword();
+                        windowState.passwordEncrypted = false;
                         windowState.port = connectionForm.getPort();
+                        windowState.commandAgent = connectionForm.isAgentMode();
+                        windowState.keepAliveSeconds = connectionForm.getKeepAliveSeconds();
                         stateService.setWindowState(windowId, windowState);
                         content.setDisplayName(connectionForm.getHost());
                         consoleView.appendLog("Connected to " + connectionForm.getHost() + " successfully.", ConsoleViewContentType.NORMAL_OUTPUT);
                         ConnectionNotifier.notifyConnectionResult(project, true, "Connection " + connectionForm.getHost() + " successful!");
                     });
+                    if (transport.needsProbe()) {
+                        probeTransport(stateService, transport, connectionForm.getHost(), connectionForm.getPort(),
+                                connectionForm.getUser(), connectionForm.getPassword(), consoleView);
+                    }
 
                 } catch (IOException ex1) {
                     SwingUtilities.invokeLater(() -> {
@@ -408,8 +613,32 @@ public class MyToolWindowFactory implements ToolWindowFactory {
         return connectionForm;
     }
 
-    private static @NotNull PushForm buildPushForm(Project project, ConnectionForm connectionForm, ConnectionUtils connectionUtils, SpringBootLogConsole consoleView) {
-        PushForm pushForm = new PushForm(project);
+    /**
+     * Measure the transport profiles of a host in the background, the fastest is used from the next connect.
+     */
+    private static void probeTransport(PersistentStateService stateService, TransportProfile transport, String host, int port,
+                                       String user, String password, SpringBootLogConsole consoleView) {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            Map<String, Long> results = TransportTuning.probe(host, port, user, password);
+            if (results.isEmpty()) {
+                return;
+            }
+            String best = results.keySet().iterator().next();
+            synchronized (transport) {
+                transport.learned = best;
+                transport.bytesPerSecond = results.get(best);
+                transport.measuredAt = System.currentTimeMillis();
+            }
+            stateService.saveTransportProfile(host, port, transport);
+            StringBuilder summary = new StringBuilder();
+            results.forEach((profile, speed) -> summary.append(String.format(" %s %.1f MB/s;", profile, speed / 1024.0 / 1024.0)));
+            consoleView.appendLog("INFO: SSH transport of " + host + ":" + summary + " next connect uses " + best,
+                    ConsoleViewContentType.NORMAL_OUTPUT);
+        });
+    }
+
+    private static @NotNull PushForm buildPushForm(Project project, PersistentStateService.WindowState windowState, ConnectionForm connectionForm, ConnectionUtils connectionUtils, SpringBootLogConsole consoleView) {
+        PushForm pushForm = new PushForm(project, windowState);
         pushForm.setOnUpload(e -> {
 
             boolean isConnected = connectionForm.getConnectButton().getIcon() == AllIcons.Actions.Suspend;
@@ -421,80 +650,68 @@ public class MyToolWindowFactory implements ToolWindowFactory {
 
             String localPath = pushForm.getLocalJarPath();
             String remotePath = pushForm.getRemotePath();
-
-            File localFile = new File(localPath);
-            long localFileLength = localFile.length();
+            UploadMode uploadMode = pushForm.getUploadMode();
+            int channels = pushForm.getChannels();
+            int chunkSize = pushForm.getChunkSizeMb() * 1024 * 1024;
+            windowState.uploadChannels = channels;
+            windowState.uploadChunkSizeMb = pushForm.getChunkSizeMb();
+            windowState.uploadLimitKb = pushForm.getLimitKb();
+            long limit = pushForm.getLimitKb() * 1024L;
 
             pushForm.updateUploadButton(false);
-            JProgressBar progressBar = pushForm.getProgressBar();
 
             ApplicationManager.getApplication().executeOnPooledThread(() -> {
 
                 File remoteFile = new File(remotePath);
+                UploadProgressMonitor monitor = new UploadProgressMonitor(project, pushForm, consoleView,
+                        localPath, remotePath);
+                TransferMonitor throttled = ThrottledMonitor.of(monitor, limit);
 
                 try {
+                    if (SftpUtil.isIdentical(connectionUtils, localPath, remotePath)) {
+                        consoleView.appendLog(String.format("%s is identical to %s, upload skipped", remotePath, localPath),
+                                ConsoleViewContentType.NORMAL_OUTPUT);
+                        ConnectionNotifier.notifyConnectionResult(project, true, remoteFile.getName() + " is up to date!");
+                        SwingUtilities.invokeLater(() -> {
+                            pushForm.getProgressBar().setValue(100);
+                            pushForm.getUploadInfo().setText("up to date");
+                        });
+                        return;
+                    }
                     try {
                         connectionUtils.exec(CommandTemplate.MKDIRS_UNIX.render(remoteFile.getParent()));
                     }catch (Exception ignored){}
-                    connectionUtils.exec(CommandTemplate.DELETE_FILE_UNIX.render(remotePath));
-                    SftpUtil.upload(
-                            connectionForm.getHost(), connectionForm.getPort(), connectionForm.getUser(), connectionForm.getPassword(),
-                            localPath,
-                            remotePath,
-                            new SftpProgressMonitor() {
-                                long transferred = 0;
-                                final long startTime = System.currentTimeMillis();
-                                int lastLoggedProgress = 0;
-
-                                @Override
-                                public void init(int op, String src, String dest, long max) {
-                                    progressBar.setValue(0);
-                                    String logMsg = String.format("|%-20s|   0%% (start upload %s -> %s)",
-                                            "", localPath, dest);
-                                    consoleView.appendLog(logMsg, ConsoleViewContentType.NORMAL_OUTPUT);
-                                }
-
-                                @Override
-                                public boolean count(long count) {
-                                    transferred += count;
-                                    double progress = (double) transferred / localFileLength * 100;
-                                    long elapsed = System.currentTimeMillis() - startTime;
-                                    double speed = (elapsed > 0) ? transferred / 1024.0 / (elapsed / 1000.0) : 0;
-                                    String speedText;
-                                    int currentProgress = (int) progress;
-
-                                    if (speed >= 1024) {
-                                        speedText = String.format("%.2f MB/s", speed / 1024.0);
-                                    } else {
-                                        speedText = String.format("%.2f KB/s", speed);
-                                    }
-
-                                    if (currentProgress >= lastLoggedProgress + 5 || currentProgress == 100) {
-                                        int barLength = 20;
-                                        int filled = (int) (progress / 100 * barLength);
-                                        String bar = "|" + "=".repeat(filled) + " ".repeat(barLength - filled) + "|";
-                                        String logMsg = String.format("%s %3d%% (%s)", bar, currentProgress, speedText);
-
-                                        consoleView.appendLog(logMsg, ConsoleViewContentType.NORMAL_OUTPUT);
-                                        lastLoggedProgress = currentProgress;
-                                    }
-
-                                    SwingUtilities.invokeLater(() -> {
-                                        progressBar.setValue((int) progress);
-                                        pushForm.getUploadInfo().setText(String.format("%.0f%%   %s", progress, speedText));
-                                    });
-                                    return true;
-                                }
-
-                                @Override
-                                public void end() {
-                                    consoleView.appendLog( String.format("|%-20s|   100%% (upload complete %s -> %s)","", localPath, remotePath), ConsoleViewContentType.NORMAL_OUTPUT);
-                                    ConnectionNotifier.notifyConnectionResult(project, true, remoteFile.getName() + " Upload successful!");
-                                    pushForm.getUploadInfo().setText("100%");
-                                }
-                            }
-                    );
+                    if (uploadMode == UploadMode.DELTA) {
+                        String signatureKey = SignatureStore.key(connectionForm.getUser(), connectionForm.getHost(),
+                                connectionForm.getPort(), remotePath);
+                        SftpUtil.uploadDelta(connectionUtils, signatureKey,
+                                localPath,
+                                remotePath,
+                                throttled);
+                    } else if (uploadMode == UploadMode.LIBRARY_CACHE) {
+                        SftpUtil.uploadWithLibraryCache(connectionUtils,
+                                localPath,
+                                remotePath,
+                                throttled);
+                    } else {
+                        // the old JAR stays in place until the new one is complete, an interrupted upload resumes from its journal
+                        String journalKey = SignatureStore.key(connectionForm.getUser(), connectionForm.getHost(),
+                                connectionForm.getPort(), remotePath);
+                        PersistentStateService stateService = PersistentStateService.getInstance(project);
+                        SftpUtil.uploadParallel(connectionUtils,
+                                localPath,
+                                remotePath,
+                                channels,
+                                chunkSize,
+                                stateService.getUploadJournal(journalKey),
+                                throttled);
+                        stateService.removeUploadJournal(journalKey);
+                    }
+                    try {
+                        SftpUtil.markUploaded(connectionUtils, localPath, remotePath);
+                    }catch (Exception ignored){}
                 } catch (Exception ex) {
+                    monitor.failed();
                     ConnectionNotifier.notifyConnectionResult(project, false, remoteFile.getName() + " Upload fail!");
                     throw new RuntimeException(ex);
                 }finally {
@@ -24,6 +24,7 @@
 package org.htx.ui;
 
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
 import com.intellij.openapi.ui.ComponentValidator;
 import com.intellij.openapi.ui.ValidationInfo;
 import com.intellij.openapi.util.text.StringUtil;
@@ -31,7 +32,10 @@ import com.intellij.ui.DocumentAdapter;
 import com.intellij.ui.JBColor;
 import com.intellij.ui.components.JBTextField;
 import com.intellij.util.ui.JBUI;
+import org.htx.service.PersistentStateService;
 import org.htx.service.RegexUtil;
+import org.htx.transfer.TokenBucket;
+import org.htx.transfer.UploadMode;
 import org.jetbrains.annotations.NotNull;
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
@@ -52,13 +56,30 @@ public class PushForm {
 
     private final JBTextField localJarField = new JBTextField(20);
     private final JBTextField remoteJarField = new JBTextField(20);
+    private final ComboBox<UploadMode> modeBox = new ComboBox<>(UploadMode.values());
+    private final JSpinner channelsSpinner;
+    private final JSpinner chunkSizeSpinner;
+    private final JSpinner limitSpinner;
+    private final JSpinner globalLimitSpinner;
 
     private final JButton uploadButton = new JButton("Upload");
     private final JProgressBar progressBar = new JProgressBar(0, 100);
     private final JLabel uploadInfo = new JLabel("0% / 0 KB/s");
     private final JPanel mainPanel;
 
-    public PushForm(Project project) {
+    public PushForm(Project project, PersistentStateService.WindowState windowState) {
+
+        channelsSpinner = new JSpinner(new SpinnerNumberModel(Math.max(1, windowState.uploadChannels), 1, 16, 1));
+        chunkSizeSpinner = new JSpinner(new SpinnerNumberModel(Math.max(1, windowState.uploadChunkSizeMb), 1, 64, 1));
+        PersistentStateService.State state = PersistentStateService.getInstance(project).getState();
+        limitSpinner = new JSpinner(new SpinnerNumberModel(Math.max(0, windowState.uploadLimitKb), 0, 10_000_000, 256));
+        globalLimitSpinner = new JSpinner(new SpinnerNumberModel(Math.max(0, state.globalUploadLimitKb), 0, 10_000_000, 256));
+        limitSpinner.setToolTipText("KB/s for uploads of this tab, 0 = unlimited");
+        globalLimitSpinner.setToolTipText("KB/s shared by all uploads, 0 = unlimited");
+        globalLimitSpinner.addChangeListener(e -> {
+            state.globalUploadLimitKb = getGlobalLimitKb();
+            TokenBucket.global().setRate(getGlobalLimitKb() * 1024L);
+        });
 
         localJarField.getEmptyText().setText("Local JAR Path");
         remoteJarField.getEmptyText().setText("Remote JAR Path");
@@ -81,6 +102,36 @@ public class PushForm {
         gbc.gridx = 1;
         mainPanel.add(remoteJarField, gbc);
 
+        gbc.gridx = 0;
+        gbc.gridy++;
+        mainPanel.add(new JLabel("Mode:"), gbc);
+        gbc.gridx = 1;
+        mainPanel.add(modeBox, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        mainPanel.add(new JLabel("Channels:"), gbc);
+        gbc.gridx = 1;
+        JPanel parallelPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        parallelPanel.add(channelsSpinner);
+        parallelPanel.add(Box.createHorizontalStrut(10));
+        parallelPanel.add(new JLabel("Chunk MB:"));
+        parallelPanel.add(Box.createHorizontalStrut(5));
+        parallelPanel.add(chunkSizeSpinner);
+        mainPanel.add(parallelPanel, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        mainPanel.add(new JLabel("Limit KB/s:"), gbc);
+        gbc.gridx = 1;
+        JPanel limitPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        limitPanel.add(limitSpinner);
+        limitPanel.add(Box.createHorizontalStrut(10));
+        limitPanel.add(new JLabel("Global:"));
+        limitPanel.add(Box.createHorizontalStrut(5));
+        limitPanel.add(globalLimitSpinner);
+        mainPanel.add(limitPanel, gbc);
+
         gbc.gridx = 0;
         gbc.gridy++;
         gbc.gridwidth = 2;
@@ -207,6 +258,27 @@ public class PushForm {
         return remoteJarField.getText();
     }
 
+    public UploadMode getUploadMode() {
+        return (UploadMode) modeBox.getSelectedItem();
+    }
+
+    public int getChannels() {
+        return (Integer) channelsSpinner.getValue();
+    }
+
+    public int getChunkSizeMb() {
+        return (Integer) chunkSizeSpinner.getValue();
+    }
+
+    /** KB/s, 0 = unlimited */
+    public int getLimitKb() {
+        return (Integer) limitSpinner.getValue();
+    }
+
+    public int getGlobalLimitKb() {
+        return (Integer) globalLimitSpinner.getValue();
+    }
+
     public JProgressBar getProgressBar() {
         return progressBar;
     }
@@ -0,0 +1,143 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.ui;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.ValidationInfo;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.JBUI;
+import org.htx.log.LogLevel;
+import org.htx.service.PersistentStateService;
+import org.htx.service.RemoteLogTail;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Level, text and regex conditions the server applies to the followed log before sending it.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 11:00
+ * @Version 1.0
+ */
+public class RemoteFilterDialog extends DialogWrapper {
+
+    private static final String ANY_LEVEL = "Any";
+
+    private final PersistentStateService.WindowState windowState;
+    private final ComboBox<String> levelBox;
+    private final JBTextField loggerField = new JBTextField(30);
+    private final JBTextField regexField = new JBTextField(30);
+
+    public RemoteFilterDialog(Project project, PersistentStateService.WindowState windowState) {
+        super(project);
+        this.windowState = windowState;
+        List<String> levels = new ArrayList<>();
+        levels.add(ANY_LEVEL);
+        for (LogLevel level : LogLevel.values()) {
+            levels.add(level.name());
+        }
+        levelBox = new ComboBox<>(levels.toArray(new String[0]));
+        levelBox.setSelectedItem(windowState.remoteFilterLevel.isEmpty() ? ANY_LEVEL : windowState.remoteFilterLevel);
+        loggerField.setText(windowState.remoteFilterLogger);
+        loggerField.getEmptyText().setText("Text in the line, e.g. o.s.web");
+        regexField.setText(windowState.remoteFilterRegex);
+        regexField.getEmptyText().setText("Extended regex, e.g. requestId=(a1|b2)");
+        setTitle("Filter on Server");
+        init();
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JPanel panel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = JBUI.insets(5);
+        gbc.anchor = GridBagConstraints.LINE_START;
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+
+        panel.add(new JLabel("Level at least:"), gbc);
+        gbc.gridx = 1;
+        panel.add(levelBox, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        panel.add(new JLabel("Logger:"), gbc);
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        panel.add(loggerField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        gbc.weightx = 0;
+        panel.add(new JLabel("Regex:"), gbc);
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        panel.add(regexField, gbc);
+
+        gbc.gridx = 1;
+        gbc.gridy++;
+        panel.add(new JLabel("<html>Applied to the first line of each event; stack traces go with their event.</html>"), gbc);
+        return panel;
+    }
+
+    @Override
+    protected @Nullable ValidationInfo doValidate() {
+        String regex = regexField.getText().trim();
+        if (!regex.isEmpty()) {
+            // awk takes POSIX extended syntax, close enough to Java's to catch typos
+            try {
+                Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                return new ValidationInfo(e.getDescription(), regexField);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected void doOKAction() {
+        Object level = levelBox.getSelectedItem();
+        windowState.remoteFilterLevel = ANY_LEVEL.equals(level) || level == null ? "" : level.toString();
+        windowState.remoteFilterLogger = loggerField.getText().trim();
+        windowState.remoteFilterRegex = regexField.getText().trim();
+        super.doOKAction();
+    }
+
+    /**
+     * Filter of the saved state.
+     */
+    public static RemoteLogTail.Filter getFilter(PersistentStateService.WindowState windowState) {
+        LogLevel level = windowState.remoteFilterLevel.isEmpty() ? null : LogLevel.valueOf(windowState.remoteFilterLevel);
+        return new RemoteLogTail.Filter(level, windowState.remoteFilterLogger, windowState.remoteFilterRegex);
+    }
+}
@@ -0,0 +1,256 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.ui;
+
+import com.intellij.execution.impl.ConsoleViewImpl;
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionToolbar;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.ui.JBUI;
+import org.htx.log.LogClassifier;
+import org.htx.service.ConnectionNotifier;
+import org.htx.service.RemoteLogFile;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Pages through a remote log file of any size: shows about {@link #WINDOW_BYTES} of it at a time and fetches
+ * only those pages, from the start, the end, a time or next to the lines shown.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 19:00
+ * @Version 1.0
+ */
+public class RemoteLogViewer {
+
+    static final long WINDOW_BYTES = 256 * 1024;
+
+    private interface Load {
+        void run() throws IOException;
+    }
+
+    private final Project project;
+    private final RemoteLogFile file;
+    private final ConsoleView consoleView;
+    private final JPanel mainPanel = new JPanel(new BorderLayout());
+    private final JLabel status = new JLabel();
+    // byte range of the lines shown, guarded by this
+    private long windowStart;
+    private long windowEnd;
+
+    public RemoteLogViewer(Project project, RemoteLogFile file) {
+        this.project = project;
+        this.file = file;
+        this.consoleView = new ConsoleViewImpl(project, true);
+
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("JarPilotLogViewer", createActions(), true);
+        toolbar.setTargetComponent(consoleView.getComponent());
+        JPanel top = new JPanel(new BorderLayout());
+        top.add(toolbar.getComponent(), BorderLayout.WEST);
+        top.add(status, BorderLayout.CENTER);
+        status.setBorder(JBUI.Borders.empty(0, 8, 0, 8));
+
+        mainPanel.add(top, BorderLayout.NORTH);
+        mainPanel.add(consoleView.getComponent(), BorderLayout.CENTER);
+    }
+
+    public JPanel getMainPanel() {
+        return mainPanel;
+    }
+
+    /**
+     * Show the last lines of the file.
+     */
+    public void showEnd() {
+        load(() -> showFrom(file.lineStart(Math.max(0, file.length() - WINDOW_BYTES)), -1));
+    }
+
+    /**
+     * Close the file and the console.
+     */
+    public void dispose() {
+        ApplicationManager.getApplication().executeOnPooledThread(file::close);
+        Disposer.dispose(consoleView);
+    }
+
+    private DefaultActionGroup createActions() {
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(new AnAction("Start of File", "Show the first lines", AllIcons.Actions.Play_first) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                load(() -> showFrom(0, -1));
+            }
+        });
+        group.add(new AnAction("Earlier Lines", "Show the lines before these", AllIcons.Actions.MoveUp) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                load(() -> showBefore());
+            }
+        });
+        group.add(new AnAction("Later Lines", "Show the lines after these", AllIcons.Actions.MoveDown) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                load(() -> showFrom(windowEnd, -1));
+            }
+        });
+        group.add(new AnAction("End of File", "Show the last lines", AllIcons.Actions.Play_last) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                showEnd();
+            }
+        });
+        group.add(new AnAction("Go to Time", "Show the lines from a time on, found by binary search", AllIcons.Vcs.History) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                String text = Messages.showInputDialog(project, "Time (yyyy-MM-dd HH:mm[:ss], or HH:mm[:ss] on the last day of the log):",
+                        "Go to Time", Messages.getQuestionIcon());
+                if (StringUtil.isEmpty(text)) {
+                    return;
+                }
+                load(() -> {
+                    long millis = parseTime(text.trim());
+                    long start = System.nanoTime();
+                    long offset = file.findTime(millis);
+                    long found = (System.nanoTime() - start) / 1_000_000;
+                    showFrom(offset, found);
+                });
+            }
+        });
+        group.add(new AnAction("Reload", "Read the lines shown again, e.g. after the file grew", AllIcons.Actions.Refresh) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                load(() -> showFrom(windowStart, -1));
+            }
+        });
+        return group;
+    }
+
+    /**
+     * Run a load on a pooled thread, one at a time, and report its failure in the status line.
+     */
+    private void load(Load load) {
+        SwingUtilities.invokeLater(() -> status.setText("Loading " + file.getPath() + "..."));
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            synchronized (this) {
+                try {
+                    load.run();
+                } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+                    SwingUtilities.invokeLater(() -> status.setText("ERROR: " + e.getMessage()));
+                    ConnectionNotifier.notifyConnectionResult(project, false, "Reading " + file.getPath() + " failed: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * @param searchMillis time the offset search took, or -1
+     */
+    private void showFrom(long from, long searchMillis) throws IOException {
+        List<RemoteLogFile.Line> lines = file.readLines(from, WINDOW_BYTES, ConsoleBatcher.WINDOW_LINES);
+        show(from, lines.isEmpty() ? from : lines.get(lines.size() - 1).getEnd(), lines, searchMillis);
+    }
+
+    private void showBefore() throws IOException {
+        if (windowStart == 0) {
+            showFrom(0, -1);
+            return;
+        }
+        long from = file.lineStart(Math.max(0, windowStart - WINDOW_BYTES));
+        if (from >= windowStart) {
+            // a single line longer than the window, show the end of it
+            from = Math.max(0, windowStart - WINDOW_BYTES);
+        }
+        List<RemoteLogFile.Line> lines = file.readLines(from, windowStart - from, Integer.MAX_VALUE);
+        if (lines.size() > ConsoleBatcher.WINDOW_LINES) {
+            lines = lines.subList(lines.size() - ConsoleBatcher.WINDOW_LINES, lines.size());
+        }
+        show(lines.isEmpty() ? from : lines.get(0).getStart(), windowStart, lines, -1);
+    }
+
+    private void show(long start, long end, List<RemoteLogFile.Line> lines, long searchMillis) throws IOException {
+        windowStart = start;
+        windowEnd = end;
+        consoleView.clear();
+        LogClassifier classifier = new LogClassifier();
+        StringBuilder run = new StringBuilder();
+        ConsoleViewContentType runType = null;
+        for (RemoteLogFile.Line line : lines) {
+            ConsoleViewContentType type = classifier.classify(line.getText());
+            if (runType != null && runType != type) {
+                consoleView.print(run.toString(), runType);
+                run.setLength(0);
+            }
+            runType = type;
+            run.append(line.getText()).append('\n');
+        }
+        if (runType != null) {
+            consoleView.print(run.toString(), runType);
+        }
+        consoleView.scrollTo(0);
+
+        long length = file.length();
+        String text = String.format("Bytes %s to %s of %s, %d lines, %s fetched%s", StringUtil.formatFileSize(start),
+                StringUtil.formatFileSize(end), StringUtil.formatFileSize(length), lines.size(),
+                StringUtil.formatFileSize(file.getFetched()), searchMillis < 0 ? "" : ", found in " + searchMillis + " ms");
+        SwingUtilities.invokeLater(() -> status.setText(text));
+    }
+
+    /**
+     * Epoch millis of a local date and time; a time alone is on the day of the last line of the log.
+     */
+    private long parseTime(String text) throws IOException {
+        try {
+            if (text.indexOf('-') > 0) {
+                return LocalDateTime.parse(text.replace(' ', 'T')).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            }
+            LocalTime time = LocalTime.parse(text);
+            long last = file.lastTime();
+            LocalDate day = last < 0 ? LocalDate.now()
+                    : Instant.ofEpochMilli(last).atZone(ZoneId.systemDefault()).toLocalDate();
+            return day.atTime(time).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Not a time: " + text);
+        }
+    }
+}
@@ -26,11 +26,30 @@ package org.htx.ui;
 import com.intellij.execution.impl.ConsoleViewImpl;
 import com.intellij.execution.ui.ConsoleView;
 import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.actionSystem.ToggleAction;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
-import org.htx.log.LogColorDetector;
+import com.intellij.openapi.util.Disposer;
+import org.htx.log.LogClassifier;
+import org.htx.log.LogIndex;
+import org.htx.log.LogLayout;
+import org.htx.log.LogSearchIndex;
+import org.htx.log.LogStore;
+import org.htx.service.PersistentStateService;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
 
 /**
- * Console for displaying Spring Boot logs with color coding.
+ * Console for displaying Spring Boot logs with color coding. The whole log is kept off-heap in a
+ * {@link LogStore}, the console itself only shows a window of it. Streamed lines are parsed into a
+ * {@link LogIndex} to filter them by level, thread and logger, and every line goes into a {@link LogSearchIndex}
+ * for the search bar.
  *
  * @Author Hao Tong Xue
  * @Date 2025/8/20 10:30
@@ -38,22 +57,198 @@ import org.htx.log.LogColorDetector;
  */
 public class SpringBootLogConsole {
     private final ConsoleView consoleView;
+    private final LogStore store;
+    private final LogIndex index;
+    private final LogSearchIndex searchIndex;
+    private final ConsoleBatcher batcher;
+    private final LogClassifier classifier = new LogClassifier();
+    private final LogSearchPanel searchPanel;
+
+    public SpringBootLogConsole(Project project, long maxBytes, long maxLines) {
+        this(new ConsoleViewImpl(project, true), new LogStore(maxBytes, maxLines),
+                new LogIndex((int) Math.min(Integer.MAX_VALUE, maxLines)));
+    }
+
+    /**
+     * console around an existing view, e.g. a counting one in the benchmarks
+     */
+    public SpringBootLogConsole(ConsoleView consoleView) {
+        this(consoleView, new LogStore(), new LogIndex((int) LogStore.DEFAULT_MAX_LINES));
+    }
 
-    public SpringBootLogConsole(Project project) {
-        this.consoleView = new ConsoleViewImpl(project, true);
+    private SpringBootLogConsole(ConsoleView consoleView, LogStore store, LogIndex index) {
+        this.consoleView = consoleView;
+        this.store = store;
+        this.index = index;
+        this.searchIndex = new LogSearchIndex(store);
+        this.batcher = new ConsoleBatcher(consoleView, store, index, searchIndex);
+        this.searchPanel = new LogSearchPanel(this);
     }
 
     public ConsoleView getConsoleView() {
         return consoleView;
     }
 
+    /**
+     * Append a line of a log stream. Lines are printed in batches and the caller waits
+     * while the console is behind.
+     */
     public void appendLog(String line) {
-        ConsoleViewContentType type = LogColorDetector.detectType(line);
-        consoleView.print(line + "\n", type);
+        ConsoleViewContentType type = classifier.classify(line);
+        batcher.offer(line, type);
+    }
+
+    /**
+     * Sink for the lines of one more log stream, classified on their own so that a stack trace in one
+     * stream does not color the lines of another.
+     */
+    public Consumer<String> newStream() {
+        LogClassifier streamClassifier = new LogClassifier();
+        return line -> batcher.offer(line, streamClassifier.classify(line));
     }
 
     public void appendLog(String line, ConsoleViewContentType type) {
-        consoleView.print(line + "\n", type);
+        batcher.add(line, type);
+    }
+
+    /**
+     * Print the pending lines now.
+     */
+    public void flush() {
+        batcher.flush();
+    }
+
+    public LogStore getStore() {
+        return store;
+    }
+
+    public LogIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Search bar of the console, hidden until the find action shows it.
+     */
+    public LogSearchPanel getSearchPanel() {
+        return searchPanel;
+    }
+
+    /**
+     * Stored lines containing the text, newest first.
+     */
+    public LogSearchIndex.Hits search(String text, int limit) {
+        return searchIndex.search(text, store.end(), limit);
+    }
+
+    /**
+     * @return a stored line, or null when it was dropped
+     */
+    public String readLine(long line) {
+        String[] text = {null};
+        store.read(line, line + 1, (index, stored, type) -> text[0] = stored);
+        return text[0];
+    }
+
+    /**
+     * Stop following and show the window around a stored line.
+     *
+     * @return whether the line is still stored
+     */
+    public boolean showLine(long line) {
+        return batcher.showLine(line);
+    }
+
+    /**
+     * Parse the log with these patterns, one per line, or the defaults when empty. Indexes the stored lines again.
+     */
+    public void setLogPatterns(String patterns) {
+        index.setPatterns(LogLayout.patterns(patterns));
+        index.rebuild(store);
+    }
+
+    /**
+     * Show the newest events that match the filter instead of the live log.
+     */
+    public void showEvents(LogIndex.Filter filter) {
+        long start = System.nanoTime();
+        LogIndex.Matches matches = index.find(filter, 2 * ConsoleBatcher.WINDOW_LINES);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        batcher.showRanges(String.format("[JarPilot] %d of %d events match %s (%d ms), the newest are shown. Follow returns to the live log.",
+                matches.getTotal(), index.size(), filter, millis), matches.getRanges());
+    }
+
+    /**
+     * Actions to page through the stored log, search it and go back to following the stream.
+     */
+    public DefaultActionGroup createHistoryActions(Project project, PersistentStateService.WindowState windowState) {
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(new ToggleAction("Follow", "Show new lines as they come", AllIcons.RunConfigurations.Scroll_down) {
+            @Override
+            public boolean isSelected(@NotNull AnActionEvent e) {
+                return batcher.isFollowing();
+            }
+
+            @Override
+            public void setSelected(@NotNull AnActionEvent e, boolean state) {
+                if (state) {
+                    batcher.follow();
+                } else {
+                    batcher.showEarlier();
+                }
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.BGT;
+            }
+        });
+        group.add(new AnAction("Earlier Lines", "Show the previous " + ConsoleBatcher.WINDOW_LINES + " stored lines",
+                AllIcons.Actions.MoveUp) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                batcher.showEarlier();
+            }
+        });
+        group.add(new AnAction("Later Lines", "Show the next " + ConsoleBatcher.WINDOW_LINES + " stored lines",
+                AllIcons.Actions.MoveDown) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                batcher.showLater();
+            }
+        });
+        group.add(new AnAction("Find in Log History", "Search all stored lines, newest first", AllIcons.Actions.Find) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                searchPanel.toggle();
+            }
+        });
+        group.add(new AnAction("Filter Log", "Show the events of a level, thread or logger", AllIcons.General.Filter) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                String patterns = windowState.logPatterns;
+                LogFilterDialog dialog = new LogFilterDialog(project, windowState);
+                if (!dialog.showAndGet()) {
+                    return;
+                }
+                boolean reparse = !patterns.equals(windowState.logPatterns);
+                LogIndex.Filter filter = dialog.getFilter();
+                ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                    if (reparse) {
+                        setLogPatterns(windowState.logPatterns);
+                    }
+                    showEvents(filter);
+                });
+            }
+        });
+        return group;
+    }
+
+    /**
+     * Release the stored log and the console.
+     */
+    public void dispose() {
+        store.close();
+        Disposer.dispose(consoleView);
     }
 
 }
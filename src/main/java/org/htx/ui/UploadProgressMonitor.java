@@ -0,0 +1,214 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.ui;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.project.Project;
+import org.htx.service.ConnectionNotifier;
+import org.htx.transfer.TransferHistory;
+import org.htx.transfer.TransferProgress;
+import org.htx.transfer.TransferStats;
+
+import javax.swing.*;
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Renders upload progress into the push form and the tab console.
+ * The I/O threads only bump the counters of {@link TransferProgress}; a 10 Hz Swing timer renders
+ * percentage, current and average throughput and ETA, so the EDT sees ten events a second at most.
+ * Progress is measured against the logical JAR size, speed against the bytes actually sent.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/9 10:00
+ * @Version 1.0
+ */
+public class UploadProgressMonitor extends TransferProgress {
+
+    private static final int TICK_MILLIS = 100;
+    /** Weight of the newest tick in the smoothed current throughput. */
+    private static final double SMOOTHING = 0.3;
+
+    private final Project project;
+    private final PushForm pushForm;
+    private final SpringBootLogConsole consoleView;
+    private final String localPath;
+    private final String remotePath;
+    private final Timer timer = new Timer(TICK_MILLIS, e -> render());
+
+    // only touched on the EDT by the timer
+    private long lastSent;
+    private long lastTickNanos;
+    private double currentSpeed;
+    private int lastLoggedProgress;
+    private boolean reuseLogged;
+
+    public UploadProgressMonitor(Project project, PushForm pushForm, SpringBootLogConsole consoleView,
+                                 String localPath, String remotePath) {
+        this.project = project;
+        this.pushForm = pushForm;
+        this.consoleView = consoleView;
+        this.localPath = localPath;
+        this.remotePath = remotePath;
+    }
+
+    @Override
+    public void init(String src, String dest, long max) {
+        super.init(src, dest, max);
+        String logMsg = String.format("|%-20s|   0%% (start upload %s -> %s)",
+                "", localPath, dest);
+        consoleView.appendLog(logMsg, ConsoleViewContentType.NORMAL_OUTPUT);
+        SwingUtilities.invokeLater(() -> {
+            pushForm.getProgressBar().setValue(0);
+            lastTickNanos = System.nanoTime();
+            timer.start();
+        });
+    }
+
+    @Override
+    public void end() {
+        super.end();
+        TransferStats stats = finish(true);
+        String summary = stats.getReused() > 0
+                ? String.format("upload complete %s -> %s, sent %s of %s in %s, avg %s", localPath, remotePath,
+                formatSize(stats.getSent()), formatSize(stats.getTotal()),
+                formatDuration(stats.getElapsedNanos()), formatSpeed(stats.getAverageThroughput()))
+                : String.format("upload complete %s -> %s in %s, avg %s", localPath, remotePath,
+                formatDuration(stats.getElapsedNanos()), formatSpeed(stats.getAverageThroughput()));
+        consoleView.appendLog(String.format("|%-20s|   100%% (%s)", "", summary), ConsoleViewContentType.NORMAL_OUTPUT);
+        ConnectionNotifier.notifyConnectionResult(project, true, new File(remotePath).getName() + " Upload successful!");
+        SwingUtilities.invokeLater(() -> {
+            pushForm.getProgressBar().setValue(100);
+            pushForm.getUploadInfo().setText("100%");
+        });
+    }
+
+    /**
+     * Stop rendering after the upload failed, keeping its statistics.
+     */
+    public void failed() {
+        if (getElapsedNanos() == 0) {
+            // failed before the transfer started
+            return;
+        }
+        super.end();
+        finish(false);
+    }
+
+    private TransferStats finish(boolean success) {
+        TransferStats stats = toStats(success);
+        TransferHistory.record(stats);
+        SwingUtilities.invokeLater(() -> {
+            timer.stop();
+            pushForm.getUploadInfo().setToolTipText(historyTooltip());
+        });
+        return stats;
+    }
+
+    private void render() {
+        long total = getTotal();
+        long sent = getSent();
+        long reused = getReused();
+        long now = System.nanoTime();
+
+        double tickSpeed = (sent - lastSent) * 1_000_000_000.0 / Math.max(1, now - lastTickNanos);
+        currentSpeed = lastSent == 0 ? tickSpeed : SMOOTHING * tickSpeed + (1 - SMOOTHING) * currentSpeed;
+        lastSent = sent;
+        lastTickNanos = now;
+
+        if (reused > 0 && !reuseLogged) {
+            consoleView.appendLog(String.format("Reusing %s of %s from the remote JAR",
+                    formatSize(reused), formatSize(total)), ConsoleViewContentType.NORMAL_OUTPUT);
+            reuseLogged = true;
+        }
+
+        double progress = total > 0 ? Math.min(100.0, (double) (sent + reused) / total * 100) : 0;
+        int currentProgress = (int) progress;
+        long elapsed = getElapsedNanos();
+        double averageSpeed = elapsed > 0 ? sent * 1_000_000_000.0 / elapsed : 0;
+        long remaining = Math.max(0, total - sent - reused);
+        double etaSpeed = currentSpeed > 0 ? currentSpeed : averageSpeed;
+
+        String speedText = formatSpeed(currentSpeed) + " (avg " + formatSpeed(averageSpeed) + ")";
+        if (etaSpeed > 0) {
+            speedText += ", ETA " + formatDuration((long) (remaining / etaSpeed * 1_000_000_000L));
+        }
+        if (reused > 0) {
+            speedText += ", sent " + formatSize(sent) + " / " + formatSize(total);
+        }
+
+        if (currentProgress >= lastLoggedProgress + 5) {
+            int barLength = 20;
+            int filled = (int) (progress / 100 * barLength);
+            String bar = "|" + "=".repeat(filled) + " ".repeat(barLength - filled) + "|";
+            consoleView.appendLog(String.format("%s %3d%% (%s)", bar, currentProgress, speedText),
+                    ConsoleViewContentType.NORMAL_OUTPUT);
+            lastLoggedProgress = currentProgress;
+        }
+
+        pushForm.getProgressBar().setValue(currentProgress);
+        pushForm.getUploadInfo().setText(String.format("%d%%   %s", currentProgress, speedText));
+    }
+
+    private static String historyTooltip() {
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss");
+        StringBuilder html = new StringBuilder("<html>Recent uploads:");
+        List<TransferStats> recent = TransferHistory.recent();
+        for (TransferStats stats : recent.subList(0, Math.min(10, recent.size()))) {
+            html.append("<br>").append(time.format(new Date(stats.getFinishedAt())))
+                    .append(stats.isSuccess() ? "  " : "  FAILED  ")
+                    .append(new File(stats.getDestination()).getName())
+                    .append(": sent ").append(formatSize(stats.getSent()))
+                    .append(" of ").append(formatSize(stats.getTotal()))
+                    .append(" in ").append(formatDuration(stats.getElapsedNanos()))
+                    .append(", ").append(formatSpeed(stats.getAverageThroughput()));
+        }
+        return html.append("</html>").toString();
+    }
+
+    private static String formatSpeed(double bytesPerSecond) {
+        double speed = bytesPerSecond / 1024.0;
+        if (speed >= 1024) {
+            return String.format("%.2f MB/s", speed / 1024.0);
+        }
+        return String.format("%.2f KB/s", speed);
+    }
+
+    private static String formatDuration(long nanos) {
+        long seconds = nanos / 1_000_000_000L;
+        if (seconds < 60) {
+            return String.format("%.1f s", nanos / 1_000_000_000.0);
+        }
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes >= 1024 * 1024) {
+            return String.format("%.2f MB", bytes / 1024.0 / 1024.0);
+        }
+        return String.format("%.2f KB", bytes / 1024.0);
+    }
+}
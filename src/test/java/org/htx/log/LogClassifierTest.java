@@ -0,0 +1,102 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.log;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * The hand-written scanner must classify every line like the regex rules of {@link LogColorDetector}.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 20:00
+ * @Version 1.0
+ */
+class LogClassifierTest {
+
+    /** level names, exception names and stack frame shapes, with the word boundary cases of regex \b */
+    private static final String[] TOKENS = {
+            "INFO", "info", "Info", "WARN", "warning", "WARNING", "ERROR", "Error", "error", "FATAL", "DEBUG",
+            "TRACE", "trace", "INFOx", "xINFO", "_INFO", "INFO_", "INFO1", "éINFO", "INFÓ", "́INFO",
+            "𝐀INFO", "INFO𝐀",
+            "java.lang.IllegalStateException", "IllegalStateException", "XException", "XyException", "AError",
+            "AbError", "java.lang.Error", "a.b.C$DException", ".FooException", "a..FooException",
+            "com.x.Foo_Bar$1Error", "lower.fooException", "a-b.FooException",
+            "Caused by:", "  Caused by:", "\tCaused by:", "\nCaused by:", "caused by:", "Suppressed:",
+            "\tat com.x.Y.z(Y.java:1)", "at com.x.Info.get(Info.java:2)", "... 5 more",
+            ":", ": ", "msg", " ", "  ", "\t", "\n", "\r", "\r\n", "\u0085", " ", "[", "]", "-",
+            "2025-10-17", "12:00:00.123", "---", "é", "日本", "́", "𝐀", "𝅧",
+            "\uD800", "\uDC00", "ı", "K", "$", "."
+    };
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void sameTypesAsTheRegexRules() {
+        Random random = new Random(1);
+        LogClassifier classifier = new LogClassifier();
+        // the detector keeps its stack trace state in a static field, an empty line resets it
+        LogColorDetector.detectType("");
+        for (int i = 0; i < 300_000; i++) {
+            StringBuilder line = new StringBuilder();
+            int tokens = random.nextInt(10) == 0 ? 0 : random.nextInt(6);
+            for (int t = 0; t < tokens; t++) {
+                line.append(TOKENS[random.nextInt(TOKENS.length)]);
+            }
+            String text = line.toString();
+            assertSame(LogColorDetector.detectType(text), classifier.classify(text), () -> "line " + escape(text));
+        }
+    }
+
+    @Test
+    void stackTraceStateIsPerClassifier() {
+        LogClassifier first = new LogClassifier();
+        LogClassifier second = new LogClassifier();
+        assertEquals(ConsoleViewContentType.LOG_ERROR_OUTPUT, first.classify("java.lang.IllegalStateException: boom"));
+        assertEquals(ConsoleViewContentType.LOG_ERROR_OUTPUT, first.classify("\tat com.x.Y.z(Y.java:1)"));
+        assertEquals(ConsoleViewContentType.LOG_INFO_OUTPUT, second.classify("\tat com.x.Y.z(Y.java:1)"));
+        assertEquals(ConsoleViewContentType.LOG_ERROR_OUTPUT, first.classify("plain text inside the throwable"));
+        assertEquals(ConsoleViewContentType.LOG_WARNING_OUTPUT, first.classify("2025-10-19 10:00:00.000  INFO 1 --- [main] a.B : next"));
+        assertEquals(ConsoleViewContentType.LOG_INFO_OUTPUT, first.classify("plain text after the throwable"));
+    }
+
+    @Test
+    void levelNameInAFrameEndsTheThrowable() {
+        LogClassifier classifier = new LogClassifier();
+        classifier.classify("Caused by: java.io.IOException: closed");
+        // like the regex rules, a level word anywhere on the line wins over the stack trace state
+        assertEquals(ConsoleViewContentType.LOG_WARNING_OUTPUT, classifier.classify("\tat com.x.Info.get(Info.java:2)"));
+        assertEquals(ConsoleViewContentType.LOG_INFO_OUTPUT, classifier.classify("\tat com.x.Y.z(Y.java:1)"));
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder();
+        text.codePoints().forEach(c -> escaped.append(c >= 32 && c < 127 ? String.valueOf((char) c) : String.format("<%X>", c)));
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.log;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Filters must give the events a scan of the stored lines gives, before and after a rebuild.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 20:00
+ * @Version 1.0
+ */
+class LogIndexTest {
+
+    private static final long T0 = OffsetDateTime.parse("2025-10-19T08:00:00Z").toInstant().toEpochMilli();
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+    private static final String[] LEVELS = {"TRACE", "DEBUG", "INFO", "WARN", "ERROR"};
+    private static final String[] THREADS = {"main", "nio-8080-exec-1", "pool-1-thread-2"};
+    private static final String[] LOGGERS = {"o.s.web.Servlet", "com.example.Service", "com.example.Repository"};
+
+    private final LogStore store = new LogStore();
+    private final LogIndex index = new LogIndex(0);
+
+    /** start line, time, level, thread and logger of every event written */
+    private final List<long[]> events = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        store.close();
+    }
+
+    @Test
+    void filtersMatchAScan() {
+        write(3000, new Random(5));
+        assertEquals(events.size(), index.size());
+        checkFilters();
+    }
+
+    @Test
+    void newestEventsWithinTheLimit() {
+        write(50, new Random(6));
+        LogIndex.Matches all = index.find(new LogIndex.Filter(), Integer.MAX_VALUE);
+        LogIndex.Matches newest = index.find(new LogIndex.Filter(), 3);
+        assertEquals(events.size(), newest.getTotal());
+        long[] ranges = all.getRanges();
+        assertArrayEquals(Arrays.copyOfRange(ranges, ranges.length - 6, ranges.length), newest.getRanges());
+        assertEquals(0, index.find(new LogIndex.Filter(), 0).getRanges().length);
+        assertEquals(0, index.find(new LogIndex.Filter().thread("nobody"), 10).getTotal());
+    }
+
+    @Test
+    void rangesCoverTheContinuationLines() {
+        add("2025-10-19T08:00:00.000Z ERROR 1 --- [main] a.B : failed");
+        add("java.lang.IllegalStateException: boom");
+        add("\tat a.B.c(B.java:1)");
+        add("2025-10-19T08:00:01.000Z  INFO 1 --- [main] a.B : next");
+        assertArrayEquals(new long[]{0, 3, 3, 4}, index.find(new LogIndex.Filter(), 10).getRanges());
+        assertArrayEquals(new long[]{0, 3}, index.find(new LogIndex.Filter().level(LogLevel.WARN), 10).getRanges());
+    }
+
+    @Test
+    void skippedLinesStayOutOfARebuild() {
+        write(500, new Random(7));
+        long status = store.append("2025-10-19T08:00:00.000Z ERROR 1 --- [main] a.B : status", ConsoleViewContentType.SYSTEM_OUTPUT);
+        index.skip(status);
+        write(500, new Random(8));
+        int size = index.size();
+
+        index.rebuild(store);
+        assertEquals(size, index.size());
+        checkFilters();
+
+        // a line marked after a rebuild read it is taken out again
+        long late = store.append("2025-10-19T08:00:00.000Z ERROR 1 --- [main] a.B : late", ConsoleViewContentType.SYSTEM_OUTPUT);
+        index.rebuild(store);
+        index.skip(late);
+        assertEquals(size, index.size());
+        assertFalse(index.add(late, "2025-10-19T08:00:00.000Z ERROR 1 --- [main] a.B : late"));
+    }
+
+    @Test
+    void linesAreAddedOnce() {
+        write(100, new Random(9));
+        int size = index.size();
+        index.rebuild(store);
+        long[] first = events.get(0);
+        assertFalse(index.add(first[0], "2025-10-19T08:00:00.000Z ERROR 1 --- [main] a.B : again"));
+        assertEquals(size, index.size());
+    }
+
+    @Test
+    void patternsApplyToTheRebuild() {
+        add("08:00:00.000 [main] WARN  com.example.Service - logback");
+        add("2025-10-19T08:00:00.000Z ERROR 1 --- [main] a.B : boot");
+        index.setPatterns(List.of(LogLayout.LOGBACK));
+        index.rebuild(store);
+        assertEquals(1, index.size());
+        assertEquals(1, index.find(new LogIndex.Filter().logger("example"), 10).getTotal());
+    }
+
+    private void checkFilters() {
+        List<LogIndex.Filter> filters = new ArrayList<>();
+        List<Predicate<long[]>> expected = new ArrayList<>();
+        filters.add(new LogIndex.Filter());
+        expected.add(e -> true);
+        for (LogLevel level : LogLevel.values()) {
+            filters.add(new LogIndex.Filter().level(level));
+            expected.add(e -> e[2] >= level.ordinal());
+        }
+        for (int t = 0; t < THREADS.length; t++) {
+            int thread = t;
+            filters.add(new LogIndex.Filter().thread(THREADS[t]).level(LogLevel.INFO));
+            expected.add(e -> e[3] == thread && e[2] >= LogLevel.INFO.ordinal());
+        }
+        filters.add(new LogIndex.Filter().logger("example"));
+        expected.add(e -> e[4] > 0);
+        filters.add(new LogIndex.Filter().logger("Repo").time(T0 + 60_000, T0 + 600_000));
+        expected.add(e -> e[4] == 2 && e[1] >= T0 + 60_000 && e[1] < T0 + 600_000);
+
+        for (int f = 0; f < filters.size(); f++) {
+            LogIndex.Matches matches = index.find(filters.get(f), Integer.MAX_VALUE);
+            List<Long> starts = new ArrayList<>();
+            for (int i = 0; i < events.size(); i++) {
+                if (expected.get(f).test(events.get(i))) {
+                    starts.add(events.get(i)[0]);
+                }
+            }
+            assertEquals(starts.size(), matches.getTotal(), filters.get(f).toString());
+            long[] ranges = matches.getRanges();
+            assertEquals(starts.size() * 2, ranges.length);
+            for (int i = 0; i < starts.size(); i++) {
+                assertEquals(starts.get(i), ranges[2 * i], filters.get(f).toString());
+                assertTrue(ranges[2 * i + 1] > ranges[2 * i]);
+            }
+        }
+    }
+
+    /**
+     * Events with a random level, thread and logger, some followed by lines of a stack trace.
+     */
+    private void write(int count, Random random) {
+        long time = T0 + events.size() * 1000L;
+        for (int i = 0; i < count; i++) {
+            time += random.nextInt(1000);
+            int level = random.nextInt(LEVELS.length);
+            int thread = random.nextInt(THREADS.length);
+            int logger = random.nextInt(LOGGERS.length);
+            String stamp = STAMP.format(Instant.ofEpochMilli(time).atOffset(ZoneOffset.UTC));
+            long line = add(String.format("%s %5s 42 --- [%s] %-40s : message %d",
+                    stamp, LEVELS[level], THREADS[thread], LOGGERS[logger], i));
+            events.add(new long[]{line, time, level, thread, logger});
+            for (int frames = random.nextInt(10) < 2 ? 3 : 0; frames > 0; frames--) {
+                add("\tat com.example.Service.run(Service.java:" + frames + ")");
+            }
+        }
+    }
+
+    private long add(String text) {
+        long line = store.append(text, ConsoleViewContentType.NORMAL_OUTPUT);
+        index.add(line, text);
+        return line;
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fields and timestamps of lines written with the default layouts, and lines that are not.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 20:00
+ * @Version 1.0
+ */
+class LogLayoutTest {
+
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    private final LogLayout.Event event = new LogLayout.Event();
+
+    @Test
+    void springBoot3Fields() {
+        LogLayout layout = new LogLayout(LogLayout.SPRING_BOOT_3_APPLICATION, BERLIN);
+        String line = "2025-10-19T12:30:45.678+08:00  WARN 4242 --- [demo] [nio-8080-exec-1 x] "
+                + "o.a.c.c.C.[Tomcat].[localhost]          : Slow request";
+        assertTrue(layout.parse(line, event));
+        assertEquals(OffsetDateTime.parse("2025-10-19T12:30:45.678+08:00").toInstant().toEpochMilli(), event.getTime());
+        assertEquals(LogLevel.WARN, event.getLevel());
+        assertEquals("nio-8080-exec-1 x", field(line, event.getThreadStart(), event.getThreadEnd()));
+        assertEquals("o.a.c.c.C.[Tomcat].[localhost]", field(line, event.getLoggerStart(), event.getLoggerEnd()));
+        assertEquals("Slow request", line.substring(event.getMessageStart()));
+    }
+
+    @Test
+    void utcDesignator() {
+        LogLayout layout = new LogLayout(LogLayout.SPRING_BOOT_3, BERLIN);
+        assertTrue(layout.parse("2025-01-01T00:00:00.001Z ERROR 1 --- [main] a.B : x", event));
+        assertEquals(1_735_689_600_001L, event.getTime());
+        assertEquals(LogLevel.ERROR, event.getLevel());
+    }
+
+    @Test
+    void localTimesFollowTheZone() {
+        LogLayout layout = new LogLayout(LogLayout.SPRING_BOOT_2, BERLIN);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+        Random random = new Random(4);
+        for (int i = 0; i < 20_000; i++) {
+            // 1900 to 2100, across daylight saving changes
+            LocalDateTime time = LocalDateTime.of(1900, 1, 1, 0, 0)
+                    .plusSeconds((long) (random.nextDouble() * 200 * 365.25 * 86_400))
+                    .withNano(random.nextInt(1000) * 1_000_000);
+            String line = time.format(format) + "  INFO 7 --- [main] a.B : m";
+            assertTrue(layout.parse(line, event), line);
+            assertEquals(time.atZone(BERLIN).toInstant().toEpochMilli(), event.getTime(), line);
+        }
+    }
+
+    @Test
+    void logbackWithoutDay() {
+        LogLayout layout = new LogLayout(LogLayout.LOGBACK, ZoneOffset.UTC);
+        String line = "23:59:59.999 [pool-1-thread-2] DEBUG com.example.Service - done";
+        assertTrue(layout.parse(line, event));
+        assertEquals(86_399_999L, Math.floorMod(event.getTime(), 86_400_000L));
+        assertEquals(LogLevel.DEBUG, event.getLevel());
+        assertEquals("pool-1-thread-2", field(line, event.getThreadStart(), event.getThreadEnd()));
+        assertEquals("com.example.Service", field(line, event.getLoggerStart(), event.getLoggerEnd()));
+        assertEquals("done", line.substring(event.getMessageStart()));
+    }
+
+    @Test
+    void rejectsOtherLines() {
+        LogLayout layout = new LogLayout(LogLayout.SPRING_BOOT_2, BERLIN);
+        for (String line : List.of(
+                "",
+                "\tat com.x.Y.z(Y.java:1)",
+                "2025-13-19 12:30:45.678  INFO 7 --- [main] a.B : month 13",
+                "2025-10-19 24:30:45.678  INFO 7 --- [main] a.B : hour 24",
+                "2025-10-19 12:30:45.678  LOUD 7 --- [main] a.B : no level",
+                "2025-10-19 12:30:45.678  INFO x7 --- [main] a.B : no pid",
+                "2025-10-19 12:30:45.678  INFO 7 --- [main a.B : no bracket",
+                "2025-10-19 12:30:45  INFO 7 --- [main] a.B : no millis")) {
+            assertFalse(layout.parse(line, event), line);
+        }
+        assertNull(event.getLevel());
+        assertEquals(-1, event.getTime());
+    }
+
+    @Test
+    void patternsOnePerLine() {
+        assertEquals(LogLayout.DEFAULTS, LogLayout.patterns(" \n "));
+        assertEquals(List.of("%d %p %m", "%t %m"), LogLayout.patterns("  %d %p %m\r\n\n%t %m  "));
+        assertThrows(IllegalArgumentException.class, () -> new LogLayout("%d{HH:mm %m"));
+        assertThrows(IllegalArgumentException.class, () -> new LogLayout("%d %d %m"));
+    }
+
+    private static String field(String line, int start, int end) {
+        return line.substring(start, end);
+    }
+}
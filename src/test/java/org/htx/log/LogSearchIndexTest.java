@@ -0,0 +1,154 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.log;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Searches must find the lines a scan of the whole store finds, while the store drops its oldest lines.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 20:00
+ * @Version 1.0
+ */
+class LogSearchIndexTest {
+
+    private static final String[] WORDS = {
+            "GET", "POST", "/api/orders", "/api/users", "status=200", "status=500", "took", "ms", "userId=",
+            "订单", "支付失败", "😀", "null", "NullPointerException", "at", "com.example.Service", "-", " ", "  "
+    };
+
+    private final Random random = new Random(10);
+    private final LogStore store = new LogStore(2 * LogStore.SEGMENT_BYTES, 40_000);
+    private final LogSearchIndex index = new LogSearchIndex(store);
+
+    @AfterEach
+    void close() {
+        store.close();
+    }
+
+    @Test
+    void findsWhatAScanFinds() {
+        write(30_000);
+        check(0);
+        // a rare text only reads the blocks that have it
+        long rare = store.append("unique-marker-7f3a", ConsoleViewContentType.NORMAL_OUTPUT);
+        index.add(rare, "unique-marker-7f3a");
+        LogSearchIndex.Hits hits = index.search("marker-7f3a", Long.MAX_VALUE, 10);
+        assertArrayEquals(new long[]{rare}, hits.getLines());
+        assertTrue(hits.getScanned() <= LogSearchIndex.BLOCK_LINES, "scanned " + hits.getScanned());
+    }
+
+    @Test
+    void droppedLinesLeaveTheIndex() {
+        for (int round = 0; round < 8; round++) {
+            write(25_000);
+            check(round);
+        }
+        long stored = store.end() - store.first();
+        assertTrue(index.capacity() <= (stored / LogSearchIndex.BLOCK_LINES + 2) * LogSearchIndex.BLOCK_BYTES,
+                "capacity " + index.capacity() + " for " + stored + " lines");
+    }
+
+    @Test
+    void shortTextsAndLimits() {
+        write(2000);
+        String[] texts = {"", "a", "ms", "😀", "订单"};
+        for (String text : texts) {
+            for (int limit : new int[]{0, 1, 50, Integer.MAX_VALUE >> 8}) {
+                assertArrayEquals(scan(text, Long.MAX_VALUE, limit), index.search(text, Long.MAX_VALUE, limit).getLines(),
+                        "'" + text + "' limit " + limit);
+            }
+        }
+    }
+
+    /**
+     * Compare searches for random parts of stored lines, before random positions, with a scan.
+     */
+    private void check(int round) {
+        List<String> texts = new ArrayList<>(Arrays.asList("status=500", "支付", "Exception", "no such text"));
+        long first = store.first();
+        for (int i = 0; i < 20; i++) {
+            long line = first + random.nextInt((int) (store.end() - first));
+            String[] text = {null};
+            store.read(line, line + 1, (at, stored, type) -> text[0] = stored);
+            if (text[0].length() >= 4) {
+                int start = random.nextInt(text[0].length() - 3);
+                String part = text[0].substring(start, Math.min(text[0].length(), start + 3 + random.nextInt(12)));
+                // half an emoji has no UTF-8 bytes to look for
+                if (!Character.isLowSurrogate(part.charAt(0)) && !Character.isHighSurrogate(part.charAt(part.length() - 1))) {
+                    texts.add(part);
+                }
+            }
+        }
+        for (String text : texts) {
+            long before = random.nextBoolean() ? Long.MAX_VALUE : first + random.nextInt((int) (store.end() - first));
+            LogSearchIndex.Hits hits = index.search(text, before, 100);
+            assertArrayEquals(scan(text, before, 100), hits.getLines(), "round " + round + " '" + text + "' before " + before);
+            for (long hit : hits.getLines()) {
+                assertTrue(hit >= store.first());
+            }
+        }
+    }
+
+    private long[] scan(String text, long before, int limit) {
+        List<Long> lines = new ArrayList<>();
+        if (!text.isEmpty()) {
+            store.read(store.first(), Math.min(before, store.end()), (line, stored, type) -> {
+                if (stored.contains(text)) {
+                    lines.add(line);
+                }
+            });
+        }
+        long[] newest = new long[Math.min(Math.max(limit, 0), lines.size())];
+        for (int i = 0; i < newest.length; i++) {
+            newest[i] = lines.get(lines.size() - 1 - i);
+        }
+        return newest;
+    }
+
+    private void write(int count) {
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int words = random.nextInt(12); words > 0; words--) {
+                text.append(WORDS[random.nextInt(WORDS.length)]);
+                if (random.nextInt(4) == 0) {
+                    text.append(random.nextInt(100_000));
+                }
+            }
+            String line = text.toString();
+            index.add(store.append(line, ConsoleViewContentType.NORMAL_OUTPUT), line);
+        }
+    }
+}
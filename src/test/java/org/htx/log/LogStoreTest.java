@@ -0,0 +1,184 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.log;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The oldest segment goes at either cap, while reads and searches keep to the lines still stored.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 20:00
+ * @Version 1.0
+ */
+class LogStoreTest {
+
+    private static final ConsoleViewContentType[] TYPES = {
+            ConsoleViewContentType.NORMAL_OUTPUT, ConsoleViewContentType.ERROR_OUTPUT, ConsoleViewContentType.SYSTEM_OUTPUT
+    };
+    /** type id and byte length in front of every stored line */
+    private static final int HEADER_BYTES = 5;
+
+    private LogStore store;
+    /** every line written, by index */
+    private final List<String> written = new ArrayList<>();
+    private final List<ConsoleViewContentType> writtenTypes = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        store.close();
+    }
+
+    @Test
+    void byteCapDropsTheOldestSegment() {
+        store = new LogStore(3L * LogStore.SEGMENT_BYTES, Long.MAX_VALUE);
+        int lineBytes = 1000;
+        int perSegment = LogStore.SEGMENT_BYTES / (HEADER_BYTES + lineBytes);
+        for (int i = 0; i < 10_000; i++) {
+            append(String.format("%08d", i) + "x".repeat(lineBytes - 8), TYPES[0]);
+            assertTrue(store.capacity() <= 3L * LogStore.SEGMENT_BYTES, "capacity " + store.capacity());
+        }
+        // the newest segment is filling, the two before it are full
+        long newest = store.end() / perSegment * perSegment;
+        assertEquals(newest - 2L * perSegment, store.first());
+        assertEquals(3L * LogStore.SEGMENT_BYTES, store.capacity());
+        checkRead(0, store.end());
+
+        // the next segment takes the buffer of the oldest one
+        for (long i = store.end(); i < newest + perSegment + 1; i++) {
+            append(String.format("%08d", i) + "x".repeat(lineBytes - 8), TYPES[0]);
+        }
+        assertEquals(newest - perSegment, store.first());
+        assertEquals(3L * LogStore.SEGMENT_BYTES, store.capacity());
+    }
+
+    @Test
+    void lineCapDropsTheOldestSegment() {
+        // segments of an eighth of the cap, 100 lines
+        store = new LogStore(LogStore.DEFAULT_MAX_BYTES, 800);
+        for (int i = 0; i < 2000; i++) {
+            append("line " + i, TYPES[i % TYPES.length]);
+            assertTrue(store.end() - store.first() <= 800, "stored " + (store.end() - store.first()));
+        }
+        assertEquals(1200, store.first());
+        assertEquals(8L * LogStore.SEGMENT_BYTES, store.capacity());
+
+        append("one more", TYPES[0]);
+        assertEquals(1300, store.first());
+        assertEquals(701, store.end() - store.first());
+        checkRead(0, store.end());
+    }
+
+    @Test
+    void readsAcrossSegmentBoundaries() {
+        store = new LogStore(4L * LogStore.SEGMENT_BYTES, Long.MAX_VALUE);
+        Random random = new Random(21);
+        String[] words = {"GET /api/orders", "订单", "支付失败", "😀", "status=500", "\tat com.example.Service.run"};
+        for (int i = 0; i < 4000; i++) {
+            StringBuilder line = new StringBuilder().append(i).append(' ');
+            for (int n = random.nextInt(300); n > 0; n--) {
+                line.append(words[random.nextInt(words.length)]);
+            }
+            append(line.toString(), TYPES[random.nextInt(TYPES.length)]);
+        }
+        assertTrue(store.first() > 0, "the byte cap was reached");
+        for (int i = 0; i < 200; i++) {
+            long from = random.nextInt((int) store.end() + 10) - 5;
+            checkRead(from, from + random.nextInt(2000));
+        }
+        checkRead(store.first() - 1, store.first() + 1);
+        checkRead(store.end() - 1, store.end() + 1);
+        checkRead(store.end(), store.end() + 10);
+        checkRead(10, 5);
+    }
+
+    @Test
+    void findAllSkipsTheDroppedPartOfARange() {
+        store = new LogStore(LogStore.DEFAULT_MAX_BYTES, 800);
+        for (int i = 0; i < 2000; i++) {
+            append(i % 7 == 0 ? "订单 " + i + " 支付失败" : "line " + i, TYPES[0]);
+        }
+        assertEquals(1200, store.first());
+        assertEquals(43, checkFind("支付失败", 1000, 1500, Integer.MAX_VALUE));
+        assertEquals(0, checkFind("支付失败", 0, 1100, Integer.MAX_VALUE));
+        checkFind("支付失败", 1150, 5000, Integer.MAX_VALUE);
+        checkFind("line 11", 0, Long.MAX_VALUE, Integer.MAX_VALUE);
+        // stopped by the predicate
+        checkFind("支付失败", 0, Long.MAX_VALUE, 5);
+        checkFind("支付失败", 1000, 1300, 1);
+        checkFind("", 0, Long.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    private void append(String line, ConsoleViewContentType type) {
+        assertEquals(written.size(), store.append(line, type));
+        written.add(line);
+        writtenTypes.add(type);
+    }
+
+    /**
+     * Read a range and compare with the written lines still stored.
+     */
+    private void checkRead(long from, long to) {
+        List<Long> lines = new ArrayList<>();
+        store.read(from, to, (index, text, type) -> {
+            assertEquals(written.get((int) index), text, "line " + index);
+            assertEquals(writtenTypes.get((int) index), type, "line " + index);
+            lines.add(index);
+        });
+        long start = Math.max(from, store.first());
+        long expected = start;
+        for (long index : lines) {
+            assertEquals(expected++, index, "read " + from + " to " + to);
+        }
+        assertEquals(Math.max(start, Math.min(to, store.end())), expected, "read " + from + " to " + to);
+    }
+
+    /**
+     * Search a range and compare with a scan of the written lines still stored, newest first.
+     */
+    private int checkFind(String text, long from, long to, int limit) {
+        List<Long> expected = new ArrayList<>();
+        for (long index = Math.min(to, store.end()) - 1; index >= Math.max(from, store.first()) && expected.size() < limit; index--) {
+            if (!text.isEmpty() && written.get((int) index).contains(text)) {
+                expected.add(index);
+            }
+        }
+        List<Long> hits = new ArrayList<>();
+        store.findAll(text, from, to, index -> {
+            hits.add(index);
+            return hits.size() < limit;
+        });
+        assertEquals(expected, hits, "'" + text + "' from " + from + " to " + to);
+        return hits.size();
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Step results are read back from the marker lines, whatever else the shell printed.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 20:00
+ * @Version 1.0
+ */
+class CommandPipelineTest {
+
+    private static final CommandTemplate ECHO = new CommandTemplate("echo %s");
+
+    @Test
+    void parsesMarkersBetweenBanners() {
+        CommandPipeline pipeline = CommandPipeline.builder().step(ECHO, "a").step(ECHO, "b").build();
+        String output = "Welcome to the server\n"
+                + marker(0, 0, "out a\nsecond line\n", "") + "\r\n"
+                + "Last login: yesterday\n"
+                + marker(1, 3, "", "failed: 中文\n") + "\n";
+
+        List<CommandPipeline.StepResult> results = pipeline.parse(output);
+        assertEquals(2, results.size());
+        assertEquals("echo a", results.get(0).getCommand());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("out a\nsecond line\n", results.get(0).getText());
+        assertEquals(3, results.get(1).getExitCode());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("failed: 中文\n", results.get(1).getText());
+    }
+
+    @Test
+    void stopsAtTheFirstMissingStep() {
+        CommandPipeline pipeline = CommandPipeline.builder().step(ECHO, "a").step(ECHO, "b").step(ECHO, "c")
+                .stopOnError().build();
+        List<CommandPipeline.StepResult> results = pipeline.parse(marker(0, 1, "", "no") + "\n" + marker(2, 0, "c", ""));
+        assertEquals(1, results.size());
+        assertEquals(1, results.get(0).getExitCode());
+    }
+
+    @Test
+    void ignoresMalformedAndForeignLines() {
+        CommandPipeline pipeline = CommandPipeline.builder().step(ECHO, "a").build();
+        String output = "@@jarpilot-step 0 0 :\n"
+                + "@@jarpilot-step 7 0 : :\n"
+                + "@@jarpilot-stepper 0 0 : :\n"
+                + marker(0, 0, "ok", "");
+        List<CommandPipeline.StepResult> results = pipeline.parse(output);
+        assertEquals(1, results.size());
+        assertEquals("ok", results.get(0).getOutput());
+    }
+
+    @Test
+    void renderedScriptRunsInAShell() throws IOException, InterruptedException {
+        assumeTrue(new File("/bin/sh").canExecute() && new File("/usr/bin/base64").exists(), "needs a POSIX shell");
+        CommandPipeline pipeline = CommandPipeline.builder()
+                .step(new CommandTemplate("printf '%%s\\n' %s"), "'two  spaces'")
+                .step(new CommandTemplate("echo %s >&2; exit %d"), "oops", 4)
+                .step(ECHO, "never")
+                .stopOnError()
+                .build();
+
+        List<CommandPipeline.StepResult> results = pipeline.parse(sh(pipeline.render()));
+        assertEquals(2, results.size());
+        assertEquals("two  spaces\n", results.get(0).getOutput());
+        assertEquals(4, results.get(1).getExitCode());
+        assertEquals("oops\n", results.get(1).getError());
+    }
+
+    private static String marker(int index, int exitCode, String out, String err) {
+        return "@@jarpilot-step " + index + " " + exitCode + " :" + base64(out) + " :" + base64(err);
+    }
+
+    private static String base64(String text) {
+        return Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sh(String script) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder("/bin/sh", "-c", script).redirectErrorStream(true).start();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = process.getInputStream()) {
+            in.transferTo(out);
+        }
+        assertEquals(0, process.waitFor());
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.service;
+
+import org.htx.model.CommandTemplate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The agent script in a local shell, and replies the agent must not trust.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 20:00
+ * @Version 1.0
+ */
+class RemoteAgentTest {
+
+    private static final int LIMIT = 1000;
+
+    private Process process;
+
+    @AfterEach
+    void stop() {
+        if (process != null) {
+            process.destroyForcibly();
+        }
+    }
+
+    @Test
+    void runsCommandsInTurn() throws IOException {
+        RemoteAgent agent = start();
+        RemoteAgent.Result result = run(agent, "echo out; echo 中文 >&2; exit 3");
+        assertEquals(3, result.getExitCode());
+        assertEquals("out\n", result.getStdout());
+        assertEquals("中文\n", result.getStderr());
+        assertEquals("second\n", run(agent, "echo second").getStdout());
+    }
+
+    @Test
+    void outputOverTheLimitIsCut() throws IOException {
+        RemoteAgent agent = start();
+        RemoteAgent.Result result = run(agent, "head -c 5000 /dev/zero | tr '\\0' o; head -c 1500 /dev/zero | tr '\\0' e >&2");
+        assertEquals(0, result.getExitCode());
+        assertEquals("o".repeat(LIMIT) + "\n... (4000 bytes truncated)", result.getStdout());
+        assertEquals("e".repeat(LIMIT) + "\n... (500 bytes truncated)", result.getStderr());
+        // the stream is still in step for the next command
+        assertEquals("next\n", run(agent, "echo next").getStdout());
+        assertTrue(agent.isOpen());
+    }
+
+    @Test
+    void rejectsLengthsOutsideTheLimit() {
+        for (String reply : new String[]{
+                "1 0 2000000000 0 2000000000 0\n",
+                "1 0 -1 0 -1 0\n",
+                "1 0 1001 0 1001 0\n",
+                "1 0 10 0 5000 0\n",
+                "1 0 5 0\nhello",
+                "1 0 x 0 1 0\n",
+                "9".repeat(10_000)}) {
+            boolean[] closed = {false};
+            RemoteAgent agent = new RemoteAgent(new ByteArrayInputStream(reply.getBytes(StandardCharsets.UTF_8)),
+                    new ByteArrayOutputStream(), () -> closed[0] = true, () -> true, LIMIT);
+            assertThrows(IOException.class, () -> run(agent, "true"), reply);
+            assertTrue(closed[0]);
+            assertFalse(agent.isOpen());
+        }
+    }
+
+    private RemoteAgent start() throws IOException {
+        assumeTrue(new File("/bin/sh").canExecute() && new File("/usr/bin/base64").exists(), "needs a POSIX shell");
+        process = new ProcessBuilder("/bin/sh", "-c", CommandTemplate.COMMAND_AGENT_UNIX.render(LIMIT)).start();
+        return new RemoteAgent(process.getInputStream(), process.getOutputStream(), process::destroy,
+                process::isAlive, LIMIT);
+    }
+
+    private static RemoteAgent.Result run(RemoteAgent agent, String cmd) throws IOException {
+        return agent.exec(cmd, 10, TimeUnit.SECONDS, () -> true);
+    }
+}
@@ -0,0 +1,303 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.service;
+
+import org.htx.log.LogLayout;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Line reads and time searches over a file held in memory, compared with reading it from the start.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 20:00
+ * @Version 1.0
+ */
+class RemoteLogFileTest {
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+    private static final long T0 = Instant.parse("2025-10-19T08:00:00Z").toEpochMilli();
+
+    /**
+     * Content of one file, a rotation puts another one at the path.
+     */
+    private static final class MemoryFile {
+        private byte[] data = new byte[0];
+    }
+
+    /**
+     * A path whose file grows, shrinks or is replaced, with a handle that keeps reading the file it was
+     * opened on. The next call can fail, like a connection that dropped.
+     */
+    private static final class MemorySource implements RemoteLogFile.Source {
+        private MemoryFile atPath = new MemoryFile();
+        private MemoryFile handle;
+        private boolean fail;
+        private int closed;
+        private int opened;
+
+        @Override
+        public long length() throws IOException {
+            check();
+            return atPath.data.length;
+        }
+
+        @Override
+        public long openLength() throws IOException {
+            check();
+            return open().data.length;
+        }
+
+        @Override
+        public int read(long offset, byte[] buffer, int start, int length) throws IOException {
+            check();
+            byte[] data = open().data;
+            if (offset >= data.length) {
+                return -1;
+            }
+            // short reads, like SFTP packets
+            int n = (int) Math.min(Math.min(length, 32 * 1024), data.length - offset);
+            System.arraycopy(data, (int) offset, buffer, start, n);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return handle != null;
+        }
+
+        @Override
+        public void close() {
+            if (handle != null) {
+                closed++;
+                handle = null;
+            }
+        }
+
+        private MemoryFile open() {
+            if (handle == null) {
+                handle = atPath;
+                opened++;
+            }
+            return handle;
+        }
+
+        private void check() throws IOException {
+            if (fail) {
+                fail = false;
+                throw new IOException("connection dropped");
+            }
+        }
+    }
+
+    private final MemorySource source = new MemorySource();
+    private final RemoteLogFile file = new RemoteLogFile("/var/log/app.log", source,
+            List.of(LogLayout.SPRING_BOOT_3), RemoteLogFile.DEFAULT_CACHE_PAGES);
+
+    /** offset and time of every timestamped line written */
+    private final List<long[]> stamped = new ArrayList<>();
+    /** time of the last line written */
+    private long writtenUntil = T0;
+
+    @Test
+    void findTimeMatchesAScan() throws IOException {
+        write(40_000, new Random(11));
+        long length = file.length();
+        Random random = new Random(12);
+        List<Long> times = new ArrayList<>(List.of(Long.MIN_VALUE, T0 - 1, T0, Long.MAX_VALUE));
+        for (int i = 0; i < 200; i++) {
+            long[] at = stamped.get(random.nextInt(stamped.size()));
+            times.add(at[1] + random.nextInt(3) - 1);
+        }
+        for (long millis : times) {
+            long expected = length;
+            for (long[] at : stamped) {
+                if (at[1] >= millis) {
+                    expected = at[0];
+                    break;
+                }
+            }
+            assertEquals(expected, file.findTime(millis), "time " + millis);
+        }
+        assertTrue(file.getFetched() <= 2 * length, "fetched " + file.getFetched() + " of " + length);
+    }
+
+    @Test
+    void readLinesFromAnyLineStart() throws IOException {
+        write(3000, new Random(13));
+        byte[] data = source.atPath.data;
+        List<long[]> expected = new ArrayList<>();
+        for (int start = 0, i = 0; i < data.length; i++) {
+            if (data[i] == '\n') {
+                expected.add(new long[]{start, i + 1});
+                start = i + 1;
+            }
+        }
+        long pos = 0;
+        int index = 0;
+        while (true) {
+            List<RemoteLogFile.Line> lines = file.readLines(pos, 100_000, 500);
+            if (lines.isEmpty()) {
+                break;
+            }
+            for (RemoteLogFile.Line line : lines) {
+                long[] at = expected.get(index++);
+                assertEquals(at[0], line.getStart());
+                assertEquals(at[1], line.getEnd());
+                String text = new String(data, (int) at[0], (int) (at[1] - at[0]), StandardCharsets.UTF_8);
+                assertEquals(text.replaceAll("\r?\n$", ""), line.getText());
+            }
+            pos = lines.get(lines.size() - 1).getEnd();
+        }
+        assertEquals(expected.size(), index);
+
+        assertEquals(0, file.lineStart(0));
+        assertEquals(expected.get(1)[0], file.lineStart(1));
+        assertEquals(expected.get(1)[0], file.lineStart(expected.get(1)[0]));
+        assertEquals(data.length, file.lineStart(data.length - 1));
+    }
+
+    @Test
+    void growingAndTruncatedFile() throws IOException {
+        append("2025-10-19T08:00:00.000Z  INFO 1 --- [main] a.B : first\npartial");
+        assertEquals(1, file.readLines(0, Long.MAX_VALUE, 10).size());
+        long fetched = file.getFetched();
+        assertEquals(1, file.readLines(0, Long.MAX_VALUE, 10).size());
+        assertEquals(fetched, file.getFetched());
+
+        // the short last page is read again once the file has grown
+        append(" line\r\n");
+        List<RemoteLogFile.Line> lines = file.readLines(0, Long.MAX_VALUE, 10);
+        assertEquals(2, lines.size());
+        assertEquals("partial line", lines.get(1).getText());
+
+        // truncated in place: the cached pages are of the old content
+        source.atPath.data = "2025-10-19T09:00:00.000Z  WARN 1 --- [main] a.B : new\n".getBytes(StandardCharsets.UTF_8);
+        lines = file.readLines(0, Long.MAX_VALUE, 10);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).getText().endsWith("new"));
+        assertEquals(Instant.parse("2025-10-19T09:00:00Z").toEpochMilli(), file.lastTime());
+    }
+
+    @Test
+    void followsARotatedFile() throws IOException {
+        write(2000, new Random(15));
+        assertEquals(2000, stampedLines());
+        long fetched = file.getFetched();
+
+        // renamed away and a new, longer log created at the path
+        MemoryFile old = source.atPath;
+        source.atPath = new MemoryFile();
+        stamped.clear();
+        writtenUntil = T0 + 3_600_000;
+        write(3000, new Random(16));
+        assertTrue(source.atPath.data.length > old.data.length);
+        assertEquals(3000, stampedLines());
+        assertEquals(stamped.get(0)[1], file.time(file.readLines(0, Long.MAX_VALUE, 1).get(0).getText()));
+        assertEquals(2, source.opened);
+        assertTrue(file.getFetched() > fetched + old.data.length / 2, "the new file is read, not the cache");
+
+        // the old file still grows, the viewer stays on the path
+        old.data = Arrays.copyOf(old.data, old.data.length + 10);
+        assertEquals(source.atPath.data.length, file.length());
+    }
+
+    @Test
+    void growthKeepsTheCache() throws IOException {
+        write(2000, new Random(17));
+        assertEquals(2000, stampedLines());
+        long fetched = file.getFetched();
+        assertEquals(2000, stampedLines());
+        assertEquals(fetched, file.getFetched());
+        assertEquals(1, source.opened);
+
+        int full = source.atPath.data.length / RemoteLogFile.PAGE_BYTES * RemoteLogFile.PAGE_BYTES;
+        write(10, new Random(18));
+        assertEquals(2010, stampedLines());
+        // the first bytes through the new handle, then only the short last page and the new bytes
+        assertEquals(256 + source.atPath.data.length - full, file.getFetched() - fetched);
+        assertEquals(2, source.opened);
+    }
+
+    private long stampedLines() throws IOException {
+        return file.readLines(0, Long.MAX_VALUE, Integer.MAX_VALUE).stream()
+                .filter(line -> file.time(line.getText()) >= 0).count();
+    }
+
+    @Test
+    void readsAgainAfterAFailure() throws IOException {
+        write(100, new Random(14));
+        source.fail = true;
+        assertEquals(source.atPath.data.length, file.length());
+        source.fail = true;
+        assertEquals(100, stampedLines());
+        // dropped with the broken channel and opened again
+        assertEquals(1, source.closed);
+        assertEquals(2, source.opened);
+    }
+
+    /**
+     * Timestamped lines a few millis apart, some with equal times, CRLF endings or stack traces after them.
+     */
+    private void write(int count, Random random) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long time = writtenUntil;
+        for (int i = 0; i < count; i++) {
+            time += random.nextInt(4) == 0 ? 0 : random.nextInt(50);
+            stamped.add(new long[]{source.atPath.data.length + out.size(), time});
+            String line = STAMP.format(Instant.ofEpochMilli(time).atOffset(ZoneOffset.UTC))
+                    + "  INFO 42 --- [main] com.example.Service : request " + i + " 订单"
+                    + "x".repeat(random.nextInt(200)) + (random.nextInt(10) == 0 ? "\r\n" : "\n");
+            out.writeBytes(line.getBytes(StandardCharsets.UTF_8));
+            if (random.nextInt(20) == 0) {
+                for (int frames = random.nextInt(30); frames > 0; frames--) {
+                    out.writeBytes("\tat com.example.Service.run(Service.java:1)\n".getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        writtenUntil = time;
+        append(out.toString(StandardCharsets.UTF_8));
+    }
+
+    private void append(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        MemoryFile file = source.atPath;
+        byte[] data = Arrays.copyOf(file.data, file.data.length + bytes.length);
+        System.arraycopy(bytes, 0, data, file.data.length, bytes.length);
+        file.data = data;
+    }
+}
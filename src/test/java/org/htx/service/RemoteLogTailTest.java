@@ -0,0 +1,156 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.service;
+
+import org.htx.log.LogLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The offset protocol of the filter script, from synthetic lines and from the script in a local shell.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 20:00
+ * @Version 1.0
+ */
+class RemoteLogTailTest {
+
+    private static final String EVENT = "2025-10-19T08:00:00.000Z  INFO 1 --- [main] a.B : ";
+
+    private final RemoteLogTail tail = new RemoteLogTail(null, () -> line -> {
+    });
+    private final List<String> received = new ArrayList<>();
+    private Process process;
+
+    @AfterEach
+    void stop() {
+        if (process != null) {
+            process.destroyForcibly();
+        }
+    }
+
+    @Test
+    void tracksTheOffsetAndInode() {
+        check("@4211 0", 0, "4211");
+        check("57 " + EVENT + "started", 57, "4211", EVENT + "started");
+        // a bare offset after lines the filter left out
+        check("9000", 9000, "4211");
+        check("9001 ", 9001, "4211", "");
+        // a rotation starts the new file from 0
+        check("@4300 0", 0, "4300");
+        check("40 " + EVENT + "rotated", 40, "4300", EVENT + "rotated");
+        // no file at the path yet
+        check("@ 0", 0, "");
+        check("@4300 128", 128, "4300");
+    }
+
+    @Test
+    void passesOtherOutputThrough() {
+        check("@4211 100", 100, "4211");
+        for (String line : new String[]{
+                "tail: cannot open '/var/log/app.log' for reading: No such file or directory",
+                "",
+                " 120 indented",
+                "12a text",
+                "1234567890123456789 nineteen digits",
+                "@4211",
+                "@4211 x",
+                "@inode 120",
+                "@4211 120 more",
+                "@$(id) 120"}) {
+            check(line, 100, "4211", line);
+        }
+    }
+
+    @Test
+    void dropsTheLinesOfAnOlderStart() {
+        check("@4211 100", 100, "4211");
+        tail.accept("200 stale", 1, received::add);
+        tail.accept("@4300 0", 1, received::add);
+        assertEquals(100, tail.getOffset());
+        assertEquals("4211", tail.getInode());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void followsAPathTheShellWouldExpand(@TempDir Path home) throws IOException, InterruptedException {
+        assumeTrue(new File("/bin/sh").canExecute() && new File("/usr/bin/awk").exists(), "needs a POSIX shell");
+        Path log = home.resolve("app $HOME `id` 'x'.log");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            text.append(i % 2 == 0 ? EVENT + "event " + i : "\tat a.B.c(B.java:" + i + ")").append('\n');
+        }
+        Files.writeString(log, text, StandardCharsets.UTF_8);
+        long size = Files.size(log);
+
+        String command = tail.command(log.toString(), new RemoteLogTail.Filter(LogLevel.INFO, "", ""), 0);
+        process = start(command, home);
+        BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        // the last 10 lines, the first of them a continuation line the filter keeps with the event before it
+        String inode = Files.getAttribute(log, "unix:ino").toString();
+        long start = size - text.toString().lines().skip(10).mapToInt(line -> line.length() + 1).sum();
+        tail.accept(out.readLine(), 0, received::add);
+        assertEquals(inode, tail.getInode());
+        assertEquals(start, tail.getOffset());
+        for (int i = 10; i < 20; i++) {
+            tail.accept(out.readLine(), 0, received::add);
+        }
+        assertEquals(size, tail.getOffset());
+        assertEquals(text.toString().lines().skip(10).toList(), received);
+
+        Process stop = start(tail.getStopCommand(), home);
+        assertTrue(stop.waitFor(10, TimeUnit.SECONDS));
+        assertTrue(process.waitFor(10, TimeUnit.SECONDS), "stopped");
+    }
+
+    private void check(String line, long offset, String inode, String... sent) {
+        received.clear();
+        tail.accept(line, 0, received::add);
+        assertEquals(offset, tail.getOffset(), line);
+        assertEquals(inode, tail.getInode(), line);
+        assertEquals(List.of(sent), received, line);
+    }
+
+    private static Process start(String command, Path home) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder("/bin/sh", "-c", command).redirectErrorStream(true);
+        builder.environment().put("HOME", home.toString());
+        return builder.start();
+    }
+}
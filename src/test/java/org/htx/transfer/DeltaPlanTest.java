@@ -0,0 +1,138 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A plan applied to the base file must give the target, whatever was changed between them.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 20:00
+ * @Version 1.0
+ */
+class DeltaPlanTest {
+
+    @TempDir
+    File dir;
+
+    private final Random random = new Random(3);
+
+    @Test
+    void sameFileIsAllCopies() throws IOException {
+        byte[] base = bytes(500_000);
+        DeltaPlan plan = check(base, base);
+        assertEquals(0, plan.getLiteralBytes());
+        assertEquals(base.length, plan.getReusedBytes());
+        assertEquals(1, plan.getOpCount());
+    }
+
+    @Test
+    void insertedBytesShiftTheRest() throws IOException {
+        byte[] base = bytes(500_000);
+        byte[] target = concat(Arrays.copyOf(base, 1000), bytes(37), Arrays.copyOfRange(base, 1000, base.length));
+        DeltaPlan plan = check(base, target);
+        assertTrue(plan.getLiteralBytes() < 2 * DeltaSignature.blockSizeFor(base.length), "literal " + plan.getLiteralBytes());
+    }
+
+    @Test
+    void changedBlockIsSentAgain() throws IOException {
+        byte[] base = bytes(500_000);
+        byte[] target = base.clone();
+        target[250_000] ^= 1;
+        DeltaPlan plan = check(base, target);
+        assertEquals(DeltaSignature.blockSizeFor(base.length), plan.getLiteralBytes());
+    }
+
+    @Test
+    void shortTailBlockIsReused() throws IOException {
+        byte[] base = bytes(500_001);
+        byte[] target = concat(bytes(10), base);
+        DeltaPlan plan = check(base, target);
+        assertEquals(10, plan.getLiteralBytes());
+    }
+
+    @Test
+    void grownTruncatedAndEmptyFiles() throws IOException {
+        byte[] base = bytes(300_000);
+        check(base, concat(base, bytes(5000)));
+        check(base, Arrays.copyOf(base, 123_456));
+        check(base, new byte[0]);
+        check(new byte[0], base);
+        check(bytes(100), bytes(100));
+    }
+
+    /**
+     * Encode the target against the base, rebuild it from the ops and compare.
+     */
+    private DeltaPlan check(byte[] base, byte[] target) throws IOException {
+        File baseFile = write("base", base);
+        File targetFile = write("target", target);
+        File literalFile = new File(dir, "literal");
+        DeltaPlan plan = DeltaPlan.encode(targetFile, DeltaSignature.compute(baseFile), literalFile);
+
+        byte[] literal = Files.readAllBytes(literalFile.toPath());
+        assertEquals(plan.getLiteralBytes(), literal.length);
+        ByteArrayOutputStream rebuilt = new ByteArrayOutputStream();
+        for (DeltaPlan.Op op : plan.getOps()) {
+            byte[] source = op.copy ? base : literal;
+            rebuilt.write(source, (int) op.offset, (int) op.length);
+        }
+        assertArrayEquals(target, rebuilt.toByteArray());
+        assertEquals(target.length, plan.getLiteralBytes() + plan.getReusedBytes());
+        return plan;
+    }
+
+    private File write(String name, byte[] data) throws IOException {
+        File file = new File(dir, name);
+        Files.write(file.toPath(), data);
+        return file;
+    }
+
+    private byte[] bytes(int length) {
+        byte[] data = new byte[length];
+        random.nextBytes(data);
+        return data;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rolling the window must give the checksum of the window computed from scratch.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 20:00
+ * @Version 1.0
+ */
+class RollingChecksumTest {
+
+    @Test
+    void rollMatchesInit() {
+        byte[] data = new byte[64 * 1024];
+        new Random(1).nextBytes(data);
+        for (int window : new int[]{1, 7, 2048}) {
+            RollingChecksum rolling = new RollingChecksum();
+            RollingChecksum fresh = new RollingChecksum();
+            rolling.init(data, 0, window);
+            for (int pos = 1; pos + window <= data.length; pos++) {
+                rolling.roll(data[pos - 1], data[pos + window - 1]);
+                fresh.init(data, pos, window);
+                assertEquals(fresh.value(), rolling.value(), "window " + window + " at " + pos);
+            }
+        }
+    }
+
+    @Test
+    void bufferAndArrayAgree() {
+        byte[] data = new byte[10_000];
+        new Random(2).nextBytes(data);
+        RollingChecksum array = new RollingChecksum();
+        RollingChecksum buffer = new RollingChecksum();
+        array.init(data, 123, 4096);
+        buffer.init(ByteBuffer.wrap(data), 123, 4096);
+        assertEquals(array.value(), buffer.value());
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2025 Hao Tong Xue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.htx.transfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The average rate holds for small and large requests and for threads sharing a bucket.
+ *
+ * @Author Hao Tong Xue
+ * @Date 2025/10/19 20:00
+ * @Version 1.0
+ */
+class TokenBucketTest {
+
+    private static final long RATE = 4L * 1024 * 1024;
+
+    @Test
+    void unlimitedNeverWaits() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(0);
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            bucket.acquire(1024 * 1024);
+        }
+        assertTrue(millisSince(start) < 200);
+    }
+
+    @Test
+    void smallRequestsKeepTheRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(RATE);
+        long start = System.nanoTime();
+        for (int i = 0; i < 32; i++) {
+            bucket.acquire(RATE / 64);
+        }
+        assertAbout(500, millisSince(start));
+    }
+
+    @Test
+    void largeRequestGoesIntoDebt() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(RATE);
+        long start = System.nanoTime();
+        bucket.acquire(RATE / 2);
+        assertAbout(500, millisSince(start));
+    }
+
+    @Test
+    void threadsShareTheRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(RATE);
+        List<Thread> threads = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 8; i++) {
+                        bucket.acquire(RATE / 64);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertAbout(500, millisSince(start));
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static void assertAbout(long expected, long millis) {
+        assertTrue(millis >= expected * 8 / 10 && millis < expected * 3, millis + " ms, expected about " + expected);
+    }
+}